@@ -103,6 +103,8 @@ public class IOException extends RuntimeException {
     public static final String ImageMaskCannotContainAnotherImageMask = "Image mask cannot contain another image mask.";
     public static final String IncompletePalette = "Incomplete palette.";
     public static final String InvalidBmpFileCompression = "Invalid BMP file compression.";
+    public static final String InvalidCompiledCMap = "Invalid compiled CMap.";
+    public static final String InvalidCompiledFontMetrics = "Invalid compiled font metrics.";
     public static final String InvalidCodeEncountered = "Invalid code encountered.";
     public static final String InvalidCodeEncounteredWhileDecoding2dGroup3CompressedData = "Invalid code encountered while decoding 2D group 3 compressed data.";
     public static final String InvalidCodeEncounteredWhileDecoding2dGroup4CompressedData = "Invalid code encountered while decoding 2D group 4 compressed data.";
@@ -144,6 +146,8 @@ public class IOException extends RuntimeException {
     public static final String UnknownIOException = "Unknown I/O exception.";
     public static final String UnknownPngFilter = "Unknown PNG filter.";
     public static final String UnsupportedBoxSizeEqEq0 = "Unsupported box size == 0.";
+    public static final String UnsupportedCompiledCMapVersion = "Unsupported compiled CMap version.";
+    public static final String UnsupportedCompiledFontMetricsVersion = "Unsupported compiled font metrics version.";
     public static final String UnsupportedEncodingException = "Unsupported encoding exception.";
     public static final String _1BitSamplesAreNotSupportedForHorizontalDifferencingPredictor = "{0} bit samples are not supported for horizontal differencing predictor.";
     public static final String _1CorruptedJfifMarker = "{0} corrupted jfif marker.";
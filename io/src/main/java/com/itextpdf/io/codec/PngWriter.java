@@ -63,6 +63,8 @@ public class PngWriter {
     private static final byte[] IEND = ByteUtils.getIsoBytes("IEND");
     private static final byte[] iCCP = ByteUtils.getIsoBytes("iCCP");
 
+    private static final int MAX_DATA_CHUNK_LENGTH = 0x10000;
+
     private static int[] crc_table;
 
     private OutputStream outp;
@@ -105,6 +107,28 @@ public class PngWriter {
         writeChunk(IDAT, stream.toByteArray());
     }
 
+    /**
+     * Writes the image data which are compressed already, that is the zlib stream of the image rows,
+     * each of them preceded by its filter type byte.
+     *
+     * @param data the compressed image data
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCompressedData(byte[] data) throws IOException {
+        writeChunk(IDAT, data);
+    }
+
+    /**
+     * Creates the stream to write the image rows to, each of them preceded by its filter type byte.
+     * The rows are compressed and written out in the chunks of the limited size, so the image
+     * doesn't have to be kept in memory. The stream must be closed before {@link #writeEnd()}.
+     *
+     * @return the stream of the image rows
+     */
+    public OutputStream createDataStream() {
+        return new DeflaterOutputStream(new DataChunkOutputStream());
+    }
+
     public void writePalette(byte[] data) throws IOException {
         writeChunk(PLTE, data);
     }
@@ -170,12 +194,55 @@ public class PngWriter {
     }
 
     public void writeChunk(byte[] chunkType, byte[] data) throws IOException {
-        outputInt(data.length);
+        writeChunk(chunkType, data, 0, data.length);
+    }
+
+    private void writeChunk(byte[] chunkType, byte[] data, int offset, int length) throws IOException {
+        outputInt(length);
         outp.write(chunkType, 0, 4);
-        outp.write(data);
+        outp.write(data, offset, length);
         int c = update_crc(-1, chunkType, 0, chunkType.length);
-        c = ~update_crc(c, data, 0, data.length);
+        c = ~update_crc(c, data, offset, length);
         outputInt(c);
     }
 
+    private class DataChunkOutputStream extends OutputStream {
+        private final byte[] buffer = new byte[MAX_DATA_CHUNK_LENGTH];
+        private int count;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(IDAT, buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+
 }
@@ -76,66 +76,6 @@ public class TIFFFaxDecoder {
     // should iText try to recover from images it can't read?
     private boolean recoverFromImageError;
 
-    static int[] table1 = {
-
-            // 0 bits are left in first byte - SHOULD NOT HAPPEN
-            0x00,
-
-            // 1 bits are left in first byte
-            0x01,
-
-            // 2 bits are left in first byte
-            0x03,
-
-            // 3 bits are left in first byte
-            0x07,
-
-            // 4 bits are left in first byte
-            0x0f,
-
-            // 5 bits are left in first byte
-            0x1f,
-
-            // 6 bits are left in first byte
-            0x3f,
-
-            // 7 bits are left in first byte
-            0x7f,
-
-            // 8 bits are left in first byte
-            0xff
-    };
-
-    static int[] table2 = {
-
-            // 0
-            0x00,
-
-            // 1
-            0x80,
-
-            // 2
-            0xc0,
-
-            // 3
-            0xe0,
-
-            // 4
-            0xf0,
-
-            // 5
-            0xf8,
-
-            // 6
-            0xfc,
-
-            // 7
-            0xfe,
-
-            // 8
-            0xff
-    };
-
     // Table to be used when fillOrder = 2, for flipping bytes.
     public static byte[] flipTable = {
             (byte) 0x00, (byte) 0x80, (byte) 0x40, (byte) 0xc0, (byte) 0x20, (byte) 0xa0, (byte) 0x60, (byte) 0xe0,
@@ -654,7 +594,7 @@ public class TIFFFaxDecoder {
     // One-dimensional decoding methods
 
     public void decode1D(byte[] buffer, byte[] compData, int startX, int height) {
-        this.data = compData;
+        this.data = getDataInNormalFillOrder(compData);
 
         int lineOffset = 0;
         int scanlineStride = (w + 7) / 8;
@@ -826,7 +766,7 @@ public class TIFFFaxDecoder {
     // Two-dimensional decoding methods
 
     public void decode2D(byte[] buffer, byte[] compData, int startX, int height, long tiffT4Options) {
-        this.data = compData;
+        this.data = getDataInNormalFillOrder(compData);
         compression = 3;
 
         bitPointer = 0;
@@ -977,7 +917,7 @@ public class TIFFFaxDecoder {
                          int startX,
                          int height,
                          long tiffT6Options) {
-        this.data = compData;
+        this.data = getDataInNormalFillOrder(compData);
         compression = 4;
 
         bitPointer = 0;
@@ -1221,38 +1161,27 @@ public class TIFFFaxDecoder {
                             int numBits) {
         int bitNum = 8 * lineOffset + bitOffset;
         int lastBit = bitNum + numBits;
+        if (lastBit <= bitNum) {
+            return;
+        }
 
+        // the partial bytes at both ends of the run are masked, the bytes in between are filled at once
         int byteNum = bitNum >> 3;
-
-        // Handle bits in first byte
-        int shift = bitNum & 0x7;
-        if (shift > 0) {
-            int maskVal = 1 << (7 - shift);
-            byte val = buffer[byteNum];
-            while (maskVal > 0 && bitNum < lastBit) {
-                val |= (byte) maskVal;
-                maskVal >>= 1;
-                ++bitNum;
+        int lastByteNum = (lastBit - 1) >> 3;
+        int firstMask = 0xff >>> (bitNum & 0x7);
+        int lastMask = (0xff << (7 - ((lastBit - 1) & 0x7))) & 0xff;
+        if (byteNum == lastByteNum) {
+            if (!recoverFromImageError || byteNum < buffer.length) {
+                buffer[byteNum] |= (byte) (firstMask & lastMask);
             }
-            buffer[byteNum] = val;
+            return;
         }
-
-        // Fill in 8 bits at a time
-        byteNum = bitNum >> 3;
-        while (bitNum < lastBit - 7) {
-            buffer[byteNum++] = (byte) 255;
-            bitNum += 8;
+        buffer[byteNum] |= (byte) firstMask;
+        for (int i = byteNum + 1; i < lastByteNum; ++i) {
+            buffer[i] = (byte) 255;
         }
-
-        // Fill in remaining bits
-        while (bitNum < lastBit) {
-            byteNum = bitNum >> 3;
-            if (recoverFromImageError && !(byteNum < buffer.length)) {
-                // do nothing
-            } else {
-                buffer[byteNum] |= (byte) (1 << (7 - (bitNum & 0x7)));
-            }
-            ++bitNum;
+        if (!recoverFromImageError || lastByteNum < buffer.length) {
+            buffer[lastByteNum] |= (byte) lastMask;
         }
     }
 
@@ -1486,122 +1415,60 @@ public class TIFFFaxDecoder {
     }
 
     private int nextNBits(int bitsToGet) {
-        byte b, next, next2next;
         int l = data.length - 1;
         int bp = this.bytePointer;
 
-        if (fillOrder == 1) {
-            b = data[bp];
-
-            if (bp == l) {
-                next = 0x00;
-                next2next = 0x00;
-            } else if ((bp + 1) == l) {
-                next = data[bp + 1];
-                next2next = 0x00;
-            } else {
-                next = data[bp + 1];
-                next2next = data[bp + 2];
+        // at most 12 bits are read at once, so they always fit into the 3 bytes
+        int word = (data[bp] & 0xff) << 16;
+        if (bp < l) {
+            word |= (data[bp + 1] & 0xff) << 8;
+            if (bp + 1 < l) {
+                word |= data[bp + 2] & 0xff;
             }
-        } else if (fillOrder == 2) {
-            b = flipTable[data[bp] & 0xff];
-
-            if (bp == l) {
-                next = 0x00;
-                next2next = 0x00;
-            } else if ((bp + 1) == l) {
-                next = flipTable[data[bp + 1] & 0xff];
-                next2next = 0x00;
-            } else {
-                next = flipTable[data[bp + 1] & 0xff];
-                next2next = flipTable[data[bp + 2] & 0xff];
-            }
-        } else {
-            throw new IOException(IOException.TiffFillOrderTagMustBeEither1Or2);
         }
 
-        int bitsLeft = 8 - bitPointer;
-        int bitsFromNextByte = bitsToGet - bitsLeft;
-        int bitsFromNext2NextByte = 0;
-        if (bitsFromNextByte > 8) {
-            bitsFromNext2NextByte = bitsFromNextByte - 8;
-            bitsFromNextByte = 8;
-        }
+        int bitPosition = bitPointer + bitsToGet;
+        bytePointer = bp + (bitPosition >> 3);
+        bitPointer = bitPosition & 0x7;
 
-        bytePointer++;
+        return (word >>> (24 - bitPosition)) & ((1 << bitsToGet) - 1);
+    }
 
-        int i1 = (b & table1[bitsLeft]) << (bitsToGet - bitsLeft);
-        int i2 = (next & table2[bitsFromNextByte]) >>> (8 - bitsFromNextByte);
+    private int nextLesserThan8Bits(int bitsToGet) {
+        int l = data.length - 1;
+        int bp = this.bytePointer;
 
-        int i3;
-        if (bitsFromNext2NextByte != 0) {
-            i2 <<= bitsFromNext2NextByte;
-            i3 = (next2next & table2[bitsFromNext2NextByte]) >>>
-                    (8 - bitsFromNext2NextByte);
-            i2 |= i3;
-            bytePointer++;
-            bitPointer = bitsFromNext2NextByte;
+        int word;
+        if (recoverFromImageError && !(bp < data.length)) {
+            word = 0;
         } else {
-            if (bitsFromNextByte == 8) {
-                bitPointer = 0;
-                bytePointer++;
-            } else {
-                bitPointer = bitsFromNextByte;
+            word = (data[bp] & 0xff) << 8;
+            if (bp < l) {
+                word |= data[bp + 1] & 0xff;
             }
         }
 
-        return i1 | i2;
-    }
+        int bitPosition = bitPointer + bitsToGet;
+        bytePointer = bp + (bitPosition >> 3);
+        bitPointer = bitPosition & 0x7;
 
-    private int nextLesserThan8Bits(int bitsToGet) {
-        byte b = 0, next = 0;
-        int l = data.length - 1;
-        int bp = this.bytePointer;
+        return (word >>> (16 - bitPosition)) & ((1 << bitsToGet) - 1);
+    }
 
+    // The bit readers expect the most significant bit first, so the reversed data are flipped once here
+    // instead of flipping every byte each time it is read
+    private byte[] getDataInNormalFillOrder(byte[] compData) {
         if (fillOrder == 1) {
-            b = data[bp];
-            if (bp == l) {
-                next = 0x00;
-            } else {
-                next = data[bp + 1];
-            }
+            return compData;
         } else if (fillOrder == 2) {
-            if (recoverFromImageError && !(bp < data.length)) {
-                // do nothing
-            } else {
-                b = flipTable[data[bp] & 0xff];
-                if (bp == l) {
-                    next = 0x00;
-                } else {
-                    next = flipTable[data[bp + 1] & 0xff];
-                }
+            byte[] flipped = new byte[compData.length];
+            for (int k = 0; k < compData.length; ++k) {
+                flipped[k] = flipTable[compData[k] & 0xff];
             }
+            return flipped;
         } else {
             throw new IOException(IOException.TiffFillOrderTagMustBeEither1Or2);
         }
-
-        int bitsLeft = 8 - bitPointer;
-        int bitsFromNextByte = bitsToGet - bitsLeft;
-
-        int shift = bitsLeft - bitsToGet;
-        int i1, i2;
-        if (shift >= 0) {
-            i1 = (b & table1[bitsLeft]) >>> shift;
-            bitPointer += bitsToGet;
-            if (bitPointer == 8) {
-                bitPointer = 0;
-                bytePointer++;
-            }
-        } else {
-            i1 = (b & table1[bitsLeft]) << (-shift);
-            i2 = (next & table2[bitsFromNextByte]) >>> (8 - bitsFromNextByte);
-
-            i1 |= i2;
-            bytePointer++;
-            bitPointer = bitsFromNextByte;
-        }
-
-        return i1;
     }
 
     // Move pointer backwards by given amount of bits
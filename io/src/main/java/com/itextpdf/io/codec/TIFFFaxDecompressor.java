@@ -94,28 +94,6 @@ public class TIFFFaxDecompressor {
 
     private final Object lock = new Object();
 
-    static int[] table1 = {
-            0x00, // 0 bits are left in first byte - SHOULD NOT HAPPEN
-            0x01, // 1 bits are left in first byte
-            0x03, // 2 bits are left in first byte
-            0x07, // 3 bits are left in first byte
-            0x0f, // 4 bits are left in first byte
-            0x1f, // 5 bits are left in first byte
-            0x3f, // 6 bits are left in first byte
-            0x7f, // 7 bits are left in first byte
-            0xff // 8 bits are left in first byte
-    };
-    static int[] table2 = {
-            0x00, // 0
-            0x80, // 1
-            0xc0, // 2
-            0xe0, // 3
-            0xf0, // 4
-            0xf8, // 5
-            0xfc, // 6
-            0xfe, // 7
-            0xff // 8
-    };
     // Table to be used when fillOrder = 2, for flipping bytes.
     static byte[] flipTable = {
             (byte) 0x00, (byte) 0x80, (byte) 0x40, (byte) 0xc0, (byte) 0x20, (byte) 0xa0, (byte) 0x60, (byte) 0xe0,
@@ -621,7 +599,7 @@ public class TIFFFaxDecompressor {
     public void decodeRaw(byte[] buffer, byte[] compData, int w, int h) {
 
         this.buffer = buffer;
-        this.data = compData;
+        this.data = getDataInNormalFillOrder(compData);
         this.w = w;
         this.h = h;
         this.bitsPerScanline = w;
@@ -629,8 +607,9 @@ public class TIFFFaxDecompressor {
 
         this.bitPointer = 0;
         this.bytePointer = 0;
-        this.prevChangingElems = new int[w + 1];
-        this.currChangingElems = new int[w + 1];
+        // an empty white run at the start of a row and the element beyond the row are recorded too
+        this.prevChangingElems = new int[2 * w + 2];
+        this.currChangingElems = new int[2 * w + 2];
 
         fails = 0;
 
@@ -1214,34 +1193,24 @@ public class TIFFFaxDecompressor {
         bitNum += lineBitNum;
 
         int lastBit = bitNum + numBits;
-        int byteNum = bitNum >> 3;
-
-        // Handle bits in first byte
-        int shift = bitNum & 0x7;
-        if (shift > 0) {
-            int maskVal = 1 << (7 - shift);
-            byte val = buffer[byteNum];
-            while (maskVal > 0 && bitNum < lastBit) {
-                val |= (byte) maskVal;
-                maskVal >>= 1;
-                ++bitNum;
-            }
-            buffer[byteNum] = val;
+        if (lastBit <= bitNum) {
+            return;
         }
 
-        // Fill in 8 bits at a time
-        byteNum = bitNum >> 3;
-        while (bitNum < lastBit - 7) {
-            buffer[byteNum++] = (byte) 255;
-            bitNum += 8;
+        // the partial bytes at both ends of the run are masked, the bytes in between are filled at once
+        int byteNum = bitNum >> 3;
+        int lastByteNum = (lastBit - 1) >> 3;
+        int firstMask = 0xff >>> (bitNum & 0x7);
+        int lastMask = (0xff << (7 - ((lastBit - 1) & 0x7))) & 0xff;
+        if (byteNum == lastByteNum) {
+            buffer[byteNum] |= (byte) (firstMask & lastMask);
+            return;
         }
-
-        // Fill in remaining bits
-        while (bitNum < lastBit) {
-            byteNum = bitNum >> 3;
-            buffer[byteNum] |= (byte) (1 << (7 - (bitNum & 0x7)));
-            ++bitNum;
+        buffer[byteNum] |= (byte) firstMask;
+        for (int i = byteNum + 1; i < lastByteNum; ++i) {
+            buffer[i] = (byte) 255;
         }
+        buffer[lastByteNum] |= (byte) lastMask;
     }
 
     // Returns run length
@@ -1418,117 +1387,55 @@ public class TIFFFaxDecompressor {
     }
 
     private int nextNBits(int bitsToGet) {
-        byte b, next, next2next;
         int l = data.length - 1;
         int bp = this.bytePointer;
 
-        if (fillOrder == 1) {
-            b = data[bp];
-
-            if (bp == l) {
-                next = 0x00;
-                next2next = 0x00;
-            } else if ((bp + 1) == l) {
-                next = data[bp + 1];
-                next2next = 0x00;
-            } else {
-                next = data[bp + 1];
-                next2next = data[bp + 2];
-            }
-        } else if (fillOrder == 2) {
-            b = flipTable[data[bp] & 0xff];
-
-            if (bp == l) {
-                next = 0x00;
-                next2next = 0x00;
-            } else if ((bp + 1) == l) {
-                next = flipTable[data[bp + 1] & 0xff];
-                next2next = 0x00;
-            } else {
-                next = flipTable[data[bp + 1] & 0xff];
-                next2next = flipTable[data[bp + 2] & 0xff];
+        // at most 12 bits are read at once, so they always fit into the 3 bytes
+        int word = (data[bp] & 0xff) << 16;
+        if (bp < l) {
+            word |= (data[bp + 1] & 0xff) << 8;
+            if (bp + 1 < l) {
+                word |= data[bp + 2] & 0xff;
             }
-        } else {
-            throw new RuntimeException("Invalid FillOrder");
-        }
-
-        int bitsLeft = 8 - bitPointer;
-        int bitsFromNextByte = bitsToGet - bitsLeft;
-        int bitsFromNext2NextByte = 0;
-        if (bitsFromNextByte > 8) {
-            bitsFromNext2NextByte = bitsFromNextByte - 8;
-            bitsFromNextByte = 8;
         }
 
-        bytePointer++;
-
-        int i1 = (b & table1[bitsLeft]) << (bitsToGet - bitsLeft);
-        int i2 = (next & table2[bitsFromNextByte]) >>> (8 - bitsFromNextByte);
+        int bitPosition = bitPointer + bitsToGet;
+        bytePointer = bp + (bitPosition >> 3);
+        bitPointer = bitPosition & 0x7;
 
-        int i3 = 0;
-        if (bitsFromNext2NextByte != 0) {
-            i2 <<= bitsFromNext2NextByte;
-            i3 = (next2next & table2[bitsFromNext2NextByte])
-                    >>> (8 - bitsFromNext2NextByte);
-            i2 |= i3;
-            bytePointer++;
-            bitPointer = bitsFromNext2NextByte;
-        } else {
-            if (bitsFromNextByte == 8) {
-                bitPointer = 0;
-                bytePointer++;
-            } else {
-                bitPointer = bitsFromNextByte;
-            }
-        }
-        return i1 | i2;
+        return (word >>> (24 - bitPosition)) & ((1 << bitsToGet) - 1);
     }
 
     private int nextLesserThan8Bits(int bitsToGet) {
-        byte b, next;
         int l = data.length - 1;
         int bp = this.bytePointer;
 
-        if (fillOrder == 1) {
-            b = data[bp];
-            if (bp == l) {
-                next = 0x00;
-            } else {
-                next = data[bp + 1];
-            }
-        } else if (fillOrder == 2) {
-            b = flipTable[data[bp] & 0xff];
-            if (bp == l) {
-                next = 0x00;
-            } else {
-                next = flipTable[data[bp + 1] & 0xff];
-            }
-        } else {
-            throw new RuntimeException("Invalid FillOrder");
+        int word = (data[bp] & 0xff) << 8;
+        if (bp < l) {
+            word |= data[bp + 1] & 0xff;
         }
 
-        int bitsLeft = 8 - bitPointer;
-        int bitsFromNextByte = bitsToGet - bitsLeft;
+        int bitPosition = bitPointer + bitsToGet;
+        bytePointer = bp + (bitPosition >> 3);
+        bitPointer = bitPosition & 0x7;
 
-        int shift = bitsLeft - bitsToGet;
-        int i1, i2;
-        if (shift >= 0) {
-            i1 = (b & table1[bitsLeft]) >>> shift;
-            bitPointer += bitsToGet;
-            if (bitPointer == 8) {
-                bitPointer = 0;
-                bytePointer++;
+        return (word >>> (16 - bitPosition)) & ((1 << bitsToGet) - 1);
+    }
+
+    // The bit readers expect the most significant bit first, so the reversed data are flipped once here
+    // instead of flipping every byte each time it is read
+    private byte[] getDataInNormalFillOrder(byte[] compData) {
+        if (fillOrder == 1) {
+            return compData;
+        } else if (fillOrder == 2) {
+            byte[] flipped = new byte[compData.length];
+            for (int k = 0; k < compData.length; ++k) {
+                flipped[k] = flipTable[compData[k] & 0xff];
             }
+            return flipped;
         } else {
-            i1 = (b & table1[bitsLeft]) << (-shift);
-            i2 = (next & table2[bitsFromNextByte]) >>> (8 - bitsFromNextByte);
-
-            i1 |= i2;
-            bytePointer++;
-            bitPointer = bitsFromNextByte;
+            throw new RuntimeException("Invalid FillOrder");
         }
-
-        return i1;
     }
 
     // Move pointer backwards by given amount of bits
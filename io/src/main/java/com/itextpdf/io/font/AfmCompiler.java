@@ -0,0 +1,295 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.IOException;
+import com.itextpdf.io.font.constants.FontResources;
+import com.itextpdf.io.font.otf.Glyph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the metrics of Type 1 fonts into a compact binary form which can be loaded without parsing the AFM file.
+ * <p>
+ * The compiled metrics keep the font names, the font metrics, the glyphs with the Unicode values
+ * already resolved from the glyph names and the kerning pairs, so that loading them into a {@link Type1Font}
+ * gives exactly the same font as parsing the AFM file. The metrics of the standard 14 fonts are shipped
+ * compiled next to the AFM files in {@link FontResources#AFMS}, with the {@link #COMPILED_METRICS_EXTENSION}
+ * extension, and are used instead of the AFM files when present. They have to be compiled again
+ * with {@link #compile(byte[], OutputStream)} whenever the AFM files change.
+ */
+public final class AfmCompiler {
+
+    /**
+     * The extension of the compiled metrics resources.
+     */
+    public static final String COMPILED_METRICS_EXTENSION = ".afmb";
+
+    private static final int MAGIC = 0x41464d31;
+    private static final int VERSION = 1;
+
+    private static final int IN_CODE_MAP = 1;
+    private static final int IN_UNICODE_MAP = 2;
+    private static final int HAS_BBOX = 4;
+
+    private AfmCompiler() {
+    }
+
+    /**
+     * Parses the AFM or PFM file and writes its compiled form into the stream.
+     *
+     * @param afm the content of the AFM or PFM file
+     * @param out the stream to write the compiled metrics to. The stream is not closed.
+     * @throws java.io.IOException if the metrics cannot be parsed or written
+     */
+    public static void compile(byte[] afm, OutputStream out) throws java.io.IOException {
+        Type1Font font = new Type1Font(null, null, afm, null);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        FontNames fontNames = font.getFontNames();
+        writeOptionalString(data, fontNames.getFontName());
+        writeNames(data, fontNames.getFullName());
+        writeNames(data, fontNames.getFamilyName());
+        data.writeShort(fontNames.getFontWeight());
+
+        FontMetrics fontMetrics = font.getFontMetrics();
+        data.writeFloat(fontMetrics.getItalicAngle());
+        data.writeBoolean(fontMetrics.isFixedPitch());
+        for (int value : fontMetrics.getBbox()) {
+            data.writeInt(value);
+        }
+        // the getter shifts the position by half of the thickness, the setter takes the value from the AFM file
+        data.writeInt(fontMetrics.getUnderlinePosition() + fontMetrics.getUnderlineThickness() / 2);
+        data.writeInt(fontMetrics.getUnderlineThickness());
+        data.writeInt(fontMetrics.getCapHeight());
+        data.writeInt(fontMetrics.getXHeight());
+        data.writeInt(fontMetrics.getTypoAscender());
+        data.writeInt(fontMetrics.getTypoDescender());
+        data.writeInt(fontMetrics.getStemH());
+        data.writeInt(fontMetrics.getStemV());
+
+        writeOptionalString(data, font.getCharacterSet());
+        data.writeUTF(font.encodingScheme);
+        data.writeBoolean(font.isFontSpecific());
+        data.writeInt(font.getAvgWidth());
+
+        writeGlyphs(data, font);
+        writeKernPairs(data, font.getKernPairs());
+        data.flush();
+    }
+
+    /**
+     * Loads the compiled metrics into the given font.
+     *
+     * @param in   the stream containing the compiled metrics. The stream is not closed.
+     * @param font the font to fill
+     * @throws java.io.IOException if the compiled metrics cannot be read
+     */
+    static void load(InputStream in, Type1Font font) throws java.io.IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException(IOException.InvalidCompiledFontMetrics);
+        }
+        if (data.readInt() != VERSION) {
+            throw new IOException(IOException.UnsupportedCompiledFontMetricsVersion);
+        }
+
+        FontNames fontNames = font.getFontNames();
+        String fontName = readOptionalString(data);
+        if (fontName != null) {
+            fontNames.setFontName(fontName);
+        }
+        String[][] fullName = readNames(data);
+        if (fullName != null) {
+            fontNames.setFullName(fullName);
+        }
+        String[][] familyName = readNames(data);
+        if (familyName != null) {
+            fontNames.setFamilyName(familyName);
+        }
+        fontNames.setFontWeight(data.readShort());
+
+        FontMetrics fontMetrics = font.getFontMetrics();
+        fontMetrics.setItalicAngle(data.readFloat());
+        fontMetrics.setIsFixedPitch(data.readBoolean());
+        fontMetrics.setBbox(data.readInt(), data.readInt(), data.readInt(), data.readInt());
+        fontMetrics.setUnderlinePosition(data.readInt());
+        fontMetrics.setUnderlineThickness(data.readInt());
+        fontMetrics.setCapHeight(data.readInt());
+        fontMetrics.setXHeight(data.readInt());
+        fontMetrics.setTypoAscender(data.readInt());
+        fontMetrics.setTypoDescender(data.readInt());
+        fontMetrics.setStemH(data.readInt());
+        fontMetrics.setStemV(data.readInt());
+
+        font.setCharacterSet(readOptionalString(data));
+        font.encodingScheme = data.readUTF();
+        font.isFontSpecific = data.readBoolean();
+        font.avgWidth = data.readInt();
+
+        readGlyphs(data, font);
+        readKernPairs(data, font);
+    }
+
+    private static void writeGlyphs(DataOutputStream data, Type1Font font) throws java.io.IOException {
+        // the same glyph object is shared by both maps, the glyphs only reachable by Unicode follow the others
+        List<Glyph> glyphs = new ArrayList<>(font.codeToGlyph.values());
+        for (Glyph glyph : font.unicodeToGlyph.values()) {
+            if (glyph.getCode() < 0 || font.codeToGlyph.get(glyph.getCode()) != glyph) {
+                glyphs.add(glyph);
+            }
+        }
+        data.writeInt(glyphs.size());
+        for (Glyph glyph : glyphs) {
+            int flags = 0;
+            if (glyph.getCode() >= 0 && font.codeToGlyph.get(glyph.getCode()) == glyph) {
+                flags |= IN_CODE_MAP;
+            }
+            if (glyph.getUnicode() != -1 && font.unicodeToGlyph.get(glyph.getUnicode()) == glyph) {
+                flags |= IN_UNICODE_MAP;
+            }
+            int[] bbox = glyph.getBbox();
+            if (bbox != null) {
+                flags |= HAS_BBOX;
+            }
+            data.writeByte(flags);
+            data.writeInt(glyph.getCode());
+            data.writeInt(glyph.getWidth());
+            data.writeInt(glyph.getUnicode());
+            if (bbox != null) {
+                for (int value : bbox) {
+                    data.writeInt(value);
+                }
+            }
+        }
+    }
+
+    private static void readGlyphs(DataInputStream data, Type1Font font) throws java.io.IOException {
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            int flags = data.readUnsignedByte();
+            int code = data.readInt();
+            int width = data.readInt();
+            int unicode = data.readInt();
+            int[] bbox = null;
+            if ((flags & HAS_BBOX) != 0) {
+                bbox = new int[] {data.readInt(), data.readInt(), data.readInt(), data.readInt()};
+            }
+            Glyph glyph = new Glyph(code, width, unicode, bbox);
+            if ((flags & IN_CODE_MAP) != 0) {
+                font.codeToGlyph.put(code, glyph);
+            }
+            if ((flags & IN_UNICODE_MAP) != 0) {
+                font.unicodeToGlyph.put(unicode, glyph);
+            }
+        }
+    }
+
+    private static void writeKernPairs(DataOutputStream data, Map<Long, Integer> kernPairs) throws java.io.IOException {
+        // the pairs are grouped by the first character
+        long[] records = new long[kernPairs.size()];
+        int i = 0;
+        for (Long record : kernPairs.keySet()) {
+            records[i++] = (long) record;
+        }
+        Arrays.sort(records);
+        data.writeInt(records.length);
+        int start = 0;
+        while (start < records.length) {
+            int first = (int) (records[start] >>> 32);
+            int end = start + 1;
+            while (end < records.length && (int) (records[end] >>> 32) == first) {
+                end++;
+            }
+            data.writeInt(first);
+            data.writeInt(end - start);
+            for (int k = start; k < end; k++) {
+                data.writeInt((int) records[k]);
+                data.writeInt((int) kernPairs.get(records[k]));
+            }
+            start = end;
+        }
+    }
+
+    private static void readKernPairs(DataInputStream data, Type1Font font) throws java.io.IOException {
+        int remaining = data.readInt();
+        while (remaining > 0) {
+            int first = data.readInt();
+            int count = data.readInt();
+            for (int k = 0; k < count; k++) {
+                int second = data.readInt();
+                font.setKerning(first, second, data.readInt());
+            }
+            remaining -= count;
+        }
+    }
+
+    private static void writeNames(DataOutputStream data, String[][] names) throws java.io.IOException {
+        if (names == null) {
+            data.writeInt(-1);
+            return;
+        }
+        data.writeInt(names.length);
+        for (String[] name : names) {
+            data.writeInt(name.length);
+            for (String part : name) {
+                writeOptionalString(data, part);
+            }
+        }
+    }
+
+    private static String[][] readNames(DataInputStream data) throws java.io.IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        String[][] names = new String[length][];
+        for (int i = 0; i < length; i++) {
+            names[i] = new String[data.readInt()];
+            for (int k = 0; k < names[i].length; k++) {
+                names[i][k] = readOptionalString(data);
+            }
+        }
+        return names;
+    }
+
+    private static void writeOptionalString(DataOutputStream data, String value) throws java.io.IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream data) throws java.io.IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+}
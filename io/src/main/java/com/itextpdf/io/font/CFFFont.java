@@ -1039,8 +1039,18 @@ public class CFFFont {
     RandomAccessSourceFactory rasFactory = new RandomAccessSourceFactory();
 
     public CFFFont(byte[] cff) {
+        this(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(cff)));
+    }
+
+    /**
+     * Parses the CFF font data. The data are read from the given source on demand,
+     * so it may be a view of a bigger source, e.g. of the memory mapped OpenType font file.
+     *
+     * @param cff the source of the CFF font data
+     */
+    public CFFFont(RandomAccessFileOrArray cff) {
         //System.err.println("CFF: nStdString = "+standardStrings.length);
-        buf = new RandomAccessFileOrArray(rasFactory.createSource(cff));
+        buf = cff;
         seek(0);
 
         int major, minor;
@@ -48,12 +48,14 @@ import com.itextpdf.io.font.cmap.AbstractCMap;
 import com.itextpdf.io.font.cmap.CMapByteCid;
 import com.itextpdf.io.font.cmap.CMapCidByte;
 import com.itextpdf.io.font.cmap.CMapCidUni;
+import com.itextpdf.io.font.cmap.CMapCompiler;
 import com.itextpdf.io.font.cmap.CMapLocationResource;
 import com.itextpdf.io.font.cmap.CMapParser;
 import com.itextpdf.io.font.cmap.CMapUniCid;
 import com.itextpdf.io.font.constants.FontResources;
 import com.itextpdf.io.util.IntHashtable;
 import com.itextpdf.io.util.ResourceUtil;
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -77,6 +79,11 @@ public class FontCache {
 
     private static Map<FontCacheKey, FontProgram> fontCache = new ConcurrentHashMap<>();
 
+    /**
+     * Parsed predefined CMaps. The CMaps are not modified after parsing, so they are shared between threads.
+     */
+    private static final Map<String, AbstractCMap> parsedCmaps = new ConcurrentHashMap<>();
+
     static {
         try {
             loadRegistry();
@@ -149,23 +156,35 @@ public class FontCache {
      * @return an object for convenient mapping from cid to unicode. If no CMap was found for provided name an exception is thrown.
      */
     public static CMapCidUni getCid2UniCmap(String uniMap) {
-        CMapCidUni cidUni = new CMapCidUni();
-        return parseCmap(uniMap, cidUni);
+        CMapCidUni cidUni = (CMapCidUni) parsedCmaps.get("CidUni/" + uniMap);
+        if (cidUni == null) {
+            cidUni = saveParsedCmap("CidUni/" + uniMap, parseCmap(uniMap, new CMapCidUni()));
+        }
+        return cidUni;
     }
 
     public static CMapUniCid getUni2CidCmap(String uniMap) {
-        CMapUniCid uniCid = new CMapUniCid();
-        return parseCmap(uniMap, uniCid);
+        CMapUniCid uniCid = (CMapUniCid) parsedCmaps.get("UniCid/" + uniMap);
+        if (uniCid == null) {
+            uniCid = saveParsedCmap("UniCid/" + uniMap, parseCmap(uniMap, new CMapUniCid()));
+        }
+        return uniCid;
     }
 
     public static CMapByteCid getByte2CidCmap(String cmap) {
-        CMapByteCid uniCid = new CMapByteCid();
-        return parseCmap(cmap, uniCid);
+        CMapByteCid byteCid = (CMapByteCid) parsedCmaps.get("ByteCid/" + cmap);
+        if (byteCid == null) {
+            byteCid = saveParsedCmap("ByteCid/" + cmap, parseCmap(cmap, new CMapByteCid()));
+        }
+        return byteCid;
     }
 
     public static CMapCidByte getCid2Byte(String cmap) {
-        CMapCidByte cidByte = new CMapCidByte();
-        return parseCmap(cmap, cidByte);
+        CMapCidByte cidByte = (CMapCidByte) parsedCmaps.get("CidByte/" + cmap);
+        if (cidByte == null) {
+            cidByte = saveParsedCmap("CidByte/" + cmap, parseCmap(cmap, new CMapCidByte()));
+        }
+        return cidByte;
     }
 
     /**
@@ -259,8 +278,26 @@ public class FontCache {
         return h;
     }
 
+    private static <T extends AbstractCMap> T saveParsedCmap(String key, T cmap) {
+        AbstractCMap cmapFound = parsedCmaps.get(key);
+        if (cmapFound != null) {
+            return (T) cmapFound;
+        }
+        parsedCmaps.put(key, cmap);
+        return cmap;
+    }
+
     private static <T extends AbstractCMap> T parseCmap(String name, T cmap) {
         try {
+            // the compiled CMap is preferred, since loading it doesn't need the PostScript tokenizing
+            InputStream compiled = ResourceUtil.getResourceStream(FontResources.CMAPS + name + CMapCompiler.COMPILED_CMAP_EXTENSION);
+            if (compiled != null) {
+                try {
+                    return CMapCompiler.load(new BufferedInputStream(compiled), cmap);
+                } finally {
+                    compiled.close();
+                }
+            }
             CMapParser.parseCid(name, cmap, new CMapLocationResource());
         } catch (java.io.IOException e) {
             throw new IOException(IOException.IoException, e);
@@ -89,6 +89,12 @@ public class FontEncoding implements Serializable {
      */
     protected IntHashtable unicodeDifferences;
 
+    /**
+     * The codes of the first 256 unicode values, or -1 for the values the encoding can't convert.
+     * It is built from {@link #unicodeToCode} on the first conversion.
+     */
+    private int[] latinCodes;
+
     protected FontEncoding() {
         unicodeToCode = new IntHashtable(256);
         codeToUnicode = ArrayUtil.fillWithValue(new int[256], -1);
@@ -149,6 +155,7 @@ public class FontEncoding implements Serializable {
         String glyphName = AdobeGlyphList.unicodeToName(unicode);
         if (glyphName != null) {
             unicodeToCode.put(unicode, code);
+            latinCodes = null;
             codeToUnicode[code] = unicode;
             differences[code] = glyphName;
             unicodeDifferences.put(unicode, unicode);
@@ -191,11 +198,19 @@ public class FontEncoding implements Serializable {
         if (text == null || text.length() == 0) {
             return emptyBytes;
         }
+        int[] latinCodes = getLatinCodes();
         int ptr = 0;
         byte[] bytes = new byte[text.length()];
         for (int i = 0; i < text.length(); i++) {
-            if (unicodeToCode.containsKey(text.charAt(i))) {
-                bytes[ptr++] = (byte) convertToByte(text.charAt(i));
+            char ch = text.charAt(i);
+            if (ch < latinCodes.length) {
+                // Latin text is converted by the table, without looking the characters up in the hashtable
+                int code = latinCodes[ch];
+                if (code >= 0) {
+                    bytes[ptr++] = (byte) code;
+                }
+            } else if (unicodeToCode.containsKey(ch)) {
+                bytes[ptr++] = (byte) convertToByte(ch);
             }
         }
         return ArrayUtil.shortenArray(bytes, ptr);
@@ -362,4 +377,16 @@ public class FontEncoding implements Serializable {
                 return enc;
         }
     }
+
+    private int[] getLatinCodes() {
+        int[] codes = latinCodes;
+        if (codes == null) {
+            codes = new int[256];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = unicodeToCode.containsKey(i) ? unicodeToCode.get(i) : -1;
+            }
+            latinCodes = codes;
+        }
+        return codes;
+    }
 }
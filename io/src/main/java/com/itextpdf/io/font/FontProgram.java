@@ -47,6 +47,7 @@ import com.itextpdf.io.font.constants.FontMacStyleFlags;
 import com.itextpdf.io.font.constants.FontStretches;
 import com.itextpdf.io.font.constants.FontWeights;
 import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.ShapedGlyphLineCache;
 
 import java.io.Serializable;
 import java.util.HashMap;
@@ -79,6 +80,8 @@ public abstract class FontProgram implements Serializable {
 
     protected String registry;
 
+    private transient volatile ShapedGlyphLineCache shapedGlyphLineCache;
+
     public int countOfGlyphs() {
         return Math.max(codeToGlyph.size(), unicodeToGlyph.size());
     }
@@ -175,6 +178,25 @@ public abstract class FontProgram implements Serializable {
         return false;
     }
 
+    /**
+     * Gets the cache of the shaping results of this font program. Since font programs are shared
+     * between documents (see {@link FontCache}), the recurring text is shaped only once per font program.
+     *
+     * @return the shaping cache of this font program, never {@code null}
+     */
+    public ShapedGlyphLineCache getShapedGlyphLineCache() {
+        ShapedGlyphLineCache cache = shapedGlyphLineCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = shapedGlyphLineCache;
+                if (cache == null) {
+                    shapedGlyphLineCache = cache = new ShapedGlyphLineCache();
+                }
+            }
+        }
+        return cache;
+    }
+
     protected void setRegistry(String registry) {
         this.registry = registry;
     }
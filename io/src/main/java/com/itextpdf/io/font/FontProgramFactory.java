@@ -179,9 +179,9 @@ public final class FontProgramFactory {
             if (fontProgram != null) {
                 try {
                     if (WoffConverter.isWoffFont(fontProgram)) {
-                        fontProgram = WoffConverter.convert(fontProgram);
+                        fontProgram = WebFontCache.convertWoff(fontProgram);
                     } else if (Woff2Converter.isWoff2Font(fontProgram)) {
-                        fontProgram = Woff2Converter.convert(fontProgram);
+                        fontProgram = WebFontCache.convertWoff2(fontProgram);
                     }
                     fontBuilt = new TrueTypeFont(fontProgram);
                 } catch (Exception ignored) {
@@ -215,7 +215,7 @@ public final class FontProgramFactory {
                 }
                 if (".woff".equals(fontFileExtension)) {
                     try {
-                        fontProgram = WoffConverter.convert(fontProgram);
+                        fontProgram = WebFontCache.convertWoff(fontProgram);
                     } catch (IllegalArgumentException woffException) {
                         throw new IOException(IOException.InvalidWoffFile, woffException);
                     }
@@ -223,7 +223,7 @@ public final class FontProgramFactory {
                     // ".woff2".equals(fontFileExtension)
 
                     try {
-                        fontProgram = Woff2Converter.convert(fontProgram);
+                        fontProgram = WebFontCache.convertWoff2(fontProgram);
                     } catch (FontCompressionException woff2Exception) {
                         throw new IOException(IOException.InvalidWoff2File, woff2Exception);
                     }
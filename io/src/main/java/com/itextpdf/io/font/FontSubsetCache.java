@@ -0,0 +1,231 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide cache of font subsets.
+ * <p>
+ * Font programs are shared between documents (see {@link FontCache}), and the documents produced
+ * from the same template tend to use the same glyphs. The cache maps the font program together
+ * with the set of the used glyphs to the subset data, so that such documents don't run the
+ * subsetting over and over again. The total size of the cached subsets is limited,
+ * the least recently used subsets are evicted first.
+ * <p>
+ * The font programs are referenced weakly, so the cached data don't keep the font programs alive:
+ * the data of a font program are dropped once the program is garbage collected.
+ * <p>
+ * The cache is thread-safe.
+ */
+public final class FontSubsetCache {
+
+    /**
+     * The default limit of the total size of the cached subsets, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+    static final String TRUE_TYPE_SUBSET = "TrueType";
+    static final String TRUE_TYPE_FULL = "TrueTypeFull";
+    static final String CFF_SUBSET = "CFF";
+
+    private static final Map<SubsetKey, byte[]> subsets = new LinkedHashMap<>(16, 0.75f, true);
+    private static final ReferenceQueue<FontProgram> collectedPrograms = new ReferenceQueue<>();
+
+    private static long maxSize = DEFAULT_MAX_SIZE;
+    private static long size;
+    private static long hitCount;
+    private static long missCount;
+
+    private FontSubsetCache() {
+    }
+
+    /**
+     * Sets the limit of the total size of the cached subsets. Zero disables the caching.
+     *
+     * @param maxSizeInBytes the maximum total size of the cached subsets, in bytes
+     */
+    public static synchronized void setMaxSize(long maxSizeInBytes) {
+        if (maxSizeInBytes < 0) {
+            throw new IllegalArgumentException("maxSizeInBytes");
+        }
+        maxSize = maxSizeInBytes;
+        expungeCollectedPrograms();
+        evict();
+    }
+
+    /**
+     * Gets the limit of the total size of the cached subsets.
+     *
+     * @return the maximum total size of the cached subsets, in bytes
+     */
+    public static synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the total size of the currently cached subsets.
+     *
+     * @return the size of the cached subsets, in bytes
+     */
+    public static synchronized long getSize() {
+        expungeCollectedPrograms();
+        return size;
+    }
+
+    /**
+     * Gets the number of the subsets which were taken from the cache.
+     *
+     * @return the number of the cache hits
+     */
+    public static synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of the subsets which had to be built.
+     *
+     * @return the number of the cache misses
+     */
+    public static synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Removes all the cached subsets and resets the statistics.
+     */
+    public static synchronized void clear() {
+        subsets.clear();
+        while (collectedPrograms.poll() != null) {
+            // the keys of the collected programs are already removed
+        }
+        size = 0;
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    static Object createKey(FontProgram fontProgram, String subsetType, Set<Integer> glyphs) {
+        return new SubsetKey(fontProgram, subsetType, glyphs, null);
+    }
+
+    static synchronized byte[] get(Object key) {
+        expungeCollectedPrograms();
+        byte[] subset = subsets.get(key);
+        if (subset == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return subset.clone();
+    }
+
+    static synchronized void put(Object key, byte[] subset) {
+        if (subset == null || subset.length > maxSize) {
+            return;
+        }
+        expungeCollectedPrograms();
+        // the key stored in the cache is registered, so that it's removed once its font program is collected
+        byte[] previous = subsets.put(((SubsetKey) key).register(collectedPrograms), subset.clone());
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += subset.length;
+        evict();
+    }
+
+    private static void expungeCollectedPrograms() {
+        Reference<? extends FontProgram> collected;
+        while ((collected = collectedPrograms.poll()) != null) {
+            byte[] subset = subsets.remove(collected);
+            if (subset != null) {
+                size -= subset.length;
+            }
+        }
+    }
+
+    private static void evict() {
+        Iterator<byte[]> iterator = subsets.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private static class SubsetKey extends WeakReference<FontProgram> {
+        private final String subsetType;
+        private final int[] glyphs;
+        private final int hash;
+
+        SubsetKey(FontProgram fontProgram, String subsetType, Set<Integer> glyphs,
+                ReferenceQueue<FontProgram> queue) {
+            super(fontProgram, queue);
+            this.subsetType = subsetType;
+            this.glyphs = new int[glyphs.size()];
+            int i = 0;
+            for (Integer glyph : glyphs) {
+                this.glyphs[i++] = (int) glyph;
+            }
+            Arrays.sort(this.glyphs);
+            this.hash = 31 * (31 * System.identityHashCode(fontProgram) + subsetType.hashCode()) + Arrays.hashCode(this.glyphs);
+        }
+
+        private SubsetKey(SubsetKey key, ReferenceQueue<FontProgram> queue) {
+            super(key.get(), queue);
+            this.subsetType = key.subsetType;
+            this.glyphs = key.glyphs;
+            this.hash = key.hash;
+        }
+
+        SubsetKey register(ReferenceQueue<FontProgram> queue) {
+            return new SubsetKey(this, queue);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SubsetKey other = (SubsetKey) o;
+            FontProgram fontProgram = get();
+            // font programs are compared by identity, since the same file may be loaded with different settings;
+            // the key of a collected program is only equal to itself
+            return fontProgram != null && fontProgram == other.get() && subsetType.equals(other.subsetType)
+                    && Arrays.equals(glyphs, other.glyphs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -47,6 +47,7 @@ import com.itextpdf.io.IOException;
 import com.itextpdf.io.font.constants.FontStretches;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.source.WindowRandomAccessSource;
 import com.itextpdf.io.util.IntHashtable;
 
 import java.io.Closeable;
@@ -373,6 +374,19 @@ class OpenTypeParser implements Serializable, Closeable {
         }
     }
 
+    /**
+     * Creates a view of the Compact Font File Format data of this font file. The view reads the data
+     * directly from the font source, e.g. the memory mapped font file, without copying the whole table.
+     *
+     * @return the view of the CFF data or {@code null} if the font isn't CFF based
+     */
+    RandomAccessFileOrArray createCffView() {
+        if (!isCff()) {
+            return null;
+        }
+        return new RandomAccessFileOrArray(new WindowRandomAccessSource(raf.createSourceView(), cffOffset, cffLength));
+    }
+
     byte[] getSubset(Set<Integer> glyphs, boolean subset) throws java.io.IOException {
         TrueTypeFontSubset sb = new TrueTypeFontSubset(fileName,
                 raf.createView(), glyphs, directoryOffset, subset);
@@ -78,6 +78,12 @@ public class TrueTypeFont extends FontProgram {
     private GlyphPositioningTableReader gposTable;
     private OpenTypeGdefTableReader gdefTable;
 
+    /**
+     * GDEF, GSUB and GPOS tables are only needed for the OpenType features application,
+     * so they are read on the first request, see {@link #ensureLayoutTablesRead()}.
+     */
+    private volatile boolean layoutTablesRead;
+
     /**
      * The map containing the kerning information. It represents the content of
      * table 'kern'. The key is an <CODE>Integer</CODE> where the top 16 bits
@@ -87,8 +93,6 @@ public class TrueTypeFont extends FontProgram {
      */
     protected IntHashtable kerning = new IntHashtable();
 
-    private byte[] fontStreamBytes;
-
     private TrueTypeFont(OpenTypeParser fontParser) throws java.io.IOException {
         this.fontParser = fontParser;
         this.fontParser.loadTables(true);
@@ -154,20 +158,23 @@ public class TrueTypeFont extends FontProgram {
         }
     }
 
+    /**
+     * Reads the font program data to be embedded: the CFF data for CFF based fonts, the whole font file otherwise.
+     * The data are read from the font source on each call and aren't retained by the font program,
+     * so that the fonts backed by memory mapped files don't hold a heap copy of the font file.
+     *
+     * @return the font program data
+     */
     public byte[] getFontStreamBytes() {
-        if (fontStreamBytes != null)
-            return fontStreamBytes;
         try {
             if (fontParser.isCff()) {
-                fontStreamBytes = fontParser.readCffFont();
+                return fontParser.readCffFont();
             } else {
-                fontStreamBytes = fontParser.getFullFont();
+                return fontParser.getFullFont();
             }
         } catch (java.io.IOException e) {
-            fontStreamBytes = null;
             throw new IOException(IOException.IoException, e);
         }
-        return fontStreamBytes;
     }
 
     @Override
@@ -197,23 +204,52 @@ public class TrueTypeFont extends FontProgram {
     }
 
     public GlyphSubstitutionTableReader getGsubTable() {
+        ensureLayoutTablesRead();
         return gsubTable;
     }
 
     public GlyphPositioningTableReader getGposTable() {
+        ensureLayoutTablesRead();
         return gposTable;
     }
 
     public OpenTypeGdefTableReader getGdefTable() {
+        ensureLayoutTablesRead();
         return gdefTable;
     }
 
     public byte[] getSubset(Set<Integer> glyphs, boolean subset) {
+        Object key = FontSubsetCache.createKey(this,
+                subset ? FontSubsetCache.TRUE_TYPE_SUBSET : FontSubsetCache.TRUE_TYPE_FULL, glyphs);
+        byte[] subsetBytes = FontSubsetCache.get(key);
+        if (subsetBytes != null) {
+            return subsetBytes;
+        }
         try {
-            return fontParser.getSubset(glyphs, subset);
+            subsetBytes = fontParser.getSubset(glyphs, subset);
         } catch (java.io.IOException e) {
             throw new IOException(IOException.IoException, e);
         }
+        FontSubsetCache.put(key, subsetBytes);
+        return subsetBytes;
+    }
+
+    /**
+     * Creates a subset of the CFF data of the font containing the given glyphs.
+     * Unlike subsetting the {@link #getFontStreamBytes()} result, the CFF data are read directly
+     * from the font source, e.g. the memory mapped font file, without copying them to the heap.
+     *
+     * @param glyphs the glyphs to be kept in the subset
+     * @return the CFF data of the subset
+     */
+    public byte[] getCffSubset(Set<Integer> glyphs) {
+        Object key = FontSubsetCache.createKey(this, FontSubsetCache.CFF_SUBSET, glyphs);
+        byte[] subsetBytes = FontSubsetCache.get(key);
+        if (subsetBytes == null) {
+            subsetBytes = new CFFFontSubset(fontParser.createCffView(), glyphs).Process();
+            FontSubsetCache.put(key, subsetBytes);
+        }
+        return subsetBytes;
     }
 
     protected void readGdefTable() throws java.io.IOException {
@@ -240,6 +276,31 @@ public class TrueTypeFont extends FontProgram {
         }
     }
 
+    /**
+     * Reads the OpenType layout tables once. Simple text never needs them, so that the fonts
+     * which are only used for such text, or only probed for their properties, don't pay for parsing
+     * the possibly large GSUB and GPOS tables.
+     */
+    private void ensureLayoutTablesRead() {
+        if (layoutTablesRead) {
+            return;
+        }
+        synchronized (this) {
+            if (!layoutTablesRead) {
+                if (fontParser != null) {
+                    try {
+                        readGdefTable();
+                        readGsubTable();
+                        readGposTable();
+                    } catch (java.io.IOException e) {
+                        throw new IOException(IOException.IoException, e);
+                    }
+                }
+                layoutTablesRead = true;
+            }
+        }
+    }
+
     private void initializeFontProperties() throws java.io.IOException {
         // initialize sfnt tables
         OpenTypeParser.HeaderTable head = fontParser.getHeadTable();
@@ -331,10 +392,6 @@ public class TrueTypeFont extends FontProgram {
             avgWidth /= codeToGlyph.size();
         }
 
-        readGdefTable();
-        readGsubTable();
-        readGposTable();
-
         isVertical = false;
     }
 
@@ -370,6 +427,8 @@ public class TrueTypeFont extends FontProgram {
 
     public void close() throws java.io.IOException {
         if (fontParser != null) {
+            // the font data is not accessible after closing
+            ensureLayoutTablesRead();
             fontParser.close();
         }
         fontParser = null;
@@ -52,6 +52,7 @@ import com.itextpdf.io.source.RandomAccessFileOrArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -235,6 +236,14 @@ public class Type1Font extends FontProgram {
         }
     }
 
+    void setCharacterSet(String characterSet) {
+        this.characterSet = characterSet;
+    }
+
+    Map<Long, Integer> getKernPairs() {
+        return kernPairs;
+    }
+
     public int[] getFontStreamLengths() {
         return fontStreamLengths;
     }
@@ -244,6 +253,15 @@ public class Type1Font extends FontProgram {
     }
 
     protected void process() throws java.io.IOException {
+        InputStream compiledMetrics = fontParser.getCompiledMetrics();
+        if (compiledMetrics != null) {
+            try {
+                AfmCompiler.load(compiledMetrics, this);
+            } finally {
+                compiledMetrics.close();
+            }
+            return;
+        }
         RandomAccessFileOrArray raf = fontParser.getMetricsFile();
         String line;
         boolean startKernPairs = false;
@@ -50,6 +50,7 @@ import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.util.ResourceUtil;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.InputStream;
@@ -82,6 +83,24 @@ class Type1Parser implements Serializable {
         this.pfbPath = binaryPath;
     }
 
+    /**
+     * Gets the compiled metrics of the built-in font, see {@link AfmCompiler}.
+     *
+     * @return the stream of the compiled metrics, or null if this is not a built-in font
+     * or its metrics are not compiled
+     */
+    public InputStream getCompiledMetrics() {
+        if (StandardFonts.isStandardFont(afmPath)) {
+            InputStream resource = ResourceUtil.getResourceStream(FontResources.AFMS + afmPath
+                    + AfmCompiler.COMPILED_METRICS_EXTENSION);
+            if (resource != null) {
+                isBuiltInFont = true;
+                return new BufferedInputStream(resource);
+            }
+        }
+        return null;
+    }
+
     public RandomAccessFileOrArray getMetricsFile() throws java.io.IOException {
         isBuiltInFont = false;
         if (StandardFonts.isStandardFont(afmPath)) {
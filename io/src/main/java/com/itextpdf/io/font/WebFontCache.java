@@ -0,0 +1,280 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.woff2.Woff2Converter;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Process-wide cache of the decoded WOFF and WOFF2 fonts.
+ * <p>
+ * The web fonts are identified by the SHA-256 digest of their content, so that the same font
+ * is decoded to sfnt only once, no matter where it comes from. The decoded fonts are kept in memory,
+ * the total size of them is limited and the least recently used fonts are evicted first.
+ * Optionally the decoded fonts are also stored in a directory, so that they survive the restarts
+ * and may be shared between processes.
+ * <p>
+ * The cache is thread-safe.
+ */
+public final class WebFontCache {
+
+    /**
+     * The default limit of the total size of the decoded fonts kept in memory, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 32 * 1024 * 1024;
+
+    private static final String DECODED_FONT_EXTENSION = ".sfnt";
+
+    private static final Map<String, byte[]> decodedFonts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long maxSize = DEFAULT_MAX_SIZE;
+    private static long size;
+    private static long hitCount;
+    private static long missCount;
+    private static File diskCacheDirectory;
+    private static ExecutorService decodingExecutor;
+
+    private WebFontCache() {
+    }
+
+    /**
+     * Sets the limit of the total size of the decoded fonts kept in memory. Zero disables the in-memory caching.
+     *
+     * @param maxSizeInBytes the maximum total size of the decoded fonts, in bytes
+     */
+    public static synchronized void setMaxSize(long maxSizeInBytes) {
+        if (maxSizeInBytes < 0) {
+            throw new IllegalArgumentException("maxSizeInBytes");
+        }
+        maxSize = maxSizeInBytes;
+        evict();
+    }
+
+    /**
+     * Gets the limit of the total size of the decoded fonts kept in memory.
+     *
+     * @return the maximum total size of the decoded fonts, in bytes
+     */
+    public static synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the directory to store the decoded fonts in, in addition to the memory.
+     *
+     * @param directory the existing directory, or null to disable the disk caching, which is the default
+     */
+    public static synchronized void setDiskCacheDirectory(String directory) {
+        if (directory != null && !new File(directory).isDirectory()) {
+            throw new IllegalArgumentException("directory");
+        }
+        diskCacheDirectory = directory == null ? null : new File(directory);
+    }
+
+    /**
+     * Gets the directory the decoded fonts are stored in.
+     *
+     * @return the directory, or null if the disk caching is disabled
+     */
+    public static synchronized String getDiskCacheDirectory() {
+        return diskCacheDirectory == null ? null : diskCacheDirectory.getPath();
+    }
+
+    /**
+     * Sets the executor to decompress the tables of the WOFF fonts with concurrently.
+     * The tables of the WOFF2 fonts are compressed as a single stream, so they are always decoded
+     * in the calling thread.
+     *
+     * @param executor the executor, or null to decode the fonts in the calling thread, which is the default
+     */
+    public static synchronized void setDecodingExecutor(ExecutorService executor) {
+        decodingExecutor = executor;
+    }
+
+    /**
+     * Gets the number of the fonts which were taken from the cache, either from memory or from the disk.
+     *
+     * @return the number of the cache hits
+     */
+    public static synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of the fonts which had to be decoded.
+     *
+     * @return the number of the cache misses
+     */
+    public static synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Removes all the decoded fonts kept in memory and resets the statistics.
+     * The fonts stored in the disk cache directory are not removed.
+     */
+    public static synchronized void clear() {
+        decodedFonts.clear();
+        size = 0;
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    static byte[] convertWoff(byte[] woffBytes) throws java.io.IOException {
+        String key = createKey("woff", woffBytes);
+        byte[] sfnt = get(key);
+        if (sfnt == null) {
+            sfnt = WoffConverter.convert(woffBytes, getDecodingExecutor());
+            put(key, sfnt);
+        }
+        return sfnt;
+    }
+
+    static byte[] convertWoff2(byte[] woff2Bytes) throws java.io.IOException {
+        String key = createKey("woff2", woff2Bytes);
+        byte[] sfnt = get(key);
+        if (sfnt == null) {
+            sfnt = Woff2Converter.convert(woff2Bytes);
+            put(key, sfnt);
+        }
+        return sfnt;
+    }
+
+    private static String createKey(String format, byte[] fontBytes) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(fontBytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder key = new StringBuilder(format).append('-');
+        for (byte b : digest) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    private static byte[] get(String key) throws java.io.IOException {
+        File file;
+        synchronized (WebFontCache.class) {
+            byte[] sfnt = decodedFonts.get(key);
+            if (sfnt != null) {
+                hitCount++;
+                return sfnt.clone();
+            }
+            file = diskCacheDirectory == null ? null : new File(diskCacheDirectory, key + DECODED_FONT_EXTENSION);
+        }
+        byte[] sfnt = null;
+        if (file != null && file.isFile()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                sfnt = StreamUtil.inputStreamToArray(in);
+            } finally {
+                in.close();
+            }
+        }
+        synchronized (WebFontCache.class) {
+            if (sfnt == null) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            putInMemory(key, sfnt);
+            return sfnt;
+        }
+    }
+
+    private static void put(String key, byte[] sfnt) {
+        File directory;
+        synchronized (WebFontCache.class) {
+            putInMemory(key, sfnt);
+            directory = diskCacheDirectory;
+        }
+        if (directory != null) {
+            writeToDisk(new File(directory, key + DECODED_FONT_EXTENSION), sfnt);
+        }
+    }
+
+    private static void putInMemory(String key, byte[] sfnt) {
+        if (sfnt.length > maxSize) {
+            return;
+        }
+        byte[] previous = decodedFonts.put(key, sfnt.clone());
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += sfnt.length;
+        evict();
+    }
+
+    private static void writeToDisk(File file, byte[] sfnt) {
+        // the font is written to a temporary file first, so that the other processes never see a partial file
+        File tempFile = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            OutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(sfnt);
+            } finally {
+                out.close();
+            }
+            if (!tempFile.renameTo(file) && !file.isFile()) {
+                throw new java.io.IOException(file.getPath());
+            }
+        } catch (java.io.IOException e) {
+            Logger logger = LoggerFactory.getLogger(WebFontCache.class);
+            logger.warn(MessageFormatUtil.format(LogMessageConstant.UNABLE_TO_WRITE_DECODED_WEB_FONT_TO_DISK_CACHE, file.getPath()));
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getDecodingExecutor() {
+        return decodingExecutor;
+    }
+
+    private static void evict() {
+        Iterator<byte[]> iterator = decodedFonts.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+}
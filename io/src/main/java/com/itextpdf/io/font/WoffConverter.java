@@ -45,6 +45,10 @@ package com.itextpdf.io.font;
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.InflaterInputStream;
 
 class WoffConverter {
@@ -56,6 +60,19 @@ class WoffConverter {
     }
 
     public static byte[] convert(byte[] woffBytes) throws java.io.IOException {
+        return convert(woffBytes, null);
+    }
+
+    /**
+     * Converts the WOFF font to the sfnt one.
+     *
+     * @param woffBytes the WOFF font bytes
+     * @param executor  the executor to decompress the tables with concurrently, or null to decompress
+     *                  them in the calling thread
+     * @return the sfnt font bytes
+     * @throws java.io.IOException if the compressed table data are broken
+     */
+    public static byte[] convert(byte[] woffBytes, ExecutorService executor) throws java.io.IOException {
         int srcPos = 0;
         int destPos = 0;
 
@@ -189,37 +206,68 @@ class WoffConverter {
             throw new IllegalArgumentException();
         }
 
-        for (TableDirectory td : tdList) {
-            byte[] compressedData = new byte[(int) td.compLength];
-            byte[] uncompressedData;
-            System.arraycopy(woffBytes, (int) td.offset, compressedData, 0, (int) td.compLength);
-            int expectedUncompressedLen = (int) td.origLengthVal;
-            if (td.compLength > td.origLengthVal) {
-                throw new IllegalArgumentException();
+        if (executor == null || tdList.size() < 2) {
+            for (TableDirectory td : tdList) {
+                decodeTable(woffBytes, td, otfBytes);
             }
-            if (td.compLength != td.origLengthVal) {
-                ByteArrayInputStream stream = new ByteArrayInputStream(compressedData);
-                InflaterInputStream zip = new InflaterInputStream(stream);
-                uncompressedData = new byte[expectedUncompressedLen];
-                int bytesRead = 0;
-                while (expectedUncompressedLen - bytesRead > 0) {
-                    int readRes = zip.read(uncompressedData, bytesRead, expectedUncompressedLen - bytesRead);
-                    if (readRes < 0) {
-                        throw new IllegalArgumentException();
-                    }
-                    bytesRead += readRes;
-                }
-                if (zip.read() >= 0) {
+        } else {
+            // the tables are compressed independently and occupy disjoint parts of the result
+            List<Callable<Object>> tasks = new ArrayList<>(tdList.size());
+            for (TableDirectory td : tdList) {
+                tasks.add(new DecodeTableTask(woffBytes, td, otfBytes));
+            }
+            waitForTasks(executor, tasks);
+        }
+
+        return otfBytes;
+    }
+
+    private static void decodeTable(byte[] woffBytes, TableDirectory td, byte[] otfBytes) throws java.io.IOException {
+        byte[] compressedData = new byte[(int) td.compLength];
+        byte[] uncompressedData;
+        System.arraycopy(woffBytes, (int) td.offset, compressedData, 0, (int) td.compLength);
+        int expectedUncompressedLen = (int) td.origLengthVal;
+        if (td.compLength > td.origLengthVal) {
+            throw new IllegalArgumentException();
+        }
+        if (td.compLength != td.origLengthVal) {
+            ByteArrayInputStream stream = new ByteArrayInputStream(compressedData);
+            InflaterInputStream zip = new InflaterInputStream(stream);
+            uncompressedData = new byte[expectedUncompressedLen];
+            int bytesRead = 0;
+            while (expectedUncompressedLen - bytesRead > 0) {
+                int readRes = zip.read(uncompressedData, bytesRead, expectedUncompressedLen - bytesRead);
+                if (readRes < 0) {
                     throw new IllegalArgumentException();
                 }
-            } else {
-                uncompressedData = compressedData;
+                bytesRead += readRes;
             }
-
-            System.arraycopy(uncompressedData, 0, otfBytes, td.outOffset, expectedUncompressedLen);
+            if (zip.read() >= 0) {
+                throw new IllegalArgumentException();
+            }
+        } else {
+            uncompressedData = compressedData;
         }
 
-        return otfBytes;
+        System.arraycopy(uncompressedData, 0, otfBytes, td.outOffset, expectedUncompressedLen);
+    }
+
+    private static void waitForTasks(ExecutorService executor, List<Callable<Object>> tasks) throws java.io.IOException {
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof java.io.IOException) {
+                throw (java.io.IOException) e.getCause();
+            }
+            throw new java.io.IOException(e.getCause());
+        }
     }
 
     private static long bytesToUInt(byte[] b, int start) {
@@ -234,6 +282,24 @@ class WoffConverter {
                 | (b[start + 1] & 0xFF);
     }
 
+    private static class DecodeTableTask implements Callable<Object> {
+        private final byte[] woffBytes;
+        private final TableDirectory td;
+        private final byte[] otfBytes;
+
+        DecodeTableTask(byte[] woffBytes, TableDirectory td, byte[] otfBytes) {
+            this.woffBytes = woffBytes;
+            this.td = td;
+            this.otfBytes = otfBytes;
+        }
+
+        @Override
+        public Object call() throws java.io.IOException {
+            decodeTable(woffBytes, td, otfBytes);
+            return null;
+        }
+    }
+
     private static class TableDirectory {
         byte[] tag = new byte[4];
         long offset;
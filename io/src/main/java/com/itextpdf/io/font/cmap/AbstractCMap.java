@@ -44,6 +44,7 @@
 package com.itextpdf.io.font.cmap;
 
 import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.util.TextUtil;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -95,6 +96,18 @@ public abstract class AbstractCMap implements Serializable {
 
     abstract void addChar(String mark, CMapObject code);
 
+    /**
+     * Adds the mapping of the code to the CID. This is the same as {@link #addChar(String, CMapObject)}
+     * called with the number code, but allows the subclasses to skip creating the mark strings.
+     *
+     * @param code       the code bytes in the big-endian order
+     * @param codeLength the number of the code bytes
+     * @param cid        the CID
+     */
+    void addCode(int code, int codeLength, int cid) {
+        addChar(PdfEncodings.convertToString(toByteArray(code, codeLength), null), new CMapObject(CMapObject.NUMBER, cid));
+    }
+
     void addCodeSpaceRange(byte[] low, byte[] high) {
     }
     
@@ -111,14 +124,15 @@ public abstract class AbstractCMap implements Serializable {
         int start = byteArrayToInt(a1);
         int end = byteArrayToInt(a2);
         for (int k = start; k <= end; ++k) {
+            if (code.isNumber()) {
+                addCode(k, a1.length, (int) code.getValue() + k - start);
+                continue;
+            }
             intToByteArray(k, a1);
             String mark = PdfEncodings.convertToString(a1, null);
             if (code.isArray()) {
                 List<CMapObject> codes = (ArrayList<CMapObject>) code.getValue();
                 addChar(mark, codes.get(k - start));
-            } else if (code.isNumber()) {
-                int nn = (int)code.getValue() + k - start;
-                addChar(mark, new CMapObject(CMapObject.NUMBER, nn));
             } else if (code.isString()) {
                 CMapObject s1 = new CMapObject(CMapObject.HEX_STRING, sout);
                 addChar(mark, s1);
@@ -157,6 +171,39 @@ public abstract class AbstractCMap implements Serializable {
         }
     }
 
+    static byte[] toByteArray(int code, int codeLength) {
+        byte[] bytes = new byte[codeLength];
+        intToByteArray(code, bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets the code point of the character written in the code bytes in UTF-16BE, just like
+     * {@link #toUnicodeString(String, boolean)} does it for the hex strings.
+     *
+     * @param code       the code bytes in the big-endian order
+     * @param codeLength the number of the code bytes
+     * @return the code point, or -1 if the code point cannot be calculated without decoding the code bytes
+     */
+    static int toCodePoint(int code, int codeLength) {
+        if (codeLength == 2 && !isSurrogate(code)) {
+            return code;
+        } else if (codeLength == 4) {
+            int high = code >>> 16;
+            int low = code & 0xffff;
+            if (TextUtil.isSurrogateHigh((char) high) && TextUtil.isSurrogateLow((char) low)) {
+                return TextUtil.convertToUtf32((char) high, (char) low);
+            } else if (!isSurrogate(high) && !isSurrogate(low)) {
+                return high;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSurrogate(int c) {
+        return c >= 0xd800 && c <= 0xdfff;
+    }
+
     private static void intToByteArray(int n, byte[] b) {
         for (int k = b.length - 1; k >= 0; --k) {
             b[k] = (byte)n;
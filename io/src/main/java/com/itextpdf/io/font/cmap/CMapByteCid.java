@@ -79,6 +79,11 @@ public class CMapByteCid extends AbstractCMap {
         }
     }
 
+    @Override
+    void addCode(int code, int codeLength, int cid) {
+        encodeSequence(toByteArray(code, codeLength), cid);
+    }
+
     /**
      * Decode byte sequence.
      *
@@ -68,6 +68,11 @@ public class CMapCidByte extends AbstractCMap {
         }
     }
 
+    @Override
+    void addCode(int code, int codeLength, int cid) {
+        map.put(cid, toByteArray(code, codeLength));
+    }
+
     public byte[] lookup(int cid) {
         byte[] ser = map.get(cid);
         if (ser == null) {
@@ -43,7 +43,6 @@
  */
 package com.itextpdf.io.font.cmap;
 
-import com.itextpdf.io.util.IntHashtable;
 import com.itextpdf.io.util.TextUtil;
 
 /**
@@ -52,7 +51,7 @@ import com.itextpdf.io.util.TextUtil;
 public class CMapCidUni extends AbstractCMap {
 
     private static final long serialVersionUID = 6879167385978230141L;
-    private IntHashtable map = new IntHashtable(65537);
+    private IntRangeTable map = new IntRangeTable();
 
     @Override
     void addChar(String mark, CMapObject code) {
@@ -64,12 +63,23 @@ public class CMapCidUni extends AbstractCMap {
             } else {
                 codePoint = (int) s.charAt(0);
             }
-            map.put((int)code.getValue(), codePoint);
+            int cid = (int) code.getValue();
+            map.put(cid, cid, codePoint);
+        }
+    }
+
+    @Override
+    void addCode(int code, int codeLength, int cid) {
+        int codePoint = toCodePoint(code, codeLength);
+        if (codePoint < 0) {
+            super.addCode(code, codeLength, cid);
+        } else {
+            map.put(cid, cid, codePoint);
         }
     }
 
     public int lookup(int character) {
-        return map.get(character);
+        return map.get(character, 0);
     }
 
     public int[] getCids(){
@@ -0,0 +1,396 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.cmap;
+
+import com.itextpdf.io.IOException;
+import com.itextpdf.io.font.constants.FontResources;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.util.ResourceUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles CMaps into a compact binary form which can be loaded without tokenizing the PostScript source.
+ * <p>
+ * The compiled CMap keeps the code space ranges, the character mappings, the range mappings
+ * and the {@code usecmap} references of the source CMap in the order they were defined, so that
+ * loading a compiled CMap into an {@link AbstractCMap} gives exactly the same result as parsing
+ * its source with {@link CMapParser}. The ranges are not expanded. The referenced CMaps are
+ * loaded from the compiled CMap resources, i.e. from {@link FontResources#CMAPS} files
+ * with the {@link #COMPILED_CMAP_EXTENSION} extension.
+ */
+public final class CMapCompiler {
+
+    /**
+     * The extension of the compiled CMap resources.
+     */
+    public static final String COMPILED_CMAP_EXTENSION = ".cmb";
+
+    private static final int MAGIC = 0x434d4231;
+    private static final int VERSION = 1;
+
+    private static final int END = 0;
+    private static final int CHAR = 1;
+    private static final int RANGE = 2;
+    private static final int CODE_SPACE_RANGE = 3;
+    private static final int USE_CMAP = 4;
+    private static final int CODES = 5;
+
+    private static final int MAX_LEVEL = 10;
+
+    private CMapCompiler() {
+    }
+
+    /**
+     * Parses the CMap and writes its compiled form into the stream.
+     *
+     * @param cmapName the name of the CMap to compile
+     * @param location the location of the CMap and of the CMaps it uses
+     * @param out      the stream to write the compiled CMap to. The stream is not closed.
+     * @throws java.io.IOException if the CMap cannot be read or written
+     */
+    public static void compile(String cmapName, ICMapLocation location, OutputStream out) throws java.io.IOException {
+        CMapRecorder recorder = new CMapRecorder(location);
+        CMapParser.parseCid(cmapName, recorder, recorder);
+        recorder.write(new DataOutputStream(out));
+    }
+
+    /**
+     * Loads the compiled CMap into the given CMap object.
+     *
+     * @param in   the stream containing the compiled CMap. The stream is not closed.
+     * @param cmap the CMap object to fill
+     * @param <T>  the type of the CMap
+     * @return the filled CMap object
+     * @throws java.io.IOException if the compiled CMap cannot be read
+     */
+    public static <T extends AbstractCMap> T load(InputStream in, T cmap) throws java.io.IOException {
+        load(new DataInputStream(in), cmap, 0);
+        return cmap;
+    }
+
+    private static void load(DataInputStream data, AbstractCMap cmap, int level) throws java.io.IOException {
+        if (data.readInt() != MAGIC) {
+            throw new IOException(IOException.InvalidCompiledCMap);
+        }
+        if (data.readInt() != VERSION) {
+            throw new IOException(IOException.UnsupportedCompiledCMapVersion);
+        }
+        String name = readOptionalString(data);
+        String registry = readOptionalString(data);
+        String ordering = readOptionalString(data);
+        int supplement = data.readInt();
+        // just like the parser does, only the CMap itself defines the properties, not the CMaps it uses
+        if (level == 0) {
+            if (name != null) {
+                cmap.setName(name);
+            }
+            if (registry != null) {
+                cmap.setRegistry(registry);
+            }
+            if (ordering != null) {
+                cmap.setOrdering(ordering);
+            }
+            cmap.setSupplement(supplement);
+        }
+        int record;
+        while ((record = data.readUnsignedByte()) != END) {
+            switch (record) {
+                case CHAR: {
+                    String mark = readMark(data);
+                    cmap.addChar(mark, readObject(data));
+                    break;
+                }
+                case RANGE: {
+                    String from = readMark(data);
+                    String to = readMark(data);
+                    cmap.addRange(from, to, readObject(data));
+                    break;
+                }
+                case CODE_SPACE_RANGE: {
+                    byte[] low = readBytes(data);
+                    byte[] high = readBytes(data);
+                    cmap.addCodeSpaceRange(low, high);
+                    break;
+                }
+                case USE_CMAP:
+                    loadUsedCmap(data.readUTF(), cmap, level + 1);
+                    break;
+                case CODES: {
+                    int codeLength = data.readUnsignedByte();
+                    int count = data.readInt();
+                    for (int i = 0; i < count; i++) {
+                        int code = 0;
+                        for (int j = 0; j < codeLength; j++) {
+                            code = (code << 8) | data.readUnsignedByte();
+                        }
+                        cmap.addCode(code, codeLength, data.readInt());
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException(IOException.InvalidCompiledCMap);
+            }
+        }
+    }
+
+    private static void loadUsedCmap(String cmapName, AbstractCMap cmap, int level) throws java.io.IOException {
+        if (level >= MAX_LEVEL) {
+            return;
+        }
+        String fullName = FontResources.CMAPS + cmapName + COMPILED_CMAP_EXTENSION;
+        InputStream in = ResourceUtil.getResourceStream(fullName);
+        if (in == null) {
+            throw new IOException(IOException.Cmap1WasNotFound).setMessageParams(fullName);
+        }
+        try {
+            load(new DataInputStream(new BufferedInputStream(in)), cmap, level);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String readOptionalString(DataInputStream data) throws java.io.IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+
+    private static void writeOptionalString(DataOutputStream data, String value) throws java.io.IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream data) throws java.io.IOException {
+        byte[] bytes = new byte[data.readUnsignedShort()];
+        data.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream data, byte[] bytes) throws java.io.IOException {
+        data.writeShort(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readMark(DataInputStream data) throws java.io.IOException {
+        byte[] bytes = readBytes(data);
+        StringBuilder mark = new StringBuilder(bytes.length);
+        for (byte b : bytes) {
+            mark.append((char) (b & 0xff));
+        }
+        return mark.toString();
+    }
+
+    private static CMapObject readObject(DataInputStream data) throws java.io.IOException {
+        int type = data.readUnsignedByte();
+        switch (type) {
+            case CMapObject.NUMBER:
+                return new CMapObject(type, data.readInt());
+            case CMapObject.STRING:
+            case CMapObject.HEX_STRING:
+                return new CMapObject(type, readBytes(data));
+            case CMapObject.NAME:
+                return new CMapObject(type, data.readUTF());
+            case CMapObject.ARRAY: {
+                int size = data.readInt();
+                List<CMapObject> array = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(readObject(data));
+                }
+                return new CMapObject(type, array);
+            }
+            default:
+                throw new IOException(IOException.InvalidCompiledCMap);
+        }
+    }
+
+    private static boolean isSupported(CMapObject object) {
+        if (object.isArray()) {
+            for (CMapObject item : (List<CMapObject>) object.getValue()) {
+                if (!isSupported(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return object.isNumber() || object.isString() || object.isName();
+    }
+
+    private static void writeObject(DataOutputStream data, CMapObject object) throws java.io.IOException {
+        data.writeByte(object.getType());
+        if (object.isNumber()) {
+            data.writeInt((int) object.getValue());
+        } else if (object.isString()) {
+            writeBytes(data, (byte[]) object.getValue());
+        } else if (object.isName()) {
+            data.writeUTF(object.toString());
+        } else {
+            List<CMapObject> array = (List<CMapObject>) object.getValue();
+            data.writeInt(array.size());
+            for (CMapObject item : array) {
+                writeObject(data, item);
+            }
+        }
+    }
+
+    /**
+     * Records the content of the parsed CMap instead of building the mapping.
+     * The recorder also acts as the location of the parsed CMap, so that it records the {@code usecmap}
+     * references and doesn't let the parser inline the content of the used CMaps.
+     */
+    private static class CMapRecorder extends AbstractCMap implements ICMapLocation {
+
+        private static final long serialVersionUID = -1452318592645307519L;
+
+        private final transient ICMapLocation location;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final transient DataOutputStream data = new DataOutputStream(body);
+        private boolean cmapRequested;
+
+        // the consecutive character mappings to numbers having the same code length are written together
+        private int codesLength;
+        private int[] codes = new int[256];
+        private int[] cids = new int[256];
+        private int codesCount;
+
+        CMapRecorder(ICMapLocation location) {
+            this.location = location;
+        }
+
+        @Override
+        public PdfTokenizer getLocation(String cmapName) throws java.io.IOException {
+            if (!cmapRequested) {
+                cmapRequested = true;
+                return location.getLocation(cmapName);
+            }
+            flushCodes();
+            data.writeByte(USE_CMAP);
+            data.writeUTF(cmapName);
+            return new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(new byte[0])));
+        }
+
+        @Override
+        void addChar(String mark, CMapObject code) {
+            try {
+                if (code.isNumber() && mark.length() > 0 && mark.length() <= 4) {
+                    addCode(mark, (int) code.getValue());
+                } else if (isSupported(code)) {
+                    flushCodes();
+                    data.writeByte(CHAR);
+                    writeBytes(data, decodeStringToByte(mark));
+                    writeObject(data, code);
+                }
+            } catch (java.io.IOException e) {
+                throw new IOException(IOException.IoException, e);
+            }
+        }
+
+        @Override
+        void addRange(String from, String to, CMapObject code) {
+            // the same check as the one of AbstractCMap, so that the parsing stops at the same point
+            if (from.length() != to.length() || from.length() == 0) {
+                throw new IllegalArgumentException("Invalid map.");
+            }
+            if (isSupported(code)) {
+                try {
+                    flushCodes();
+                    data.writeByte(RANGE);
+                    writeBytes(data, decodeStringToByte(from));
+                    writeBytes(data, decodeStringToByte(to));
+                    writeObject(data, code);
+                } catch (java.io.IOException e) {
+                    throw new IOException(IOException.IoException, e);
+                }
+            }
+        }
+
+        @Override
+        void addCodeSpaceRange(byte[] low, byte[] high) {
+            try {
+                flushCodes();
+                data.writeByte(CODE_SPACE_RANGE);
+                writeBytes(data, low);
+                writeBytes(data, high);
+            } catch (java.io.IOException e) {
+                throw new IOException(IOException.IoException, e);
+            }
+        }
+
+        void write(DataOutputStream out) throws java.io.IOException {
+            flushCodes();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeOptionalString(out, getName());
+            writeOptionalString(out, getRegistry());
+            writeOptionalString(out, getOrdering());
+            out.writeInt(getSupplement());
+            body.writeTo(out);
+            out.writeByte(END);
+            out.flush();
+        }
+
+        private void addCode(String mark, int cid) throws java.io.IOException {
+            if (codesCount > 0 && codesLength != mark.length()) {
+                flushCodes();
+            }
+            if (codesCount == codes.length) {
+                codes = Arrays.copyOf(codes, codesCount * 2);
+                cids = Arrays.copyOf(cids, codesCount * 2);
+            }
+            int code = 0;
+            for (int i = 0; i < mark.length(); i++) {
+                code = (code << 8) | (mark.charAt(i) & 0xff);
+            }
+            codesLength = mark.length();
+            codes[codesCount] = code;
+            cids[codesCount] = cid;
+            codesCount++;
+        }
+
+        private void flushCodes() throws java.io.IOException {
+            if (codesCount == 0) {
+                return;
+            }
+            data.writeByte(CODES);
+            data.writeByte(codesLength);
+            data.writeInt(codesCount);
+            for (int i = 0; i < codesCount; i++) {
+                for (int shift = (codesLength - 1) * 8; shift >= 0; shift -= 8) {
+                    data.writeByte(codes[i] >>> shift);
+                }
+                data.writeInt(cids[i]);
+            }
+            codesCount = 0;
+        }
+    }
+}
@@ -49,13 +49,20 @@ import com.itextpdf.io.util.TextUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * This class represents a CMap file.
+ * <p>
+ * The codes mapped to single characters are stored as ranges, so that the {@code bfrange} mappings
+ * are not expanded. The codes mapped to several characters are stored individually.
  *
  * @author Ben Litchfield (ben@benlitchfield.com)
  */
@@ -65,6 +72,13 @@ public class CMapToUnicode extends AbstractCMap {
     public static CMapToUnicode EmptyCMapToUnicodeMap = new CMapToUnicode(true);
 
     private Map<Integer, char[]> byteMappings;
+    private IntRangeTable singleCharMappings;
+    private transient Set<Integer> codes;
+
+    /**
+     * The arrays of the single characters returned by the lookups of this CMap, by pages of 256 characters.
+     */
+    private transient SingleCharsPage[] singleChars;
 
     private CMapToUnicode(boolean emptyCMap) {
         byteMappings = Collections.<Integer, char[]>emptyMap();
@@ -75,6 +89,7 @@ public class CMapToUnicode extends AbstractCMap {
      */
     public CMapToUnicode() {
         byteMappings = new HashMap<>();
+        singleCharMappings = new IntRangeTable();
     }
 
     public static CMapToUnicode getIdentity() {
@@ -91,7 +106,7 @@ public class CMapToUnicode extends AbstractCMap {
      * @return true If there are any two byte mappings, false otherwise.
      */
     public boolean hasByteMappings() {
-        return byteMappings.size() != 0;
+        return byteMappings.size() != 0 || singleCharMappings != null && !singleCharMappings.isEmpty();
     }
 
     /**
@@ -107,13 +122,13 @@ public class CMapToUnicode extends AbstractCMap {
         int key;
         if (length == 1) {
             key = code[offset] & 0xff;
-            result = byteMappings.get(key);
+            result = lookup(key);
         } else if (length == 2) {
             int intKey = code[offset] & 0xff;
             intKey <<= 8;
             intKey += code[offset + 1] & 0xff;
             key = intKey;
-            result = byteMappings.get(key);
+            result = lookup(key);
         }
         return result;
     }
@@ -122,19 +137,41 @@ public class CMapToUnicode extends AbstractCMap {
         return lookup(code, 0, code.length);
     }
 
+    /**
+     * This will perform a lookup into the map.
+     * The returned array is shared by the lookups of this CMap and must not be modified.
+     *
+     * @param code The code used to lookup.
+     * @return The characters the code is mapped to, or null if the code is not mapped.
+     */
     public char[] lookup(int code) {
-        return byteMappings.get(code);
+        char[] chars = byteMappings.get(code);
+        if (chars == null && singleCharMappings != null) {
+            int ch = singleCharMappings.get(code, -1);
+            if (ch >= 0) {
+                chars = getSingleChar(ch);
+            }
+        }
+        return chars;
     }
 
+    /**
+     * Gets the mapped codes.
+     *
+     * @return an unmodifiable view of the mapped codes
+     */
     public Set<Integer> getCodes() {
-        return byteMappings.keySet();
+        if (codes == null) {
+            codes = Collections.unmodifiableSet(new CodeSet());
+        }
+        return codes;
     }
 
     public IntHashtable createDirectMapping() {
         IntHashtable result = new IntHashtable();
-        for (Map.Entry<Integer, char[]> entry : byteMappings.entrySet()) {
-            if (entry.getValue().length == 1) {
-                result.put((int) entry.getKey(), convertToInt(entry.getValue()));
+        if (singleCharMappings != null) {
+            for (int code : singleCharMappings.getKeys()) {
+                result.put(code, singleCharMappings.get(code, 0));
             }
         }
         return result;
@@ -142,42 +179,98 @@ public class CMapToUnicode extends AbstractCMap {
 
     public Map<Integer, Integer> createReverseMapping() throws java.io.IOException {
         Map<Integer, Integer> result = new HashMap<>();
-        for (Map.Entry<Integer, char[]> entry : byteMappings.entrySet()) {
-            if (entry.getValue().length == 1) {
-                result.put(convertToInt(entry.getValue()), entry.getKey());
+        if (singleCharMappings != null) {
+            for (int code : singleCharMappings.getKeys()) {
+                result.put(singleCharMappings.get(code, 0), code);
             }
         }
         return result;
     }
 
-    private int convertToInt(char[] s) {
-        int value = 0;
-        for (int i = 0; i < s.length - 1; i++) {
-            value += s[i];
-            value <<= 8;
-        }
-        value += s[s.length - 1];
-        return value;
-    }
-
     void addChar(int cid, char[] uni) {
-        byteMappings.put(cid, uni);
+        if (singleCharMappings == null) {
+            throw new UnsupportedOperationException();
+        }
+        if (uni.length == 1) {
+            byteMappings.remove(cid);
+            singleCharMappings.put(cid, cid, uni[0]);
+        } else {
+            singleCharMappings.remove(cid, cid);
+            byteMappings.put(cid, uni);
+        }
     }
 
     @Override
     void addChar(String mark, CMapObject code) {
         if (mark.length() == 1) {
             char[] dest = createCharsFromDoubleBytes((byte[]) code.getValue());
-            byteMappings.put((int) mark.charAt(0), dest);
+            addChar((int) mark.charAt(0), dest);
         } else if (mark.length() == 2) {
             char[] dest = createCharsFromDoubleBytes((byte[]) code.getValue());
-            byteMappings.put((mark.charAt(0) << 8) + mark.charAt(1), dest);
+            addChar((mark.charAt(0) << 8) + mark.charAt(1), dest);
         } else {
             Logger logger = LoggerFactory.getLogger(CMapToUnicode.class);
             logger.warn(LogMessageConstant.TOUNICODE_CMAP_MORE_THAN_2_BYTES_NOT_SUPPORTED);
         }
     }
 
+    @Override
+    void addRange(String from, String to, CMapObject code) {
+        if (code.isString() && from.length() == to.length() && (from.length() == 1 || from.length() == 2)
+                && ((byte[]) code.getValue()).length == 2 && singleCharMappings != null) {
+            byte[] dest = (byte[]) code.getValue();
+            int start = toCode(from);
+            int end = toCode(to);
+            int ch = ((dest[0] & 0xff) << 8) + (dest[1] & 0xff);
+            // the same mapping as the expanded range gives, as long as the last character doesn't overflow
+            if (start <= end && ch + end - start <= 0xffff) {
+                removeByteMappings(start, end);
+                singleCharMappings.put(start, end, ch);
+                return;
+            }
+        }
+        super.addRange(from, to, code);
+    }
+
+    private void removeByteMappings(int start, int end) {
+        if (byteMappings.size() <= end - start) {
+            Iterator<Integer> iterator = byteMappings.keySet().iterator();
+            while (iterator.hasNext()) {
+                int code = (int) iterator.next();
+                if (code >= start && code <= end) {
+                    iterator.remove();
+                }
+            }
+        } else {
+            for (int code = start; code <= end; code++) {
+                byteMappings.remove(code);
+            }
+        }
+    }
+
+    private char[] getSingleChar(int ch) {
+        SingleCharsPage[] pages = singleChars;
+        if (pages == null) {
+            pages = new SingleCharsPage[256];
+            singleChars = pages;
+        }
+        SingleCharsPage page = pages[ch >> 8];
+        if (page == null) {
+            // the pages may be created concurrently, their arrays are safely published through the final field
+            page = new SingleCharsPage(ch >> 8);
+            pages[ch >> 8] = page;
+        }
+        return page.chars[ch & 0xff];
+    }
+
+    private static int toCode(String mark) {
+        int code = 0;
+        for (int i = 0; i < mark.length(); i++) {
+            code = (code << 8) + (mark.charAt(i) & 0xff);
+        }
+        return code;
+    }
+
     private char[] createCharsFromSingleBytes(byte[] bytes) {
         if (bytes.length == 1) {
             return new char[]{(char) (bytes[0] & 0xff)};
@@ -197,4 +290,67 @@ public class CMapToUnicode extends AbstractCMap {
         }
         return chars;
     }
+
+    private static final class SingleCharsPage {
+        final char[][] chars = new char[256][];
+
+        SingleCharsPage(int page) {
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = new char[] {(char) ((page << 8) + i)};
+            }
+        }
+    }
+
+    private class CodeSet extends AbstractSet<Integer> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && lookup((int) (Integer) o) != null;
+        }
+
+        @Override
+        public int size() {
+            return byteMappings.size() + (singleCharMappings != null ? singleCharMappings.getKeyCount() : 0);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            final int[] byteCodes = new int[byteMappings.size()];
+            int i = 0;
+            for (Integer code : byteMappings.keySet()) {
+                byteCodes[i++] = (int) code;
+            }
+            Arrays.sort(byteCodes);
+            final int[] singleCharCodes = singleCharMappings != null ? singleCharMappings.getKeys() : new int[0];
+            // both code arrays are sorted and don't intersect, so they are merged into the ascending order
+            return new Iterator<Integer>() {
+                private int byteIndex;
+                private int singleCharIndex;
+
+                @Override
+                public boolean hasNext() {
+                    return byteIndex < byteCodes.length || singleCharIndex < singleCharCodes.length;
+                }
+
+                @Override
+                public Integer next() {
+                    if (singleCharIndex >= singleCharCodes.length) {
+                        if (byteIndex >= byteCodes.length) {
+                            throw new NoSuchElementException();
+                        }
+                        return byteCodes[byteIndex++];
+                    }
+                    if (byteIndex < byteCodes.length && byteCodes[byteIndex] < singleCharCodes[singleCharIndex]) {
+                        return byteCodes[byteIndex++];
+                    }
+                    return singleCharCodes[singleCharIndex++];
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
 }
@@ -68,6 +68,16 @@ public class CMapUniCid extends AbstractCMap {
         }
     }
 
+    @Override
+    void addCode(int code, int codeLength, int cid) {
+        int codePoint = toCodePoint(code, codeLength);
+        if (codePoint < 0) {
+            super.addCode(code, codeLength, cid);
+        } else {
+            map.put(codePoint, cid);
+        }
+    }
+
     public int lookup(int character) {
         return map.get(character);
     }
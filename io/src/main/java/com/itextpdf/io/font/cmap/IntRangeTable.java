@@ -0,0 +1,277 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.cmap;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mapping of integer codes to integer values, which stores the ranges of the consecutive codes mapped
+ * to the consecutive values as single entries.
+ * <p>
+ * The ranges are collected in a tree while the mapping is being filled, and the mapping added later
+ * overrides the earlier one for the same code, just like with a hash table. On the first lookup the ranges
+ * are compiled into sorted arrays, where the adjacent ranges are merged. The lookup is a binary search,
+ * which is narrowed down by a direct index of the 256-code pages for the codes not greater than 0xFFFF.
+ */
+final class IntRangeTable implements Serializable {
+
+    private static final long serialVersionUID = 1520417473652309458L;
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_COUNT = 0x10000 >> PAGE_SHIFT;
+
+    /**
+     * The ranges being collected, keyed by the first code of the range. The values are {end, value} pairs.
+     * {@code null} if the table is compiled and not modified since then.
+     */
+    private TreeMap<Integer, int[]> tree = new TreeMap<>();
+
+    private volatile Ranges ranges;
+
+    /**
+     * Maps the codes of the {@code [start, end]} range to the values starting from the given value.
+     *
+     * @param start the first code of the range
+     * @param end   the last code of the range
+     * @param value the value of the first code
+     */
+    synchronized void put(int start, int end, int value) {
+        TreeMap<Integer, int[]> tree = getTree();
+        removeRange(tree, start, end);
+        Map.Entry<Integer, int[]> previous = tree.lowerEntry(start);
+        if (previous != null && previous.getValue()[0] == start - 1
+                && previous.getValue()[1] + start - (int) previous.getKey() == value) {
+            previous.getValue()[0] = end;
+        } else {
+            tree.put(start, new int[] {end, value});
+        }
+        ranges = null;
+    }
+
+    /**
+     * Removes the mapping of the codes of the {@code [start, end]} range.
+     *
+     * @param start the first code of the range
+     * @param end   the last code of the range
+     */
+    synchronized void remove(int start, int end) {
+        if (ranges != null && ranges.size == 0) {
+            return;
+        }
+        removeRange(getTree(), start, end);
+        ranges = null;
+    }
+
+    /**
+     * Gets the value the code is mapped to.
+     *
+     * @param code         the code
+     * @param defaultValue the value to be returned if the code is not mapped
+     * @return the value the code is mapped to, or the default value
+     */
+    int get(int code, int defaultValue) {
+        Ranges ranges = getRanges();
+        int index = ranges.find(code);
+        return index < 0 ? defaultValue : ranges.values[index] + code - ranges.starts[index];
+    }
+
+    /**
+     * Checks if the table has no mappings.
+     *
+     * @return {@code true} if no code is mapped, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return getRanges().size == 0;
+    }
+
+    /**
+     * Gets the number of the ranges of the consecutive codes mapped to the consecutive values.
+     *
+     * @return the number of the ranges
+     */
+    int getRangeCount() {
+        return getRanges().size;
+    }
+
+    /**
+     * Gets the number of the mapped codes.
+     *
+     * @return the number of the mapped codes
+     */
+    int getKeyCount() {
+        Ranges ranges = getRanges();
+        int count = 0;
+        for (int i = 0; i < ranges.size; i++) {
+            count += ranges.ends[i] - ranges.starts[i] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Gets all the mapped codes in the ascending order.
+     *
+     * @return the mapped codes
+     */
+    int[] getKeys() {
+        Ranges ranges = getRanges();
+        int[] keys = new int[getKeyCount()];
+        int k = 0;
+        for (int i = 0; i < ranges.size; i++) {
+            for (int code = ranges.starts[i]; code <= ranges.ends[i]; code++) {
+                keys[k++] = code;
+            }
+        }
+        return keys;
+    }
+
+    private Ranges getRanges() {
+        Ranges ranges = this.ranges;
+        if (ranges == null) {
+            synchronized (this) {
+                ranges = this.ranges;
+                if (ranges == null) {
+                    ranges = new Ranges(tree);
+                    this.ranges = ranges;
+                    tree = null;
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private TreeMap<Integer, int[]> getTree() {
+        if (tree == null) {
+            tree = new TreeMap<>();
+            Ranges ranges = this.ranges;
+            for (int i = 0; i < ranges.size; i++) {
+                tree.put(ranges.starts[i], new int[] {ranges.ends[i], ranges.values[i]});
+            }
+        }
+        return tree;
+    }
+
+    private static void removeRange(TreeMap<Integer, int[]> tree, int start, int end) {
+        Map.Entry<Integer, int[]> lower = tree.lowerEntry(start);
+        if (lower != null && lower.getValue()[0] >= start) {
+            int[] range = lower.getValue();
+            int lowerEnd = range[0];
+            range[0] = start - 1;
+            if (lowerEnd > end) {
+                tree.put(end + 1, new int[] {lowerEnd, range[1] + end + 1 - (int) lower.getKey()});
+                return;
+            }
+        }
+        int[] tail = null;
+        Iterator<Map.Entry<Integer, int[]>> iterator = tree.subMap(start, true, end, true).entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, int[]> entry = iterator.next();
+            int[] range = entry.getValue();
+            if (range[0] > end) {
+                tail = new int[] {range[0], range[1] + end + 1 - (int) entry.getKey()};
+            }
+            iterator.remove();
+        }
+        if (tail != null) {
+            tree.put(end + 1, tail);
+        }
+    }
+
+    private static class Ranges implements Serializable {
+
+        private static final long serialVersionUID = -4245394393264870312L;
+
+        final int[] starts;
+        final int[] ends;
+        final int[] values;
+        final int size;
+
+        /**
+         * For each page of the codes, the index of the first range which ends within the page or after it.
+         */
+        final int[] pages;
+
+        Ranges(TreeMap<Integer, int[]> tree) {
+            int[] starts = new int[tree.size()];
+            int[] ends = new int[tree.size()];
+            int[] values = new int[tree.size()];
+            int size = 0;
+            for (Map.Entry<Integer, int[]> entry : tree.entrySet()) {
+                int start = (int) entry.getKey();
+                int[] range = entry.getValue();
+                if (size > 0 && ends[size - 1] == start - 1 && values[size - 1] + start - starts[size - 1] == range[1]) {
+                    ends[size - 1] = range[0];
+                } else {
+                    starts[size] = start;
+                    ends[size] = range[0];
+                    values[size] = range[1];
+                    size++;
+                }
+            }
+            this.size = size;
+            this.starts = trim(starts, size);
+            this.ends = trim(ends, size);
+            this.values = trim(values, size);
+            this.pages = new int[PAGE_COUNT + 1];
+            int index = 0;
+            for (int page = 0; page <= PAGE_COUNT; page++) {
+                while (index < size && this.ends[index] < page << PAGE_SHIFT) {
+                    index++;
+                }
+                pages[page] = index;
+            }
+        }
+
+        int find(int code) {
+            int low = 0;
+            int high = size - 1;
+            if (code >= 0 && code < PAGE_COUNT << PAGE_SHIFT) {
+                int page = code >> PAGE_SHIFT;
+                low = pages[page];
+                high = Math.min(pages[page + 1], high);
+            }
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] > code) {
+                    high = middle - 1;
+                } else if (ends[middle] < code) {
+                    low = middle + 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        private static int[] trim(int[] array, int size) {
+            if (array.length == size) {
+                return array;
+            }
+            int[] trimmed = new int[size];
+            System.arraycopy(array, 0, trimmed, 0, size);
+            return trimmed;
+        }
+    }
+}
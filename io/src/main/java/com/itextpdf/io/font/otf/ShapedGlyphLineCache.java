@@ -0,0 +1,274 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.otf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of shaping results of a single font program.
+ * <p>
+ * The cache maps the glyphs of the {@code [start, end)} range of a {@link GlyphLine} together with
+ * the shaping parameters (script, language, features, etc.) to the glyphs this range has been replaced
+ * with by the shaping. The shaping parameters are an opaque key object which shall implement
+ * {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ * <p>
+ * Neither the lines passed to the cache, nor the lines the cached results are applied to, share
+ * {@link Glyph} instances with the cache, so that the glyphs may be safely modified afterwards.
+ * The least recently added entries are evicted first once the capacity is exceeded.
+ * The instances of this class are thread-safe.
+ */
+public class ShapedGlyphLineCache {
+
+    /**
+     * The default maximum number of the cached shaping results.
+     */
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    private final int capacity;
+
+    private final Map<ShapingKey, ShapedGlyphs> cache = new LinkedHashMap<ShapingKey, ShapedGlyphs>() {
+        private static final long serialVersionUID = -2563826483658497512L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ShapingKey, ShapedGlyphs> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_CAPACITY default capacity}.
+     */
+    public ShapedGlyphLineCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache which keeps at most the given number of shaping results.
+     *
+     * @param capacity the maximum number of the cached shaping results, shall be positive
+     */
+    public ShapedGlyphLineCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates the cache key of the {@code [start, end)} range of the line which is about to be shaped.
+     * The key shall be created before the shaping, since the shaping modifies the line.
+     *
+     * @param line              the line to be shaped
+     * @param shapingParameters the key object describing the shaping
+     * @return the key to be passed to {@link #apply(Object, GlyphLine)} and {@link #put(Object, GlyphLine)}
+     */
+    public Object createKey(GlyphLine line, Object shapingParameters) {
+        return new ShapingKey(line, shapingParameters);
+    }
+
+    /**
+     * Replaces the {@code [start, end)} range of the line with the cached shaping result, if there is any.
+     * On success the {@code end} of the line is updated to point right after the shaped glyphs, just like the
+     * shaping itself would do it.
+     *
+     * @param key  the key created with {@link #createKey(GlyphLine, Object)}
+     * @param line the line to be shaped
+     * @return {@code true} if the cached result has been applied, {@code false} otherwise
+     */
+    public boolean apply(Object key, GlyphLine line) {
+        ShapedGlyphs shaped;
+        synchronized (this) {
+            shaped = cache.get(key);
+            if (shaped == null) {
+                missCount++;
+                return false;
+            }
+            hitCount++;
+        }
+        replaceRange(line, shaped);
+        return true;
+    }
+
+    /**
+     * Caches the {@code [start, end)} range of the shaped line.
+     *
+     * @param key        the key created with {@link #createKey(GlyphLine, Object)} before the shaping
+     * @param shapedLine the line after the shaping
+     */
+    public void put(Object key, GlyphLine shapedLine) {
+        if (!(key instanceof ShapingKey)) {
+            throw new IllegalArgumentException("key");
+        }
+        ShapedGlyphs shaped = new ShapedGlyphs(shapedLine);
+        synchronized (this) {
+            cache.put((ShapingKey) key, shaped);
+        }
+    }
+
+    /**
+     * Gets the number of the successful lookups.
+     *
+     * @return the number of the cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of the unsuccessful lookups.
+     *
+     * @return the number of the cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of the cached shaping results.
+     *
+     * @return the size of the cache
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all the cached results and resets the statistics.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    private static void replaceRange(GlyphLine line, ShapedGlyphs shaped) {
+        List<Glyph> range = line.glyphs.subList(line.start, line.end);
+        range.clear();
+        for (Glyph glyph : shaped.glyphs) {
+            range.add(new Glyph(glyph));
+        }
+        if (shaped.actualText != null || line.actualText != null) {
+            if (line.actualText == null) {
+                line.actualText = new ArrayList<>(line.glyphs.size());
+                for (int i = 0; i < line.glyphs.size() - shaped.glyphs.length; i++) {
+                    line.actualText.add(null);
+                }
+            } else {
+                line.actualText.subList(line.start, line.end).clear();
+            }
+            List<GlyphLine.ActualText> actualTextRange = shaped.actualText != null
+                    ? Arrays.asList(shaped.actualText)
+                    : new ArrayList<GlyphLine.ActualText>(Arrays.asList(new GlyphLine.ActualText[shaped.glyphs.length]));
+            line.actualText.addAll(line.start, actualTextRange);
+        }
+        line.end = line.start + shaped.glyphs.length;
+    }
+
+    private static Glyph[] copyGlyphs(GlyphLine line) {
+        Glyph[] glyphs = new Glyph[line.end - line.start];
+        for (int i = 0; i < glyphs.length; i++) {
+            glyphs[i] = new Glyph(line.glyphs.get(line.start + i));
+        }
+        return glyphs;
+    }
+
+    private static GlyphLine.ActualText[] copyActualText(GlyphLine line) {
+        if (line.actualText == null) {
+            return null;
+        }
+        return line.actualText.subList(line.start, line.end).toArray(new GlyphLine.ActualText[line.end - line.start]);
+    }
+
+    private static boolean glyphsEqual(Glyph[] glyphs, Glyph[] otherGlyphs) {
+        if (glyphs.length != otherGlyphs.length) {
+            return false;
+        }
+        for (int i = 0; i < glyphs.length; i++) {
+            Glyph glyph = glyphs[i];
+            Glyph other = otherGlyphs[i];
+            // Glyph#equals ignores positioning, however the positioning applied by the previous shaping
+            // may affect the further one
+            if (!glyph.equals(other) || glyph.isMark() != other.isMark()
+                    || glyph.getXPlacement() != other.getXPlacement() || glyph.getYPlacement() != other.getYPlacement()
+                    || glyph.getXAdvance() != other.getXAdvance() || glyph.getYAdvance() != other.getYAdvance()
+                    || glyph.getAnchorDelta() != other.getAnchorDelta()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ShapedGlyphs {
+        final Glyph[] glyphs;
+        final GlyphLine.ActualText[] actualText;
+
+        ShapedGlyphs(GlyphLine line) {
+            this.glyphs = copyGlyphs(line);
+            this.actualText = copyActualText(line);
+        }
+    }
+
+    private static class ShapingKey {
+        private final Glyph[] glyphs;
+        private final GlyphLine.ActualText[] actualText;
+        private final Object shapingParameters;
+        private final int hash;
+
+        ShapingKey(GlyphLine line, Object shapingParameters) {
+            this.glyphs = copyGlyphs(line);
+            this.actualText = copyActualText(line);
+            this.shapingParameters = shapingParameters;
+            int result = Arrays.hashCode(glyphs);
+            result = 31 * result + Arrays.hashCode(actualText);
+            result = 31 * result + (shapingParameters != null ? shapingParameters.hashCode() : 0);
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ShapingKey other = (ShapingKey) o;
+            return hash == other.hash
+                    && (shapingParameters == null ? other.shapingParameters == null : shapingParameters.equals(other.shapingParameters))
+                    && Arrays.equals(actualText, other.actualText)
+                    && glyphsEqual(glyphs, other.glyphs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import com.itextpdf.io.font.PdfEncodings;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -927,46 +928,77 @@ final class BmpImageHelper {
             }
         }
 
-        int imSize = (int) bmp.imageSize;
-        if (imSize == 0) {
-            imSize = (int) (bmp.bitmapFileSize - bmp.bitmapOffset);
-        }
-
-        int l = 0;
-        int v;
-        if (bmp.isBottomUp) {
-            for (int i = bmp.height - 1; i >= 0; --i) {
-                l = bmp.width * 3 * i;
-                for (int j = 0; j < bmp.width; j++) {
-                    if (is32)
-                        v = (int) readDWord(bmp.inputStream);
-                    else
-                        v = readWord(bmp.inputStream);
-                    bdata[l++] = (byte) ((v >>> red_shift & red_mask) * 256 / red_factor);
-                    bdata[l++] = (byte) ((v >>> green_shift & green_mask) * 256 / green_factor);
-                    bdata[l++] = (byte) ((v >>> blue_shift & blue_mask) * 256 / blue_factor);
+        // the rows are read at once and converted channel by channel, see convertChannel
+        int bytesPerPixel = is32 ? 4 : 2;
+        byte[] row = new byte[bmp.width * bytesPerPixel + padding];
+        int[] pixels = new int[bmp.width];
+        byte[] redTable = createChannelTable(red_mask, red_factor);
+        byte[] greenTable = createChannelTable(green_mask, green_factor);
+        byte[] blueTable = createChannelTable(blue_mask, blue_factor);
+        for (int i = 0; i < bmp.height; i++) {
+            readRow(bmp.inputStream, row);
+            if (is32) {
+                for (int j = 0, k = 0; j < bmp.width; j++, k += 4) {
+                    pixels[j] = (row[k] & 0xff) | (row[k + 1] & 0xff) << 8 | (row[k + 2] & 0xff) << 16 | (row[k + 3] & 0xff) << 24;
                 }
-                for (int m = 0; m < padding; m++) {
-                    bmp.inputStream.read();
+            } else {
+                for (int j = 0, k = 0; j < bmp.width; j++, k += 2) {
+                    pixels[j] = (row[k] & 0xff) | (row[k + 1] & 0xff) << 8;
                 }
             }
+            int l = bmp.width * 3 * (bmp.isBottomUp ? bmp.height - 1 - i : i);
+            convertChannel(pixels, bmp.width, red_shift, red_mask, redTable, bdata, l);
+            convertChannel(pixels, bmp.width, green_shift, green_mask, greenTable, bdata, l + 1);
+            convertChannel(pixels, bmp.width, blue_shift, blue_mask, blueTable, bdata, l + 2);
+        }
+        RawImageHelper.updateRawImageParameters(bmp.image, bmp.width, bmp.height, 3, 8, bdata);
+    }
+
+    /**
+     * Reads the whole row, the bytes past the end of the stream are read as 0xff.
+     */
+    private static void readRow(InputStream stream, byte[] row) throws java.io.IOException {
+        int bytesRead = 0;
+        while (bytesRead < row.length) {
+            int r = stream.read(row, bytesRead, row.length - bytesRead);
+            if (r < 0) {
+                Arrays.fill(row, bytesRead, row.length, (byte) 0xff);
+                break;
+            }
+            bytesRead += r;
+        }
+    }
+
+    /**
+     * Creates the table of the 8-bit values of all the possible values of the color channel,
+     * or returns null if the channel has too many bits for such a table.
+     */
+    private static byte[] createChannelTable(int mask, int factor) {
+        if (mask < 0 || mask > 0xffff) {
+            return null;
+        }
+        byte[] table = new byte[mask + 1];
+        for (int c = 0; c <= mask; ++c) {
+            table[c] = (byte) (c * 256 / factor);
+        }
+        return table;
+    }
+
+    /**
+     * Writes the 8-bit values of the color channel of the row pixels to every third byte of the image data.
+     */
+    private static void convertChannel(int[] pixels, int width, int shift, int mask, byte[] table, byte[] bdata,
+            int offset) {
+        if (table != null) {
+            for (int j = 0; j < width; j++) {
+                bdata[offset + 3 * j] = table[pixels[j] >>> shift & mask];
+            }
         } else {
-            for (int i = 0; i < bmp.height; i++) {
-                for (int j = 0; j < bmp.width; j++) {
-                    if (is32)
-                        v = (int) readDWord(bmp.inputStream);
-                    else
-                        v = readWord(bmp.inputStream);
-                    bdata[l++] = (byte) ((v >>> red_shift & red_mask) * 256 / red_factor);
-                    bdata[l++] = (byte) ((v >>> green_shift & green_mask) * 256 / green_factor);
-                    bdata[l++] = (byte) ((v >>> blue_shift & blue_mask) * 256 / blue_factor);
-                }
-                for (int m = 0; m < padding; m++) {
-                    bmp.inputStream.read();
-                }
+            int factor = mask + 1;
+            for (int j = 0; j < width; j++) {
+                bdata[offset + 3 * j] = (byte) ((pixels[j] >>> shift & mask) * 256 / factor);
             }
         }
-        RawImageHelper.updateRawImageParameters(bmp.image, bmp.width, bmp.height, 3, 8, bdata);
     }
 
     private static void readRLE8(BmpParameters bmp) throws java.io.IOException {
@@ -217,6 +217,17 @@ public abstract class ImageData {
         return data;
     }
 
+    /**
+     * Checks if the image data are not kept in memory, but read from the {@link #getUrl() URL}
+     * when the image is written, see {@link ImageDataFactory#createJpeg(URL, boolean)}.
+     * {@link #getData()} returns null for such images.
+     *
+     * @return true if the image data are streamed from the URL
+     */
+    public boolean isDataStreamed() {
+        return data == null && url != null;
+    }
+
     public boolean canBeMask() {
         if (isRawImage()) {
             if (bpc > 0xff)
@@ -333,6 +344,10 @@ public abstract class ImageData {
             logger.warn(LogMessageConstant.IMAGE_HAS_MASK);
             return false;
         }
+        if (isDataStreamed()) {
+            logger.warn(LogMessageConstant.IMAGE_IS_STREAMED);
+            return false;
+        }
         return true;
     }
 
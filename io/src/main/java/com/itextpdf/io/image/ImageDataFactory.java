@@ -46,13 +46,16 @@ package com.itextpdf.io.image;
 import com.itextpdf.io.IOException;
 import com.itextpdf.io.codec.CCITTG4Encoder;
 import com.itextpdf.io.codec.TIFFFaxDecoder;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.util.UrlUtil;
 
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public final class ImageDataFactory {
 
@@ -382,6 +385,26 @@ public final class ImageDataFactory {
         return image;
     }
 
+    /**
+     * Create an {@link ImageData} instance from a Jpeg image url.
+     * <p>
+     * If the data are streamed, only the headers of the image are read to get its size, resolution and
+     * color space, and the image data are never kept in memory. The data are read from the URL again
+     * and copied as they are to the output when the image XObject is written to the document,
+     * so the image resource must stay available until then.
+     *
+     * @param url        URL
+     * @param streamData true to read the image data from the URL when they are written to the document,
+     *                   false to load them into memory like {@link #createJpeg(URL)} does
+     * @return the created JPEG image
+     */
+    public static ImageData createJpeg(URL url, boolean streamData) {
+        validateImageType(url, ImageType.JPEG);
+        ImageData image = new JpegImageData(url);
+        JpegImageHelper.processImage(image, streamData);
+        return image;
+    }
+
     public static ImageData createJpeg(byte[] bytes) {
         validateImageType(bytes, ImageType.JPEG);
         ImageData image = new JpegImageData(bytes);
@@ -432,6 +455,47 @@ public final class ImageDataFactory {
         return image;
     }
 
+    /**
+     * Creates the images of all the pages of the TIFF document. The image file directories are read
+     * once and the pages are decoded concurrently, which is much faster than calling
+     * {@link #createTiff(byte[], boolean, int, boolean)} for each page of the large multi-page documents.
+     *
+     * @param bytes                 the TIFF document
+     * @param recoverFromImageError whether to try to recover from the image errors
+     * @param direct                whether to use the original image data as is
+     * @param executor              the executor to decode the pages with, or null to decode them
+     *                              in the calling thread
+     * @return the images of the pages, in the page order
+     */
+    public static List<ImageData> createTiffPages(byte[] bytes, boolean recoverFromImageError, boolean direct,
+            ExecutorService executor) {
+        validateImageType(bytes, ImageType.TIFF);
+        return TiffImageHelper.processImages(bytes, recoverFromImageError, direct, executor);
+    }
+
+    /**
+     * Creates the images of all the pages of the TIFF document, see
+     * {@link #createTiffPages(byte[], boolean, boolean, ExecutorService)}.
+     *
+     * @param url                   the location of the TIFF document
+     * @param recoverFromImageError whether to try to recover from the image errors
+     * @param direct                whether to use the original image data as is
+     * @param executor              the executor to decode the pages with, or null to decode them
+     *                              in the calling thread
+     * @return the images of the pages, in the page order
+     */
+    public static List<ImageData> createTiffPages(URL url, boolean recoverFromImageError, boolean direct,
+            ExecutorService executor) {
+        validateImageType(url, ImageType.TIFF);
+        byte[] bytes;
+        try (InputStream stream = UrlUtil.openStream(url)) {
+            bytes = StreamUtil.inputStreamToArray(stream);
+        } catch (java.io.IOException e) {
+            throw new IOException(IOException.TiffImageException, e);
+        }
+        return TiffImageHelper.processImages(bytes, recoverFromImageError, direct, executor);
+    }
+
     public static ImageData createRawImage(byte[] bytes) {
         return new RawImageData(bytes, ImageType.RAW);
     }
@@ -45,8 +45,10 @@ package com.itextpdf.io.image;
 
 import com.itextpdf.io.IOException;
 import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.io.colors.IccProfile;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import com.itextpdf.io.util.MessageFormatUtil;
 import java.util.HashMap;
@@ -126,19 +128,38 @@ class JpegImageHelper {
      * @param image the image to process as a JPEG image
      */
     public static void processImage(ImageData image) {
+        processImage(image, false);
+    }
+
+    /**
+     * Process the passed Image data as a JPEG image.
+     * If the data are streamed, only the headers of the image are read from its URL,
+     * and the image data are not loaded.
+     *
+     * @param image      the image to process as a JPEG image
+     * @param streamData true to leave the data of the image, created by URL, unloaded
+     */
+    static void processImage(ImageData image, boolean streamData) {
         if (image.getOriginalType() != ImageType.JPEG)
             throw new IllegalArgumentException("JPEG image expected");
         InputStream jpegStream = null;
         try {
             String errorID;
             if (image.getData() == null) {
-                image.loadData();
                 errorID = image.getUrl().toString();
+                if (streamData) {
+                    // the size of the data isn't known until they are read, streamed images are never inlined anyway
+                    jpegStream = new BufferedInputStream(UrlUtil.openStream(image.getUrl()));
+                } else {
+                    image.loadData();
+                }
             } else {
                 errorID = "Byte array";
             }
-            jpegStream = new java.io.ByteArrayInputStream(image.getData());
-            image.imageSize = image.getData().length;
+            if (jpegStream == null) {
+                jpegStream = new java.io.ByteArrayInputStream(image.getData());
+                image.imageSize = image.getData().length;
+            }
             processParameters(jpegStream, errorID, image);
         } catch (java.io.IOException e) {
             throw new IOException(IOException.JpegImageException, e);
@@ -50,6 +50,7 @@ import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.colors.IccProfile;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.DeflaterOutputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -57,7 +58,10 @@ import com.itextpdf.io.util.MessageFormatUtil;
 
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 class PngImageHelper {
@@ -80,12 +84,15 @@ class PngImageHelper {
         byte[] imageData;
         byte[] smask;
         byte[] trans;
-        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        List<byte[]> idatChunks = new ArrayList<>();
+        int idatLength;
+        byte[] idat;
         int dpiX;
         int dpiY;
         float XYRatio;
         boolean genBWMask;
         boolean palShades;
+        boolean decodedDataDeflated;
         int transRedGray = -1;
         int transGreen = -1;
         int transBlue = -1;
@@ -151,7 +158,6 @@ class PngImageHelper {
      */
     public static final String iCCP = "iCCP";
 
-    private static final int TRANSFERSIZE = 4096;
     private static final int PNG_FILTER_NONE = 0;
     private static final int PNG_FILTER_SUB = 1;
     private static final int PNG_FILTER_UP = 2;
@@ -189,6 +195,7 @@ class PngImageHelper {
 
     private static void processPng(InputStream pngStream, PngParameters png) throws java.io.IOException {
         readPng(pngStream, png);
+        png.idat = joinIdatChunks(png);
         int colorType = png.image.getColorType();
         if (png.iccProfile != null && png.iccProfile.getNumComponents() != getExpectedNumberOfColorComponents(png)) {
             LoggerFactory.getLogger(PngImageHelper.class).warn(LogMessageConstant.PNG_IMAGE_HAS_ICC_PROFILE_WITH_INCOMPATIBLE_NUMBER_OF_COLOR_COMPONENTS);
@@ -215,6 +222,14 @@ class PngImageHelper {
             png.genBWMask = (!png.palShades && (pal0 > 1 || png.transRedGray >= 0));
             if (!png.palShades && !png.genBWMask && pal0 == 1) {
                 png.additional.put(PngImageHelperConstants.MASK, new int[]{palIdx,palIdx});
+            } else if (png.genBWMask && png.transRedGray < 0) {
+                // the fully transparent palette entries are masked by a color key when they are adjacent,
+                // so that the image data don't have to be decoded to build the mask
+                int firstTransparent = palIdx - pal0 + 1;
+                if (firstTransparent >= 0 && countTransparentEntries(png.trans, firstTransparent, palIdx) == pal0) {
+                    png.genBWMask = false;
+                    png.additional.put(PngImageHelperConstants.MASK, new int[]{firstTransparent, palIdx});
+                }
             }
             boolean needDecode = (png.interlaceMethod == 1) || (png.bitDepth == 16) || ((colorType & 4) != 0) || png.palShades || png.genBWMask;
             switch (colorType) {
@@ -234,7 +249,9 @@ class PngImageHelper {
                     png.inputBands = 4;
                     break;
             }
-            if (needDecode)
+            if (png.palShades && png.interlaceMethod != 1)
+                decodeIdatRows(png);
+            else if (needDecode)
                 decodeIdat(png);
             int components = png.inputBands;
             if ((colorType & 4) != 0)
@@ -243,13 +260,16 @@ class PngImageHelper {
             if (bpc == 16)
                 bpc = 8;
             if (png.imageData != null) {
-                if (png.image.isIndexed()) {
+                if (png.image.isIndexed() || png.decodedDataDeflated) {
                     RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.imageData);
                 } else {
                     RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.imageData, null);
                 }
+                if (png.decodedDataDeflated)
+                    png.image.setDeflated(true);
             } else {
-                RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.idat.toByteArray());
+                // the deflated image data are embedded as is, the PNG filters are undone by the PNG predictor
+                RawImageHelper.updateRawImageParameters(png.image, png.width, png.height, components, bpc, png.idat);
                 png.image.setDeflated(true);
                 Map<String, Object> decodeparms = new HashMap<>();
                 decodeparms.put(PngImageHelperConstants.BITS_PER_COMPONENT, png.bitDepth);
@@ -265,6 +285,8 @@ class PngImageHelper {
             if (png.palShades) {
                 RawImageData im2 = (RawImageData) ImageDataFactory.createRawImage(null);
                 RawImageHelper.updateRawImageParameters(im2, png.width, png.height, 1, 8, png.smask);
+                if (png.decodedDataDeflated)
+                    im2.setDeflated(true);
                 im2.makeMask();
                 png.image.setImageMask(im2);
             }
@@ -291,21 +313,19 @@ class PngImageHelper {
                 throw new java.io.IOException("file.is.not.a.valid.png");
             }
         }
-        byte[] buffer = new byte[TRANSFERSIZE];
         while (true) {
             int len = getInt(pngStream);
             String marker = getString(pngStream);
             if (len < 0 || !checkMarker(marker))
                 throw new java.io.IOException("corrupted.png.file");
             if (IDAT.equals(marker)) {
-                int size;
-                while (len != 0) {
-                    size = pngStream.read(buffer, 0, Math.min(len, TRANSFERSIZE));
-                    if (size < 0)
-                        return;
-                    png.idat.write(buffer, 0, size);
-                    len -= size;
-                }
+                // the stream is always in memory, so the chunk is read at once, but never beyond the end of the data
+                byte[] chunk = new byte[Math.min(len, pngStream.available())];
+                StreamUtil.readFully(pngStream, chunk, 0, chunk.length);
+                png.idatChunks.add(chunk);
+                png.idatLength += chunk.length;
+                if (chunk.length < len)
+                    return;
             } else if (tRNS.equals(marker)) {
                 switch (png.image.getColorType()) {
                     case 0:
@@ -442,6 +462,30 @@ class PngImageHelper {
         return true;
     }
 
+    private static byte[] joinIdatChunks(PngParameters png) {
+        if (png.idatChunks.size() == 1) {
+            return png.idatChunks.get(0);
+        }
+        byte[] idat = new byte[png.idatLength];
+        int offset = 0;
+        for (byte[] chunk : png.idatChunks) {
+            System.arraycopy(chunk, 0, idat, offset, chunk.length);
+            offset += chunk.length;
+        }
+        png.idatChunks.clear();
+        return idat;
+    }
+
+    private static int countTransparentEntries(byte[] trans, int from, int to) {
+        int count = 0;
+        for (int k = from; k <= to; ++k) {
+            if (trans[k] == 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
     private static void decodeIdat(PngParameters png) {
         int nbitDepth = png.bitDepth;
         if (nbitDepth == 16)
@@ -476,7 +520,7 @@ class PngImageHelper {
             png.smask = new byte[png.width * png.height];
         else if (png.genBWMask)
             png.smask = new byte[(png.width + 7) / 8 * png.height];
-        ByteArrayInputStream bai = new ByteArrayInputStream(png.idat.toByteArray());
+        ByteArrayInputStream bai = new ByteArrayInputStream(png.idat);
         png.dataStream = FilterUtil.getInflaterInputStream(bai);
 
         if (png.interlaceMethod != 1) {
@@ -517,25 +561,7 @@ class PngImageHelper {
                 // empty on purpose
             }
 
-            switch (filter) {
-                case PNG_FILTER_NONE:
-                    break;
-                case PNG_FILTER_SUB:
-                    decodeSubFilter(curr, bytesPerRow, png.bytesPerPixel);
-                    break;
-                case PNG_FILTER_UP:
-                    decodeUpFilter(curr, prior, bytesPerRow);
-                    break;
-                case PNG_FILTER_AVERAGE:
-                    decodeAverageFilter(curr, prior, bytesPerRow, png.bytesPerPixel);
-                    break;
-                case PNG_FILTER_PAETH:
-                    decodePaethFilter(curr, prior, bytesPerRow, png.bytesPerPixel);
-                    break;
-                default:
-                    // Error -- uknown filter type
-                    throw new IOException(IOException.UnknownPngFilter);
-            }
+            decodeFilter(filter, curr, prior, bytesPerRow, png.bytesPerPixel);
 
             processPixels(curr, xOffset, xStep, dstY, passWidth, png);
 
@@ -546,11 +572,108 @@ class PngImageHelper {
         }
     }
 
+    /**
+     * Decodes the non-interlaced image data with the alpha channel or with the partially transparent palette
+     * entries row by row. The color and alpha samples of each row are written to the deflating streams at once,
+     * so that neither the whole inflated image nor its uncompressed color and alpha planes are ever kept in memory.
+     * The color data of the indexed images don't change and are embedded as is.
+     */
+    private static void decodeIdatRows(PngParameters png) throws java.io.IOException {
+        int colorType = png.image.getColorType();
+        int bytesPerSample = png.bitDepth == 16 ? 2 : 1;
+        png.bytesPerPixel = colorType == 3 ? 1 : png.inputBands * bytesPerSample;
+        int bytesPerRow = (png.inputBands * png.width * png.bitDepth + 7) / 8;
+        byte[] curr = new byte[bytesPerRow];
+        byte[] prior = new byte[bytesPerRow];
+        int colorBands = png.inputBands - 1;
+        byte[] colorRow = colorType == 3 ? null : new byte[colorBands * png.width];
+        byte[] alphaRow = new byte[png.width];
+        byte[] alphaTable = null;
+        if (colorRow == null) {
+            // the alpha values of all the possible palette indices, so that the rows are expanded with lookups only
+            alphaTable = new byte[256];
+            Arrays.fill(alphaTable, (byte) 255);
+            System.arraycopy(png.trans, 0, alphaTable, 0, Math.min(png.trans.length, alphaTable.length));
+        }
+
+        ByteArrayOutputStream colorStream = null;
+        DeflaterOutputStream colorZip = null;
+        if (colorRow != null) {
+            colorStream = new ByteArrayOutputStream();
+            colorZip = new DeflaterOutputStream(colorStream);
+        }
+        ByteArrayOutputStream alphaStream = new ByteArrayOutputStream();
+        DeflaterOutputStream alphaZip = new DeflaterOutputStream(alphaStream);
+        png.dataStream = FilterUtil.getInflaterInputStream(new ByteArrayInputStream(png.idat));
+
+        for (int y = 0; y < png.height; ++y) {
+            int filter = 0;
+            try {
+                filter = png.dataStream.read();
+                StreamUtil.readFully(png.dataStream, curr, 0, bytesPerRow);
+            } catch (Exception e) {
+                // empty on purpose
+            }
+            decodeFilter(filter, curr, prior, bytesPerRow, png.bytesPerPixel);
+
+            if (colorRow == null) {
+                expandIndices(curr, alphaRow, png.width, png.bitDepth, alphaTable);
+            } else {
+                // only the high byte of the 16-bit samples is kept
+                int src = 0;
+                int dst = 0;
+                for (int x = 0; x < png.width; ++x) {
+                    for (int k = 0; k < colorBands; ++k) {
+                        colorRow[dst++] = curr[src];
+                        src += bytesPerSample;
+                    }
+                    alphaRow[x] = curr[src];
+                    src += bytesPerSample;
+                }
+                colorZip.write(colorRow);
+            }
+            alphaZip.write(alphaRow);
+
+            byte[] tmp = prior;
+            prior = curr;
+            curr = tmp;
+        }
+
+        if (colorZip != null) {
+            colorZip.close();
+            png.imageData = colorStream.toByteArray();
+        }
+        alphaZip.close();
+        png.smask = alphaStream.toByteArray();
+        png.decodedDataDeflated = true;
+    }
+
+    private static void decodeFilter(int filter, byte[] curr, byte[] prior, int bytesPerRow, int bytesPerPixel) {
+        switch (filter) {
+            case PNG_FILTER_NONE:
+                break;
+            case PNG_FILTER_SUB:
+                decodeSubFilter(curr, bytesPerRow, bytesPerPixel);
+                break;
+            case PNG_FILTER_UP:
+                decodeUpFilter(curr, prior, bytesPerRow);
+                break;
+            case PNG_FILTER_AVERAGE:
+                decodeAverageFilter(curr, prior, bytesPerRow, bytesPerPixel);
+                break;
+            case PNG_FILTER_PAETH:
+                decodePaethFilter(curr, prior, bytesPerRow, bytesPerPixel);
+                break;
+            default:
+                // Error -- uknown filter type
+                throw new IOException(IOException.UnknownPngFilter);
+        }
+    }
+
     private static void processPixels(byte[] curr, int xOffset, int step, int y, int width, PngParameters png) {
         int srcX, dstX;
         int colorType = png.image.getColorType();
 
-        int[] outPixel = getPixel(curr, png);
         int sizes = 0;
         switch (colorType) {
             case 0:
@@ -563,11 +686,21 @@ class PngImageHelper {
                 sizes = 3;
                 break;
         }
-        if (png.imageData != null) {
+        int dataStride = (sizes * png.width * (png.bitDepth == 16 ? 8 : png.bitDepth) + 7) / 8;
+        // the whole rows of the non-interlaced images are copied at once, the pixels aren't unpacked
+        boolean wholeRow = png.imageData != null && step == 1 && xOffset == 0;
+        if (wholeRow) {
+            copyRowSamples(curr, png.imageData, y * dataStride, width, png.inputBands, sizes, png.bitDepth);
+            if (!png.palShades && !png.genBWMask) {
+                return;
+            }
+        }
+
+        int[] outPixel = getPixel(curr, png);
+        if (png.imageData != null && !wholeRow) {
             dstX = xOffset;
-            int yStride = (sizes * png.width * (png.bitDepth == 16 ? 8 : png.bitDepth) + 7) / 8;
             for (srcX = 0; srcX < width; srcX++) {
-                setPixel(png.imageData, outPixel, png.inputBands * srcX, sizes, dstX, y, png.bitDepth, yStride);
+                setPixel(png.imageData, outPixel, png.inputBands * srcX, sizes, dstX, y, png.bitDepth, dataStride);
                 dstX += step;
             }
         }
@@ -642,14 +775,73 @@ class PngImageHelper {
         }
     }
 
-    private static int getPixel(byte[] image, int x, int y, int bitDepth, int bytesPerRow) {
+    /**
+     * Replaces the palette indices of the whole decoded row with the values from the table.
+     */
+    private static void expandIndices(byte[] row, byte[] dest, int width, int bitDepth, byte[] table) {
         if (bitDepth == 8) {
-            int pos = bytesPerRow * y + x;
-            return image[pos] & 0xff;
+            for (int x = 0; x < width; ++x) {
+                dest[x] = table[row[x] & 0xff];
+            }
         } else {
-            int pos = bytesPerRow * y + x / (8 / bitDepth);
-            int v = image[pos] >> (8 - bitDepth * (x % (8 / bitDepth)) - bitDepth);
-            return v & ((1 << bitDepth) - 1);
+            int mask = (1 << bitDepth) - 1;
+            int x = 0;
+            for (int k = 0; x < width; ++k) {
+                int b = row[k] & 0xff;
+                for (int shift = 8 - bitDepth; shift >= 0 && x < width; shift -= bitDepth) {
+                    dest[x++] = table[(b >> shift) & mask];
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the color samples of the whole decoded row to the image data. The alpha samples are skipped
+     * and only the high byte of the 16-bit samples is kept. The loops are plain counted loops over the arrays,
+     * so that the JIT compiler can unroll and vectorize them.
+     */
+    private static void copyRowSamples(byte[] row, byte[] image, int offset, int width, int inputBands, int colorBands,
+            int bitDepth) {
+        if (bitDepth < 8) {
+            // there is a single sample per pixel, the packed row is copied as is apart from the padding bits
+            int bits = width * bitDepth;
+            int fullBytes = bits / 8;
+            System.arraycopy(row, 0, image, offset, fullBytes);
+            if (bits % 8 != 0) {
+                image[offset + fullBytes] = (byte) (row[fullBytes] & (0xff00 >> (bits % 8)));
+            }
+        } else if (bitDepth == 8) {
+            if (inputBands == colorBands) {
+                System.arraycopy(row, 0, image, offset, width * colorBands);
+            } else if (colorBands == 1) {
+                for (int x = 0; x < width; ++x) {
+                    image[offset + x] = row[x * inputBands];
+                }
+            } else {
+                for (int x = 0, src = 0, dst = offset; x < width; ++x, src += inputBands, dst += 3) {
+                    image[dst] = row[src];
+                    image[dst + 1] = row[src + 1];
+                    image[dst + 2] = row[src + 2];
+                }
+            }
+        } else {
+            if (inputBands == colorBands) {
+                int count = width * colorBands;
+                for (int k = 0; k < count; ++k) {
+                    image[offset + k] = row[2 * k];
+                }
+            } else if (colorBands == 1) {
+                for (int x = 0; x < width; ++x) {
+                    image[offset + x] = row[x * 2 * inputBands];
+                }
+            } else {
+                int srcStep = 2 * inputBands;
+                for (int x = 0, src = 0, dst = offset; x < width; ++x, src += srcStep, dst += 3) {
+                    image[dst] = row[src];
+                    image[dst + 1] = row[src + 2];
+                    image[dst + 2] = row[src + 4];
+                }
+            }
         }
     }
 
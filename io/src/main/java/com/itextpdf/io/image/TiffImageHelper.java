@@ -59,8 +59,17 @@ import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.util.FilterUtil;
 
+import java.io.EOFException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 class TiffImageHelper {
 
@@ -79,6 +88,49 @@ class TiffImageHelper {
      * @param image image to process.
      */
     public static void processImage(ImageData image) {
+        processImage(image, null);
+    }
+
+    /**
+     * Processes all the pages of the TIFF document. The chain of the image file directories is read once,
+     * then the pages are decoded concurrently.
+     *
+     * @param bytes                 the TIFF document
+     * @param recoverFromImageError whether to try to recover from the image errors
+     * @param direct                whether to use the original image data as is
+     * @param executor              the executor to decode the pages with, or null to decode them
+     *                              in the calling thread
+     * @return the images of the pages, in the page order
+     */
+    static List<ImageData> processImages(byte[] bytes, boolean recoverFromImageError, boolean direct,
+            ExecutorService executor) {
+        List<TIFFDirectory> directories;
+        try {
+            RandomAccessFileOrArray raf = new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes));
+            directories = readDirectories(raf);
+            raf.close();
+        } catch (java.io.IOException e) {
+            throw new IOException(IOException.TiffImageException, e);
+        }
+
+        List<ImageData> images = new ArrayList<>(directories.size());
+        List<Callable<Object>> tasks = new ArrayList<>(directories.size());
+        for (int k = 0; k < directories.size(); ++k) {
+            ImageData image = new TiffImageData(bytes, recoverFromImageError, k + 1, direct);
+            images.add(image);
+            tasks.add(new PageProcessingTask(image, directories.get(k)));
+        }
+        if (executor == null) {
+            for (int k = 0; k < images.size(); ++k) {
+                processImage(images.get(k), directories.get(k));
+            }
+        } else {
+            waitForTasks(executor, tasks);
+        }
+        return images;
+    }
+
+    private static void processImage(ImageData image, TIFFDirectory dir) {
         if (image.getOriginalType() != ImageType.TIFF)
             throw new IllegalArgumentException("TIFF image expected");
         try {
@@ -89,7 +141,7 @@ class TiffImageHelper {
             ras = new RandomAccessSourceFactory().createSource(image.getData());
             RandomAccessFileOrArray raf = new RandomAccessFileOrArray(ras);
             TiffParameters tiff = new TiffParameters((TiffImageData)image);
-            processTiffImage(raf, tiff);
+            processTiffImage(raf, tiff, dir);
             raf.close();
 
             if (!tiff.jpegProcessing) {
@@ -100,14 +152,51 @@ class TiffImageHelper {
         }
     }
 
-    private static void processTiffImage(RandomAccessFileOrArray s, TiffParameters tiff) {
+    private static List<TIFFDirectory> readDirectories(RandomAccessFileOrArray raf) throws java.io.IOException {
+        List<TIFFDirectory> directories = new ArrayList<>();
+        Set<Long> offsets = new HashSet<>();
+        TIFFDirectory dir = new TIFFDirectory(raf, 0);
+        offsets.add(dir.getIFDOffset());
+        while (true) {
+            directories.add(dir);
+            long nextOffset = dir.getNextIFDOffset();
+            // the chain is followed the same way TIFFDirectory#getNumDirectories does, looped chains are cut
+            if (nextOffset == 0 || !offsets.add(nextOffset)) {
+                break;
+            }
+            try {
+                dir = new TIFFDirectory(raf, nextOffset, 0);
+            } catch (EOFException eof) {
+                break;
+            }
+        }
+        return directories;
+    }
+
+    private static void waitForTasks(ExecutorService executor, List<Callable<Object>> tasks) {
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(IOException.TiffImageException, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(IOException.TiffImageException, e.getCause());
+        }
+    }
+
+    private static void processTiffImage(RandomAccessFileOrArray s, TiffParameters tiff, TIFFDirectory directory) {
         boolean recoverFromImageError = tiff.image.isRecoverFromImageError();
         int page = tiff.image.getPage();
         boolean direct = tiff.image.isDirect();
         if (page < 1)
             throw new IOException(IOException.PageNumberMustBeGtEq1);
         try {
-            TIFFDirectory dir = new TIFFDirectory(s, page - 1);
+            TIFFDirectory dir = directory != null ? directory : new TIFFDirectory(s, page - 1);
             if (dir.isTagPresent(TIFFConstants.TIFFTAG_TILEWIDTH))
                 throw new IOException(IOException.TilesAreNotSupported);
             int compression = TIFFConstants.COMPRESSION_NONE;
@@ -614,18 +703,38 @@ class TiffImageHelper {
     private static void processExtraSamples(DeflaterOutputStream zip, DeflaterOutputStream mzip,
                               byte[] outBuf, int samplePerPixel, int bitsPerSample, int width, int height) throws java.io.IOException {
         if (bitsPerSample == 8) {
-            byte[] mask = new byte[width * height];
-            int mptr = 0;
-            int optr = 0;
-            int total = width * height * samplePerPixel;
-            for (int k = 0; k < total; k += samplePerPixel) {
-                for (int s = 0; s < samplePerPixel - 1; ++s) {
-                    outBuf[optr++] = outBuf[k + s];
+            int pixels = width * height;
+            byte[] mask = new byte[pixels];
+            // the color samples are moved to the beginning of the buffer, gray and RGB with alpha get own loops
+            // without the inner loop over the samples, so that the JIT compiler can unroll them
+            if (samplePerPixel == 2) {
+                for (int m = 0, k = 0; m < pixels; ++m, k += 2) {
+                    byte gray = outBuf[k];
+                    mask[m] = outBuf[k + 1];
+                    outBuf[m] = gray;
+                }
+            } else if (samplePerPixel == 4) {
+                for (int m = 0, k = 0, o = 0; m < pixels; ++m, k += 4, o += 3) {
+                    byte r = outBuf[k];
+                    byte g = outBuf[k + 1];
+                    byte b = outBuf[k + 2];
+                    mask[m] = outBuf[k + 3];
+                    outBuf[o] = r;
+                    outBuf[o + 1] = g;
+                    outBuf[o + 2] = b;
+                }
+            } else {
+                int optr = 0;
+                int total = pixels * samplePerPixel;
+                for (int k = 0, m = 0; k < total; k += samplePerPixel, ++m) {
+                    for (int s = 0; s < samplePerPixel - 1; ++s) {
+                        outBuf[optr++] = outBuf[k + s];
+                    }
+                    mask[m] = outBuf[k + samplePerPixel - 1];
                 }
-                mask[mptr++] = outBuf[k + samplePerPixel - 1];
             }
-            zip.write(outBuf, 0, optr);
-            mzip.write(mask, 0, mptr);
+            zip.write(outBuf, 0, pixels * (samplePerPixel - 1));
+            mzip.write(mask, 0, pixels);
         } else
             throw new IOException(IOException.ExtraSamplesAreNotSupported);
     }
@@ -695,4 +804,20 @@ class TiffImageHelper {
             }
         }
     }
+
+    private static class PageProcessingTask implements Callable<Object> {
+        private final ImageData image;
+        private final TIFFDirectory directory;
+
+        PageProcessingTask(ImageData image, TIFFDirectory directory) {
+            this.image = image;
+            this.directory = directory;
+        }
+
+        @Override
+        public Object call() {
+            processImage(image, directory);
+            return null;
+        }
+    }
 }
@@ -49,6 +49,10 @@ import java.util.Arrays;
 /**
  * A hash map that uses primitive ints for the key rather than objects.
  * <p>
+ * The keys and the values are kept in primitive arrays, collisions are resolved with
+ * linear probing, so no objects are allocated per entry. This keeps the large tables,
+ * like kerning pairs or glyph widths of big CJK fonts, compact.
+ * <p>
  * Note that this class is for internal optimization purposes only, and may
  * not be supported in future releases of Jakarta Commons Lang.  Utilities of
  * this sort may be included in future releases of Jakarta Commons Collections.
@@ -61,12 +65,27 @@ import java.util.Arrays;
  */
 public class IntHashtable implements Cloneable, Serializable {
 
-    private static final long serialVersionUID = 7354463962269093965L;
+    private static final long serialVersionUID = -6416591440547316316L;
+
+    /**
+     * The open addressing requires at least one free slot in the table.
+     */
+    private static final float MAX_LOAD_FACTOR = 0.9f;
+
+    /***
+     * The keys of the hash table, the slot is occupied if the corresponding {@link #used} flag is set.
+     */
+    private int[] keys;
 
     /***
-     * The hash table data.
+     * The values of the hash table.
      */
-    private Entry[] table;
+    private int[] values;
+
+    /***
+     * The flags of the occupied slots.
+     */
+    private boolean[] used;
 
     /***
      * The total number of entries in the hash table.
@@ -90,7 +109,7 @@ public class IntHashtable implements Cloneable, Serializable {
 
     /***
      * Constructs a new, empty hashtable with a default capacity and load
-     * factor, which is <code>20</code> and <code>0.75</code> respectively.
+     * factor, which is <code>150</code> and <code>0.75</code> respectively.
      */
     public IntHashtable() {
         this(150, 0.75f);
@@ -124,16 +143,12 @@ public class IntHashtable implements Cloneable, Serializable {
         if (loadFactor <= 0) {
             throw new IllegalArgumentException(MessageFormatUtil.format("Illegal Load: {0}", loadFactor));
         }
-        if (initialCapacity == 0) {
-            initialCapacity = 1;
-        }
-        this.loadFactor = loadFactor;
-        table = new Entry[initialCapacity];
-        threshold = (int) (initialCapacity * loadFactor);
+        this.loadFactor = Math.min(loadFactor, MAX_LOAD_FACTOR);
+        allocate(tableSizeFor(initialCapacity));
     }
 
     public IntHashtable(IntHashtable o) {
-        this(o.table.length, o.loadFactor);
+        this(o.keys.length, o.loadFactor);
     }
 
     /***
@@ -174,13 +189,9 @@ public class IntHashtable implements Cloneable, Serializable {
      * @see        java.util.Map
      */
     public boolean contains(int value) {
-
-        Entry[] tab = table;
-        for (int i = tab.length; i-- > 0;) {
-            for (Entry e = tab[i]; e != null; e = e.next) {
-                if (e.value == value) {
-                    return true;
-                }
+        for (int i = keys.length; i-- > 0;) {
+            if (used[i] && values[i] == value) {
+                return true;
             }
         }
         return false;
@@ -211,14 +222,7 @@ public class IntHashtable implements Cloneable, Serializable {
      * @see #contains(int)
      */
     public boolean containsKey(int key) {
-        Entry[] tab = table;
-        int index = (key & 0x7FFFFFFF) % tab.length;
-        for (Entry e = tab[index]; e != null; e = e.next) {
-            if (e.key == key) {
-                return true;
-            }
-        }
-        return false;
+        return indexOf(key) >= 0;
     }
 
     /***
@@ -231,36 +235,10 @@ public class IntHashtable implements Cloneable, Serializable {
      * @see     #put(int, int)
      */
     public int get(int key) {
-        Entry[] tab = table;
-        int index = (key & 0x7FFFFFFF) % tab.length;
-        for (Entry e = tab[index]; e != null; e = e.next) {
-            if (e.key == key) {
-                return e.value;
-            }
-        }
-        return 0;
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : 0;
     }
 
-    /***
-     * Returns thes value to which the specified key is mapped in this map.
-     *
-     * @param   key   a key in the hashtable.
-     * @return  the values to which the key is mapped in this hashtable;
-     *          <code>null</code> if the key is not mapped to any value in
-     *          this hashtable.
-     * @see     #put(int, int)
-    public ArrayList<Integer> getValues(int key) {
-    Entry[] tab = table;
-    int index = (key & 0x7FFFFFFF) % tab.length;
-    for (Entry e = tab[index]; e != null; e = e.next) {
-    if (e.key == key) {
-    return e.values;
-    }
-    }
-    return null;
-    }
-     */
-
     /***
      * Increases the capacity of and internally reorganizes this
      * hashtable, in order to accommodate and access its entries more
@@ -271,23 +249,22 @@ public class IntHashtable implements Cloneable, Serializable {
      * factor.
      */
     protected void rehash() {
-        int oldCapacity = table.length;
-        Entry[] oldMap = table;
-
-        int newCapacity = oldCapacity * 2 + 1;
-        Entry[] newMap = new Entry[newCapacity];
-
-        threshold = (int) (newCapacity * loadFactor);
-        table = newMap;
-
-        for (int i = oldCapacity; i-- > 0;) {
-            for (Entry old = oldMap[i]; old != null;) {
-                Entry e = old;
-                old = old.next;
-
-                int index = (e.key & 0x7FFFFFFF) % newCapacity;
-                e.next = newMap[index];
-                newMap[index] = e;
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(oldKeys.length * 2);
+
+        int mask = keys.length - 1;
+        for (int i = oldKeys.length; i-- > 0;) {
+            if (oldUsed[i]) {
+                int index = hash(oldKeys[i]) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
             }
         }
     }
@@ -309,28 +286,31 @@ public class IntHashtable implements Cloneable, Serializable {
      */
     public int put(int key, int value) {
         // Makes sure the key is not already in the hashtable.
-        Entry[] tab = table;
-        int index = (key & 0x7FFFFFFF) % tab.length;
-        for (Entry e = tab[index]; e != null; e = e.next) {
-            if (e.key == key) {
-                int old = e.value;
-                //e.addValue(old);
-                e.value = value;
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                int old = values[index];
+                values[index] = value;
                 return old;
             }
+            index = (index + 1) & mask;
         }
 
         if (count >= threshold) {
             // Rehash the table if the threshold is exceeded
             rehash();
 
-            tab = table;
-            index = (key & 0x7FFFFFFF) % tab.length;
+            mask = keys.length - 1;
+            index = hash(key) & mask;
+            while (used[index]) {
+                index = (index + 1) & mask;
+            }
         }
 
-        // Creates the new entry.
-        Entry e = new Entry(key, value, tab[index]);
-        tab[index] = e;
+        used[index] = true;
+        keys[index] = key;
+        values[index] = value;
         count++;
         return 0;
     }
@@ -347,34 +327,40 @@ public class IntHashtable implements Cloneable, Serializable {
      *          or <code>null</code> if the key did not have a mapping.
      */
     public int remove(int key) {
-        Entry[] tab = table;
-        int index = (key & 0x7FFFFFFF) % tab.length;
-        Entry e;
-        Entry prev;
-        for (e = tab[index], prev = null; e != null; prev = e, e = e.next) {
-            if (e.key == key) {
-                if (prev != null) {
-                    prev.next = e.next;
-                } else {
-                    tab[index] = e.next;
-                }
-                count--;
-                int oldValue = e.value;
-                e.value = 0;
-                return oldValue;
+        int index = indexOf(key);
+        if (index < 0) {
+            return 0;
+        }
+        int oldValue = values[index];
+        count--;
+
+        // shift back the following entries of the probe sequence, so that no tombstones are needed
+        int mask = keys.length - 1;
+        int free = index;
+        int next = (free + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            // the entry may fill the free slot only if the slot lies cyclically between its home and itself
+            if (free <= next ? (home <= free || home > next) : (home <= free && home > next)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
             }
+            next = (next + 1) & mask;
         }
-        return 0;
+        used[free] = false;
+        keys[free] = 0;
+        values[free] = 0;
+        return oldValue;
     }
 
     /***
      * Clears this hashtable so that it contains no keys.
      */
     public void clear() {
-        Entry[] tab = table;
-        for (int index = tab.length; --index >= 0;) {
-            tab[index] = null;
-        }
+        Arrays.fill(used, false);
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
         count = 0;
     }
 
@@ -432,45 +418,62 @@ public class IntHashtable implements Cloneable, Serializable {
     public int[] getKeys() {
         int[] res = new int[count];
         int ptr = 0;
-        int index = table.length;
-        Entry entry = null;
-        while (true) {
-            if (entry == null)
-                while (index-- > 0 && (entry = table[index]) == null);
-            if (entry == null)
-                break;
-            Entry e = entry;
-            entry = e.next;
-            res[ptr++] = e.key;
+        for (int i = keys.length; i-- > 0;) {
+            if (used[i]) {
+                res[ptr++] = keys[i];
+            }
         }
         return res;
     }
 
     public int getOneKey() {
-        if (count == 0)
-            return 0;
-        int index = table.length;
-        Entry entry = null;
-        while (index-- > 0 && (entry = table[index]) == null);
-        if (entry == null)
-            return 0;
-        return entry.key;
+        for (int i = keys.length; i-- > 0;) {
+            if (used[i]) {
+                return keys[i];
+            }
+        }
+        return 0;
     }
 
     @Override
     public Object clone() throws CloneNotSupportedException {
-        try {
-            IntHashtable t = new IntHashtable(this);
-            t.table = new Entry[table.length];
-            for (int i = table.length ; i-- > 0 ; ) {
-                t.table[i] = table[i] != null
-                        ? (Entry)table[i].clone() : null;
+        IntHashtable t = (IntHashtable) super.clone();
+        t.keys = (int[]) keys.clone();
+        t.values = (int[]) values.clone();
+        t.used = (boolean[]) used.clone();
+        return t;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
             }
-            return t;
-        } catch (CloneNotSupportedException e) {
-            // this shouldn't happen, since we are Cloneable
-            throw new InternalError();
+            index = (index + 1) & mask;
         }
+        return -1;
     }
-}
 
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+    }
+
+    private static int hash(int key) {
+        // spreads the sequential keys (codes, CIDs, glyph ids) over the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = 2;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,446 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.codec;
+
+import com.itextpdf.io.IOException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+@Category(UnitTest.class)
+public class TIFFFaxDecoderTest extends ExtendedITextTest {
+
+    @Test
+    public void decodeT6Test() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = CCITTG4Encoder.compress(image, width, height);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decodeT6(decoded, compressed, 0, height, 0);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decodeT6ReversedFillOrderTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = CCITTG4Encoder.compress(image, width, height);
+        TIFFFaxDecoder.reverseBits(compressed);
+        byte[] reversedCompressed = compressed.clone();
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(2, width, height).decodeT6(decoded, compressed, 0, height, 0);
+        Assert.assertArrayEquals(image, decoded);
+        // the compressed data of the caller are left intact
+        Assert.assertArrayEquals(reversedCompressed, compressed);
+    }
+
+    @Test
+    public void decode1DTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeRle(height);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decode1D(decoded, compressed, 0, height);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decode1DLongRunsTest() {
+        int width = 2700;
+        int height = 8;
+        byte[] image = createLongRunsImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeRle(height);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decode1D(decoded, compressed, 0, height);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decode2DTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeT4(height, 4, false);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decode2D(decoded, compressed, 0, height,
+                TIFFConstants.GROUP3OPT_2DENCODING);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decode2DFillBitsTest() {
+        int width = 2700;
+        int height = 8;
+        byte[] image = createLongRunsImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeT4(height, 4, true);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decode2D(decoded, compressed, 0, height,
+                TIFFConstants.GROUP3OPT_2DENCODING | TIFFConstants.GROUP3OPT_FILLBITS);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decode2DOneDimensionalScanlinesTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeT4(height, 1, false);
+        TIFFFaxDecoder.reverseBits(compressed);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(2, width, height).decode2D(decoded, compressed, 0, height, 0);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decodeRawTest() {
+        // the decompressor doesn't pad the decoded rows to whole bytes, so the width is a multiple of 8
+        int width = 200;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        Group3Writer writer = new Group3Writer(image, width);
+
+        TIFFFaxDecompressor decompressor = new TIFFFaxDecompressor();
+        byte[] decoded = new byte[image.length];
+        decompressor.SetOptions(1, TIFFConstants.COMPRESSION_CCITTRLE, 0, 0);
+        decompressor.decodeRaw(decoded, writer.writeRle(height), width, height);
+        Assert.assertArrayEquals(image, decoded);
+        Assert.assertEquals(0, decompressor.fails);
+
+        decoded = new byte[image.length];
+        decompressor.SetOptions(1, TIFFConstants.COMPRESSION_CCITTFAX3, TIFFConstants.GROUP3OPT_2DENCODING, 0);
+        decompressor.decodeRaw(decoded, writer.writeT4(height, 4, false), width, height);
+        Assert.assertArrayEquals(image, decoded);
+        Assert.assertEquals(0, decompressor.fails);
+
+        decoded = new byte[image.length];
+        decompressor.SetOptions(1, TIFFConstants.COMPRESSION_CCITTFAX3,
+                TIFFConstants.GROUP3OPT_2DENCODING | TIFFConstants.GROUP3OPT_FILLBITS, 0);
+        // the padding before the first EOL is counted as a failure, the EOL is found anyway
+        decompressor.decodeRaw(decoded, writer.writeT4(height, 4, true), width, height);
+        Assert.assertArrayEquals(image, decoded);
+
+        decoded = new byte[image.length];
+        decompressor.SetOptions(1, TIFFConstants.COMPRESSION_CCITTFAX4, 0, 0);
+        decompressor.decodeRaw(decoded, CCITTG4Encoder.compress(image, width, height), width, height);
+        Assert.assertArrayEquals(image, decoded);
+        Assert.assertEquals(0, decompressor.fails);
+    }
+
+    @Test
+    public void decodeRawReversedFillOrderTest() {
+        int width = 2704;
+        int height = 8;
+        byte[] image = createLongRunsImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeT4(height, 4, false);
+        TIFFFaxDecoder.reverseBits(compressed);
+
+        TIFFFaxDecompressor decompressor = new TIFFFaxDecompressor();
+        byte[] decoded = new byte[image.length];
+        decompressor.SetOptions(2, TIFFConstants.COMPRESSION_CCITTFAX3, TIFFConstants.GROUP3OPT_2DENCODING, 0);
+        decompressor.decodeRaw(decoded, compressed, width, height);
+        Assert.assertArrayEquals(image, decoded);
+    }
+
+    @Test
+    public void decodeRawTruncatedDataTest() {
+        int width = 200;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeRle(height);
+        int stride = (width + 7) / 8;
+        // the RLE scanlines are byte aligned, so that the length of the first rows is known
+        int rows = height / 2;
+        int truncatedLength = new Group3Writer(image, width).writeRle(rows).length;
+        byte[] truncated = Arrays.copyOf(compressed, truncatedLength);
+
+        TIFFFaxDecompressor decompressor = new TIFFFaxDecompressor();
+        byte[] decoded = new byte[image.length];
+        decompressor.SetOptions(1, TIFFConstants.COMPRESSION_CCITTRLE, 0, 0);
+        decompressor.decodeRaw(decoded, truncated, width, height);
+        Assert.assertArrayEquals(Arrays.copyOf(image, rows * stride), Arrays.copyOf(decoded, rows * stride));
+    }
+
+    @Test
+    public void decodeT6TruncatedDataTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = CCITTG4Encoder.compress(image, width, height);
+        int stride = (width + 7) / 8;
+        int rows = height / 2;
+        // the first rows are encoded in the same way whatever follows them
+        int truncatedLength = CCITTG4Encoder.compress(Arrays.copyOf(image, rows * stride), width, rows).length;
+        byte[] truncated = Arrays.copyOf(compressed, truncatedLength);
+
+        byte[] decoded = new byte[image.length];
+        new TIFFFaxDecoder(1, width, height).decodeT6(decoded, truncated, 0, height, 0);
+        Assert.assertArrayEquals(Arrays.copyOf(image, rows * stride), Arrays.copyOf(decoded, rows * stride));
+    }
+
+    @Test
+    public void decode2DTruncatedDataTest() {
+        int width = 203;
+        int height = 64;
+        byte[] image = createImage(width, height);
+        byte[] compressed = new Group3Writer(image, width).writeT4(height, 4, false);
+        int stride = (width + 7) / 8;
+        int rows = 40;
+        // the last byte of the 40th row is cut off
+        int truncatedLength = new Group3Writer(image, width).writeT4(rows, 4, false).length - 1;
+        byte[] truncated = Arrays.copyOf(compressed, truncatedLength);
+
+        TIFFFaxDecoder decoder = new TIFFFaxDecoder(1, width, height);
+        decoder.setRecoverFromImageError(true);
+        byte[] decoded = new byte[image.length];
+        try {
+            decoder.decode2D(decoded, truncated, 0, height, TIFFConstants.GROUP3OPT_2DENCODING);
+            Assert.fail("The truncated data are expected to be reported.");
+        } catch (IOException e) {
+            // the missing data are read as zeros, which make an invalid code instead of an out of bounds read
+            Assert.assertEquals(IOException.InvalidCodeEncounteredWhileDecoding2dGroup3CompressedData,
+                    e.getMessage());
+        }
+        Assert.assertArrayEquals(Arrays.copyOf(image, (rows - 1) * stride), Arrays.copyOf(decoded, (rows - 1) * stride));
+    }
+
+    private static byte[] createLongRunsImage(int width, int height) {
+        int stride = (width + 7) / 8;
+        byte[] image = new byte[stride * height];
+        for (int y = 0; y < height; ++y) {
+            // the runs need the makeup codes, including the extended ones, and the white run at the end is empty
+            int blackStart = 30 + y * 250;
+            int blackEnd = y % 2 == 0 ? width : Math.min(width, blackStart + 1800 + y);
+            for (int x = blackStart; x < blackEnd; ++x) {
+                image[y * stride + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] createImage(int width, int height) {
+        int stride = (width + 7) / 8;
+        byte[] image = new byte[stride * height];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                // the runs of the different lengths start and end both within the bytes and on their boundaries
+                if ((x / (1 + y % 13)) % 2 == 0) {
+                    image[y * stride + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Writes the images with the modified Huffman and the modified READ codes of ITU-T T.4,
+     * the black pixels are the set bits.
+     */
+    private static class Group3Writer {
+        private static final String[] WHITE_CODES = (
+                "00110101 000111 0111 1000 1011 1100 1110 1111 10011 10100 00111 01000 001000 000011 110100 110101 "
+                + "101010 101011 0100111 0001100 0001000 0010111 0000011 0000100 0101000 0101011 0010011 0100100 "
+                + "0011000 00000010 00000011 00011010 00011011 00010010 00010011 00010100 00010101 00010110 00010111 "
+                + "00101000 00101001 00101010 00101011 00101100 00101101 00000100 00000101 00001010 00001011 "
+                + "01010010 01010011 01010100 01010101 00100100 00100101 01011000 01011001 01011010 01011011 "
+                + "01001010 01001011 00110010 00110011 00110100").split(" ");
+        private static final String[] BLACK_CODES = (
+                "0000110111 010 11 10 011 0011 0010 00011 000101 000100 0000100 0000101 0000111 00000100 00000111 "
+                + "000011000 0000010111 0000011000 0000001000 00001100111 00001101000 00001101100 00000110111 "
+                + "00000101000 00000010111 00000011000 000011001010 000011001011 000011001100 000011001101 "
+                + "000001101000 000001101001 000001101010 000001101011 000011010010 000011010011 000011010100 "
+                + "000011010101 000011010110 000011010111 000001101100 000001101101 000011011010 000011011011 "
+                + "000001010100 000001010101 000001010110 000001010111 000001100100 000001100101 000001010010 "
+                + "000001010011 000000100100 000000110111 000000111000 000000100111 000000101000 000001011000 "
+                + "000001011001 000000101011 000000101100 000001011010 000001100110 000001100111").split(" ");
+        private static final String[] WHITE_MAKEUP_CODES = (
+                "11011 10010 010111 0110111 00110110 00110111 01100100 01100101 01101000 01100111 011001100 "
+                + "011001101 011010010 011010011 011010100 011010101 011010110 011010111 011011000 011011001 "
+                + "011011010 011011011 010011000 010011001 010011010 011000 010011011").split(" ");
+        private static final String[] BLACK_MAKEUP_CODES = (
+                "0000001111 000011001000 000011001001 000001011011 000000110011 000000110100 000000110101 "
+                + "0000001101100 0000001101101 0000001001010 0000001001011 0000001001100 0000001001101 "
+                + "0000001110010 0000001110011 0000001110100 0000001110101 0000001110110 0000001110111 "
+                + "0000001010010 0000001010011 0000001010100 0000001010101 0000001011010 0000001011011 "
+                + "0000001100100 0000001100101").split(" ");
+        private static final String[] EXTENDED_MAKEUP_CODES = (
+                "00000001000 00000001100 00000001101 000000010010 000000010011 000000010100 000000010101 "
+                + "000000010110 000000010111 000000011100 000000011101 000000011110 000000011111").split(" ");
+        private static final String EOL = "000000000001";
+        private static final String PASS = "0001";
+        private static final String HORIZONTAL = "001";
+        // the vertical mode codes for a1 - b1 from -3 to 3
+        private static final String[] VERTICAL_CODES = {"0000010", "000010", "010", "1", "011", "000011", "0000011"};
+
+        private final byte[] image;
+        private final int width;
+        private final int stride;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int bits;
+        private int bitCount;
+
+        Group3Writer(byte[] image, int width) {
+            this.image = image;
+            this.width = width;
+            this.stride = (width + 7) / 8;
+        }
+
+        /**
+         * Writes the rows one-dimensionally coded, each row starts on a byte boundary.
+         */
+        byte[] writeRle(int height) {
+            for (int y = 0; y < height; ++y) {
+                writeOneDimensionalRow(y);
+                alignToByte();
+            }
+            return toByteArray();
+        }
+
+        /**
+         * Writes the rows prefixed with EOL codes, every k-th row is one-dimensionally coded
+         * and the others are two-dimensionally coded if k is greater than 1.
+         */
+        byte[] writeT4(int height, int k, boolean fillBits) {
+            for (int y = 0; y < height; ++y) {
+                if (fillBits) {
+                    // the EOL code ends on a byte boundary
+                    while ((bitCount + EOL.length()) % 8 != 0) {
+                        write("0");
+                    }
+                }
+                write(EOL);
+                if (y % k == 0) {
+                    if (k > 1) {
+                        write("1");
+                    }
+                    writeOneDimensionalRow(y);
+                } else {
+                    write("0");
+                    writeTwoDimensionalRow(y);
+                }
+            }
+            return toByteArray();
+        }
+
+        private void writeOneDimensionalRow(int y) {
+            boolean black = false;
+            int x = 0;
+            while (x < width) {
+                int end = findColor(y, x, !black);
+                writeRun(end - x, black);
+                x = end;
+                black = !black;
+            }
+        }
+
+        private void writeTwoDimensionalRow(int y) {
+            int a0 = -1;
+            boolean black = false;
+            while (a0 < width) {
+                int a1 = findColor(y, a0 + 1, !black);
+                int a2 = a1 < width ? findColor(y, a1 + 1, black) : width;
+                int b1 = a0 + 1;
+                while (b1 < width && !(isBlack(y - 1, b1) != black && isBlack(y - 1, b1 - 1) == black)) {
+                    ++b1;
+                }
+                int b2 = b1 < width ? findColor(y - 1, b1 + 1, black) : width;
+                if (b2 < a1) {
+                    write(PASS);
+                    a0 = b2;
+                } else if (Math.abs(a1 - b1) <= 3) {
+                    write(VERTICAL_CODES[a1 - b1 + 3]);
+                    a0 = a1;
+                    black = !black;
+                } else {
+                    write(HORIZONTAL);
+                    writeRun(a1 - Math.max(a0, 0), black);
+                    writeRun(a2 - a1, !black);
+                    a0 = a2;
+                }
+            }
+        }
+
+        private void writeRun(int run, boolean black) {
+            while (run >= 2560 + 64) {
+                write(EXTENDED_MAKEUP_CODES[EXTENDED_MAKEUP_CODES.length - 1]);
+                run -= 2560;
+            }
+            if (run >= 1792) {
+                write(EXTENDED_MAKEUP_CODES[run / 64 - 28]);
+            } else if (run >= 64) {
+                write((black ? BLACK_MAKEUP_CODES : WHITE_MAKEUP_CODES)[run / 64 - 1]);
+            }
+            write((black ? BLACK_CODES : WHITE_CODES)[run % 64]);
+        }
+
+        private int findColor(int y, int x, boolean black) {
+            while (x < width && isBlack(y, x) != black) {
+                ++x;
+            }
+            return x;
+        }
+
+        private boolean isBlack(int y, int x) {
+            // the row above the first one and the pixel before the first one of a row are white
+            return y >= 0 && x >= 0 && (image[y * stride + (x >> 3)] & (0x80 >> (x & 7))) != 0;
+        }
+
+        private void write(String code) {
+            for (int i = 0; i < code.length(); ++i) {
+                bits = (bits << 1) | (code.charAt(i) - '0');
+                if (++bitCount % 8 == 0) {
+                    out.write(bits);
+                    bits = 0;
+                }
+            }
+        }
+
+        private void alignToByte() {
+            while (bitCount % 8 != 0) {
+                write("0");
+            }
+        }
+
+        private byte[] toByteArray() {
+            alignToByte();
+            byte[] result = out.toByteArray();
+            out.reset();
+            bitCount = 0;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.font.constants.FontResources;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.util.ResourceUtil;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class AfmCompilerTest extends ExtendedITextTest {
+
+    private static final String[] STANDARD_FONTS = {
+            StandardFonts.COURIER, StandardFonts.COURIER_BOLD, StandardFonts.COURIER_OBLIQUE,
+            StandardFonts.COURIER_BOLDOBLIQUE, StandardFonts.HELVETICA, StandardFonts.HELVETICA_BOLD,
+            StandardFonts.HELVETICA_OBLIQUE, StandardFonts.HELVETICA_BOLDOBLIQUE, StandardFonts.SYMBOL,
+            StandardFonts.TIMES_ROMAN, StandardFonts.TIMES_BOLD, StandardFonts.TIMES_ITALIC,
+            StandardFonts.TIMES_BOLDITALIC, StandardFonts.ZAPFDINGBATS
+    };
+
+    @Test
+    public void compiledMetricsAreUpToDateTest() throws IOException {
+        for (String fontName : STANDARD_FONTS) {
+            ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+            AfmCompiler.compile(readResource(fontName + ".afm"), compiled);
+            Assert.assertArrayEquals(fontName, readResource(fontName + AfmCompiler.COMPILED_METRICS_EXTENSION),
+                    compiled.toByteArray());
+        }
+    }
+
+    @Test
+    public void standardFontsLoadCompiledMetricsTest() throws IOException {
+        for (String fontName : STANDARD_FONTS) {
+            InputStream compiledMetrics = new Type1Parser(fontName, null, null, null).getCompiledMetrics();
+            // otherwise the font silently falls back to parsing the AFM file
+            Assert.assertNotNull(fontName, compiledMetrics);
+            compiledMetrics.close();
+
+            Type1Font compiled = (Type1Font) FontProgramFactory.createFont(fontName, false);
+            Type1Font parsed = new Type1Font(null, null, readResource(fontName + ".afm"), null);
+
+            Assert.assertTrue(compiled.isBuiltInFont());
+            assertFontsEqual(parsed, compiled);
+        }
+    }
+
+    @Test
+    public void kerningTest() throws IOException {
+        FontProgram font = FontProgramFactory.createFont(StandardFonts.HELVETICA, false);
+        Assert.assertTrue(font.hasKernPairs());
+        Assert.assertEquals(-70, font.getKerning('A', 'V'));
+        Assert.assertEquals(0, font.getKerning('A', 'B'));
+        Assert.assertEquals(278, font.getGlyph(' ').getWidth());
+        Assert.assertEquals(278, font.getGlyph(' ').getWidth());
+    }
+
+    @Test(expected = com.itextpdf.io.IOException.class)
+    public void invalidCompiledMetricsTest() throws IOException {
+        AfmCompiler.load(new ByteArrayInputStream(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}), new Type1Font(StandardFonts.HELVETICA));
+    }
+
+    private static void assertFontsEqual(Type1Font expected, Type1Font actual) {
+        String fontName = expected.getFontNames().getFontName();
+        Assert.assertEquals(fontName, actual.getFontNames().getFontName());
+        Assert.assertArrayEquals(expected.getFontNames().getFullName()[0], actual.getFontNames().getFullName()[0]);
+        Assert.assertArrayEquals(expected.getFontNames().getFamilyName()[0], actual.getFontNames().getFamilyName()[0]);
+        Assert.assertEquals(expected.getFontNames().getFontWeight(), actual.getFontNames().getFontWeight());
+        Assert.assertEquals(expected.getPdfFontFlags(), actual.getPdfFontFlags());
+        Assert.assertEquals(expected.getCharacterSet(), actual.getCharacterSet());
+        Assert.assertEquals(expected.encodingScheme, actual.encodingScheme);
+        Assert.assertEquals(expected.getAvgWidth(), actual.getAvgWidth());
+
+        FontMetrics expectedMetrics = expected.getFontMetrics();
+        FontMetrics actualMetrics = actual.getFontMetrics();
+        Assert.assertArrayEquals(expectedMetrics.getBbox(), actualMetrics.getBbox());
+        Assert.assertEquals(expectedMetrics.getItalicAngle(), actualMetrics.getItalicAngle(), 0);
+        Assert.assertEquals(expectedMetrics.getCapHeight(), actualMetrics.getCapHeight());
+        Assert.assertEquals(expectedMetrics.getXHeight(), actualMetrics.getXHeight());
+        Assert.assertEquals(expectedMetrics.getTypoAscender(), actualMetrics.getTypoAscender());
+        Assert.assertEquals(expectedMetrics.getTypoDescender(), actualMetrics.getTypoDescender());
+        Assert.assertEquals(expectedMetrics.getStemV(), actualMetrics.getStemV());
+        Assert.assertEquals(expectedMetrics.getStemH(), actualMetrics.getStemH());
+        Assert.assertEquals(expectedMetrics.getUnderlinePosition(), actualMetrics.getUnderlinePosition());
+        Assert.assertEquals(expectedMetrics.getUnderlineThickness(), actualMetrics.getUnderlineThickness());
+
+        assertGlyphsEqual(fontName, expected.codeToGlyph, actual.codeToGlyph);
+        assertGlyphsEqual(fontName, expected.unicodeToGlyph, actual.unicodeToGlyph);
+        Assert.assertEquals(fontName, expected.getKernPairs(), actual.getKernPairs());
+    }
+
+    private static void assertGlyphsEqual(String fontName, Map<Integer, Glyph> expected, Map<Integer, Glyph> actual) {
+        Assert.assertEquals(fontName, expected.keySet(), actual.keySet());
+        for (Map.Entry<Integer, Glyph> entry : expected.entrySet()) {
+            Glyph expectedGlyph = entry.getValue();
+            Glyph actualGlyph = actual.get(entry.getKey());
+            Assert.assertEquals(fontName, expectedGlyph, actualGlyph);
+            Assert.assertEquals(fontName, expectedGlyph.getWidth(), actualGlyph.getWidth());
+            Assert.assertTrue(fontName, Arrays.equals(expectedGlyph.getBbox(), actualGlyph.getBbox()));
+        }
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        InputStream stream = ResourceUtil.getResourceStream(FontResources.AFMS + name);
+        Assert.assertNotNull(name, stream);
+        try {
+            return StreamUtil.inputStreamToArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class FontSubsetCacheTest extends ExtendedITextTest {
+
+    private static final String FREE_SANS = "./src/test/resources/com/itextpdf/io/font/otf/FreeSans.ttf";
+
+    @Before
+    public void before() {
+        FontSubsetCache.clear();
+    }
+
+    @After
+    public void after() {
+        FontSubsetCache.setMaxSize(FontSubsetCache.DEFAULT_MAX_SIZE);
+        FontSubsetCache.clear();
+    }
+
+    @Test
+    public void repeatedGlyphSetIsSubsetOnceTest() throws IOException {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        byte[] first = font.getSubset(new TreeSet<>(Arrays.asList(36, 37, 38)), true);
+        // the order of the glyphs doesn't matter
+        byte[] second = font.getSubset(new HashSet<>(Arrays.asList(38, 37, 36)), true);
+
+        Assert.assertEquals(1, FontSubsetCache.getMissCount());
+        Assert.assertEquals(1, FontSubsetCache.getHitCount());
+        Assert.assertArrayEquals(first, second);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.length, FontSubsetCache.getSize());
+    }
+
+    @Test
+    public void differentSubsetsAreCachedSeparatelyTest() throws IOException {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        TrueTypeFont otherFont = new TrueTypeFont(readFont());
+        Set<Integer> glyphs = new TreeSet<>(Arrays.asList(36, 37));
+
+        font.getSubset(glyphs, true);
+        font.getSubset(glyphs, false);
+        font.getSubset(new TreeSet<>(Arrays.asList(36, 37, 38)), true);
+        otherFont.getSubset(glyphs, true);
+
+        Assert.assertEquals(4, FontSubsetCache.getMissCount());
+        Assert.assertEquals(0, FontSubsetCache.getHitCount());
+    }
+
+    @Test
+    public void sizeLimitTest() throws IOException {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        byte[] subset = font.getSubset(new TreeSet<>(Arrays.asList(36)), true);
+        FontSubsetCache.setMaxSize(subset.length);
+        font.getSubset(new TreeSet<>(Arrays.asList(37)), true);
+        Assert.assertTrue(FontSubsetCache.getSize() <= subset.length);
+
+        FontSubsetCache.setMaxSize(0);
+        Assert.assertEquals(0, FontSubsetCache.getSize());
+        font.getSubset(new TreeSet<>(Arrays.asList(36)), true);
+        font.getSubset(new TreeSet<>(Arrays.asList(36)), true);
+        Assert.assertEquals(0, FontSubsetCache.getHitCount());
+    }
+
+    @Test
+    public void cachedSubsetDoesNotKeepFontProgramAliveTest() throws IOException, InterruptedException {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        font.getSubset(new TreeSet<>(Arrays.asList(36, 37, 38)), true);
+        Assert.assertTrue(FontSubsetCache.getSize() > 0);
+
+        WeakReference<TrueTypeFont> fontReference = new WeakReference<>(font);
+        font = null;
+        for (int i = 0; i < 100 && fontReference.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(fontReference.get());
+        // the subsets of the collected font program are dropped
+        Assert.assertEquals(0, FontSubsetCache.getSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaxSizeTest() {
+        FontSubsetCache.setMaxSize(-1);
+    }
+
+    private static byte[] readFont() throws IOException {
+        return StreamUtil.inputStreamToArray(new FileInputStream(FREE_SANS));
+    }
+}
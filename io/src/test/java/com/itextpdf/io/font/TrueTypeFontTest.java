@@ -0,0 +1,106 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.font.otf.GlyphPositioningTableReader;
+import com.itextpdf.io.font.otf.GlyphSubstitutionTableReader;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class TrueTypeFontTest extends ExtendedITextTest {
+
+    private static final String FREE_SANS = "./src/test/resources/com/itextpdf/io/font/otf/FreeSans.ttf";
+
+    @Test
+    public void layoutTablesAreReadOnDemandTest() throws Exception {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        Assert.assertNull(getField(font, "gsubTable"));
+        Assert.assertNull(getField(font, "gposTable"));
+        Assert.assertNull(getField(font, "gdefTable"));
+
+        GlyphSubstitutionTableReader gsub = font.getGsubTable();
+        Assert.assertNotNull(gsub);
+        Assert.assertNotNull(font.getGdefTable());
+        Assert.assertSame(gsub, font.getGsubTable());
+        Assert.assertFalse(gsub.getFeatureRecords().isEmpty());
+    }
+
+    @Test
+    public void layoutTablesAreAvailableAfterCloseTest() throws IOException {
+        TrueTypeFont font = new TrueTypeFont(readFont());
+        font.close();
+        Assert.assertNotNull(font.getGposTable());
+        Assert.assertNotNull(font.getGsubTable());
+    }
+
+    @Test
+    public void concurrentLayoutTablesAccessTest() throws Exception {
+        final TrueTypeFont font = new TrueTypeFont(readFont());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<GlyphPositioningTableReader>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(new Callable<GlyphPositioningTableReader>() {
+                    @Override
+                    public GlyphPositioningTableReader call() {
+                        return font.getGposTable();
+                    }
+                });
+            }
+            List<Future<GlyphPositioningTableReader>> results = executor.invokeAll(tasks);
+            GlyphPositioningTableReader expected = font.getGposTable();
+            Assert.assertNotNull(expected);
+            // the table is read once and shared
+            for (Future<GlyphPositioningTableReader> result : results) {
+                Assert.assertSame(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] readFont() throws IOException {
+        return StreamUtil.inputStreamToArray(new FileInputStream(FREE_SANS));
+    }
+
+    private static Object getField(TrueTypeFont font, String name) throws Exception {
+        Field field = TrueTypeFont.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(font);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class WebFontCacheTest extends ExtendedITextTest {
+
+    private static final String SOURCE_FOLDER = "./src/test/resources/com/itextpdf/io/font/WebFontCacheTest/";
+    private static final String DESTINATION_FOLDER = "./target/test/com/itextpdf/io/font/WebFontCacheTest/";
+    private static final String WOFF2_FONT = "./src/test/resources/com/itextpdf/io/font/woff2/w3c/format/valid-001.woff2";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(DESTINATION_FOLDER);
+    }
+
+    @Before
+    public void before() {
+        WebFontCache.clear();
+    }
+
+    @After
+    public void after() {
+        WebFontCache.setDiskCacheDirectory(null);
+        WebFontCache.setDecodingExecutor(null);
+        WebFontCache.clear();
+    }
+
+    @Test
+    public void woffFontIsDecodedOnceTest() throws IOException {
+        byte[] woff = readFile(SOURCE_FOLDER + "Amaranth-Regular.woff");
+        FontProgram first = FontProgramFactory.createFont(woff, false);
+        FontProgram second = FontProgramFactory.createFont(woff, false);
+
+        Assert.assertEquals(1, WebFontCache.getMissCount());
+        Assert.assertEquals(1, WebFontCache.getHitCount());
+        Assert.assertEquals(first.getFontNames().getFontName(), second.getFontNames().getFontName());
+    }
+
+    @Test
+    public void woff2FontIsDecodedOnceTest() throws IOException {
+        byte[] woff2 = readFile(WOFF2_FONT);
+        byte[] first = WebFontCache.convertWoff2(woff2);
+        byte[] second = WebFontCache.convertWoff2(woff2);
+
+        Assert.assertEquals(1, WebFontCache.getMissCount());
+        Assert.assertEquals(1, WebFontCache.getHitCount());
+        Assert.assertArrayEquals(first, second);
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test
+    public void concurrentWoffDecodingTest() throws IOException, InterruptedException {
+        byte[] woff = readFile(SOURCE_FOLDER + "Amaranth-Regular.woff");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertArrayEquals(WoffConverter.convert(woff), WoffConverter.convert(woff, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void diskCacheTest() throws IOException {
+        String directory = DESTINATION_FOLDER + "diskCache";
+        new File(directory).mkdirs();
+        WebFontCache.setDiskCacheDirectory(directory);
+        byte[] woff = readFile(SOURCE_FOLDER + "Amaranth-Regular.woff");
+
+        byte[] decoded = WebFontCache.convertWoff(woff);
+        Assert.assertEquals(1, new File(directory).listFiles().length);
+
+        // the memory is cleared, but the disk cache survives
+        WebFontCache.clear();
+        Assert.assertArrayEquals(decoded, WebFontCache.convertWoff(woff));
+        Assert.assertEquals(1, WebFontCache.getHitCount());
+        Assert.assertEquals(0, WebFontCache.getMissCount());
+    }
+
+    @Test
+    public void disabledMemoryCacheTest() throws IOException {
+        WebFontCache.setMaxSize(0);
+        try {
+            byte[] woff = readFile(SOURCE_FOLDER + "Amaranth-Regular.woff");
+            WebFontCache.convertWoff(woff);
+            WebFontCache.convertWoff(woff);
+            Assert.assertEquals(2, WebFontCache.getMissCount());
+        } finally {
+            WebFontCache.setMaxSize(WebFontCache.DEFAULT_MAX_SIZE);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.cmap;
+
+import com.itextpdf.io.IOException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+@Category(UnitTest.class)
+public class CMapCompilerTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    private static final String CMAP = "%!PS-Adobe-3.0 Resource-CMap\n"
+            + "/CIDInit /ProcSet findresource begin\n"
+            + "12 dict begin\n"
+            + "begincmap\n"
+            + "/CIDSystemInfo 3 dict dup begin\n"
+            + "  /Registry (Adobe) def\n"
+            + "  /Ordering (Japan1) def\n"
+            + "  /Supplement 6 def\n"
+            + "end def\n"
+            + "/CMapName /Test-H def\n"
+            + "2 begincodespacerange\n"
+            + "<00> <80>\n"
+            + "<8140> <9ffc>\n"
+            + "endcodespacerange\n"
+            + "2 begincidrange\n"
+            + "<20> <7e> 231\n"
+            + "<8140> <817e> 633\n"
+            + "endcidrange\n"
+            + "1 begincidchar\n"
+            + "<5c> 97\n"
+            + "endcidchar\n"
+            + "endcmap\n"
+            + "CMapName currentdict /CMap defineresource pop\n"
+            + "end\n"
+            + "end\n";
+
+    @Test
+    public void compiledCMapEqualsParsedOneTest() throws java.io.IOException {
+        byte[] compiled = compile();
+
+        CMapByteCid parsed = new CMapByteCid();
+        CMapParser.parseCid("Test-H", parsed, new CMapLocationFromBytes(CMAP.getBytes(StandardCharsets.ISO_8859_1)));
+        CMapByteCid loaded = CMapCompiler.load(new ByteArrayInputStream(compiled), new CMapByteCid());
+
+        Assert.assertEquals("Test-H", loaded.getName());
+        Assert.assertEquals("Adobe", loaded.getRegistry());
+        Assert.assertEquals("Japan1", loaded.getOrdering());
+        Assert.assertEquals(6, loaded.getSupplement());
+        byte[] codes = {0x41, 0x5c, (byte) 0x81, 0x41, 0x7e};
+        Assert.assertEquals(parsed.decodeSequence(codes, 0, codes.length), loaded.decodeSequence(codes, 0, codes.length));
+        Assert.assertEquals(new String(new char[] {(char) 264, (char) 97, (char) 634, (char) 325}),
+                loaded.decodeSequence(codes, 0, codes.length));
+    }
+
+    @Test
+    public void codeSpaceRangesTest() throws java.io.IOException {
+        CMapCidByte loaded = CMapCompiler.load(new ByteArrayInputStream(compile()), new CMapCidByte());
+
+        Assert.assertEquals(4, loaded.getCodeSpaceRanges().size());
+        Assert.assertArrayEquals(new byte[] {(byte) 0x81, 0x40}, loaded.getCodeSpaceRanges().get(2));
+        Assert.assertArrayEquals(new byte[] {(byte) 0x81, 0x41}, loaded.lookup(634));
+    }
+
+    @Test
+    public void compiledCMapIsSmallerTest() throws java.io.IOException {
+        Assert.assertTrue(compile().length < CMAP.length() / 2);
+    }
+
+    @Test
+    public void invalidCompiledCMapTest() throws java.io.IOException {
+        junitExpectedException.expect(IOException.class);
+        junitExpectedException.expectMessage(IOException.InvalidCompiledCMap);
+
+        CMapCompiler.load(new ByteArrayInputStream(CMAP.getBytes(StandardCharsets.ISO_8859_1)), new CMapCidUni());
+    }
+
+    @Test
+    public void unsupportedCompiledCMapVersionTest() throws java.io.IOException {
+        junitExpectedException.expect(IOException.class);
+        junitExpectedException.expectMessage(IOException.UnsupportedCompiledCMapVersion);
+
+        byte[] compiled = compile();
+        // the version follows the four bytes of the magic number
+        compiled[7]++;
+        CMapCompiler.load(new ByteArrayInputStream(compiled), new CMapCidUni());
+    }
+
+    private static byte[] compile() throws java.io.IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CMapCompiler.compile("Test-H", new CMapLocationFromBytes(CMAP.getBytes(StandardCharsets.ISO_8859_1)), out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.cmap;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class CMapToUnicodeTest extends ExtendedITextTest {
+
+    private static final String TO_UNICODE = "/CIDInit /ProcSet findresource begin\n"
+            + "12 dict begin\n"
+            + "begincmap\n"
+            + "/CMapName /Adobe-Identity-UCS def\n"
+            + "1 begincodespacerange\n"
+            + "<0000> <FFFF>\n"
+            + "endcodespacerange\n"
+            + "3 beginbfrange\n"
+            + "<0003> <0060> <0020>\n"
+            + "<0100> <0102> <FFFE>\n"
+            + "<0200> <0201> [<0041> <00660069>]\n"
+            + "endbfrange\n"
+            + "2 beginbfchar\n"
+            + "<0024> <0391>\n"
+            + "<0030> <00660066>\n"
+            + "endbfchar\n"
+            + "endcmap\n"
+            + "CMapName currentdict /CMap defineresource pop\n"
+            + "end\n"
+            + "end\n";
+
+    @Test
+    public void rangesAndCharsTest() throws java.io.IOException {
+        CMapToUnicode toUnicode = parse();
+
+        Assert.assertArrayEquals(new char[] {'B'}, toUnicode.lookup(0x25));
+        Assert.assertArrayEquals(new char[] {' '}, toUnicode.lookup(3));
+        Assert.assertArrayEquals(new char[] {'Α'}, toUnicode.lookup(0x24));
+        Assert.assertArrayEquals(new char[] {'f', 'f'}, toUnicode.lookup(0x30));
+        Assert.assertArrayEquals(new char[] {'}'}, toUnicode.lookup(0x60));
+        Assert.assertArrayEquals(new char[] {'A'}, toUnicode.lookup(0x200));
+        Assert.assertArrayEquals(new char[] {'f', 'i'}, toUnicode.lookup(0x201));
+        Assert.assertArrayEquals(new char[] {'Α'}, toUnicode.lookup(new byte[] {0, 0x24}));
+        Assert.assertNull(toUnicode.lookup(0x61));
+        Assert.assertTrue(toUnicode.hasByteMappings());
+    }
+
+    @Test
+    public void overflowingRangeIsExpandedTest() throws java.io.IOException {
+        CMapToUnicode toUnicode = parse();
+
+        Assert.assertArrayEquals(new char[] {'￾'}, toUnicode.lookup(0x100));
+        Assert.assertArrayEquals(new char[] {'￿'}, toUnicode.lookup(0x101));
+        // the destination is incremented within its two bytes, so that it wraps around
+        Assert.assertArrayEquals(new char[] {'\u0000'}, toUnicode.lookup(0x102));
+    }
+
+    @Test
+    public void codesAndMappingsTest() throws java.io.IOException {
+        CMapToUnicode toUnicode = parse();
+
+        Assert.assertEquals(0x60 - 3 + 1 + 3 + 2, toUnicode.getCodes().size());
+        Assert.assertEquals(0x391, toUnicode.createDirectMapping().get(0x24));
+        Assert.assertFalse(toUnicode.createDirectMapping().containsKey(0x30));
+        Assert.assertEquals(0x24, (int) toUnicode.createReverseMapping().get(0x391));
+    }
+
+    @Test
+    public void codesViewTest() throws java.io.IOException {
+        CMapToUnicode toUnicode = parse();
+
+        Set<Integer> codes = toUnicode.getCodes();
+        Assert.assertSame(codes, toUnicode.getCodes());
+        Assert.assertTrue(codes.contains(0x25));
+        Assert.assertTrue(codes.contains(0x30));
+        Assert.assertFalse(codes.contains(0x61));
+        int count = 0;
+        for (int code : codes) {
+            Assert.assertNotNull(toUnicode.lookup(code));
+            count++;
+        }
+        Assert.assertEquals(codes.size(), count);
+        // the same single character is looked up without new arrays
+        Assert.assertSame(toUnicode.lookup(0x25), toUnicode.lookup(0x25));
+    }
+
+    @Test
+    public void codesAreOrderedTest() throws java.io.IOException {
+        int previous = -1;
+        for (int code : parse().getCodes()) {
+            Assert.assertTrue(code > previous);
+            previous = code;
+        }
+        Assert.assertEquals(0x201, previous);
+    }
+
+    @Test
+    public void lookupArraysAreNotSharedBetweenCMapsTest() throws java.io.IOException {
+        CMapToUnicode toUnicode = parse();
+        // a caller modifying the array it has got affects neither the other CMaps nor the other documents
+        toUnicode.lookup(0x25)[0] = 'X';
+
+        Assert.assertArrayEquals(new char[] {'B'}, parse().lookup(0x25));
+        Assert.assertArrayEquals(new char[] {'B'}, CMapToUnicode.getIdentity().lookup(0x42));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void codesViewIsUnmodifiableTest() throws java.io.IOException {
+        parse().getCodes().remove(0x25);
+    }
+
+    @Test
+    public void identityTest() {
+        CMapToUnicode identity = CMapToUnicode.getIdentity();
+
+        Assert.assertArrayEquals(new char[] {'一'}, identity.lookup(0x4e00));
+        Assert.assertEquals(65537, identity.getCodes().size());
+    }
+
+    private static CMapToUnicode parse() throws java.io.IOException {
+        CMapToUnicode toUnicode = new CMapToUnicode();
+        CMapParser.parseCid("", toUnicode, new CMapLocationFromBytes(TO_UNICODE.getBytes(StandardCharsets.ISO_8859_1)));
+        return toUnicode;
+    }
+}
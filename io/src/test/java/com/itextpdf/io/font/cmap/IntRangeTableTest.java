@@ -0,0 +1,118 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.cmap;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class IntRangeTableTest extends ExtendedITextTest {
+
+    @Test
+    public void consecutiveMappingsAreMergedTest() {
+        IntRangeTable table = new IntRangeTable();
+        for (int i = 0; i < 65536; i++) {
+            table.put(i, i, i);
+        }
+        table.put(70000, 70010, 5);
+
+        Assert.assertEquals(2, table.getRangeCount());
+        Assert.assertEquals(0x4e00, table.get(0x4e00, -1));
+        Assert.assertEquals(8, table.get(70003, -1));
+        Assert.assertEquals(-1, table.get(65536, -1));
+        Assert.assertEquals(-1, table.get(-1, -1));
+        Assert.assertEquals(65536 + 11, table.getKeys().length);
+    }
+
+    @Test
+    public void laterMappingOverridesEarlierOneTest() {
+        IntRangeTable table = new IntRangeTable();
+        table.put(0x20, 0x7e, 0x20);
+        table.put(0x41, 0x41, 0x391);
+        table.put(0x60, 0x90, 0x3000);
+
+        Assert.assertEquals(0x40, table.get(0x40, -1));
+        Assert.assertEquals(0x391, table.get(0x41, -1));
+        Assert.assertEquals(0x42, table.get(0x42, -1));
+        Assert.assertEquals(0x5f, table.get(0x5f, -1));
+        Assert.assertEquals(0x3001, table.get(0x61, -1));
+        Assert.assertEquals(0x3030, table.get(0x90, -1));
+
+        table.remove(0x30, 0x39);
+        Assert.assertEquals(-1, table.get(0x35, -1));
+        Assert.assertEquals(0x2f, table.get(0x2f, -1));
+        Assert.assertEquals(0x3a, table.get(0x3a, -1));
+    }
+
+    @Test
+    public void randomMappingsTest() {
+        Random random = new Random(42);
+        IntRangeTable table = new IntRangeTable();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(70000);
+            int end = start + random.nextInt(i % 10 == 0 ? 300 : 3);
+            int value = random.nextInt(60000);
+            if (random.nextInt(8) == 0) {
+                table.remove(start, end);
+                for (int code = start; code <= end; code++) {
+                    expected.remove(code);
+                }
+            } else {
+                table.put(start, end, value);
+                for (int code = start; code <= end; code++) {
+                    expected.put(code, value + code - start);
+                }
+            }
+            if (i % 500 == 0) {
+                // lookups in between the modifications
+                assertSameMapping(expected, table);
+            }
+        }
+        assertSameMapping(expected, table);
+    }
+
+    private static void assertSameMapping(Map<Integer, Integer> expected, IntRangeTable table) {
+        for (int code = -1; code < 70400; code++) {
+            Integer value = expected.get(code);
+            Assert.assertEquals(value == null ? -1 : (int) value, table.get(code, -1));
+        }
+        int[] keys = table.getKeys();
+        Assert.assertEquals(expected.size(), keys.length);
+        int[] expectedKeys = new int[expected.size()];
+        int i = 0;
+        for (int key : expected.keySet()) {
+            expectedKeys[i++] = key;
+        }
+        Arrays.sort(expectedKeys);
+        Assert.assertArrayEquals(expectedKeys, keys);
+    }
+}
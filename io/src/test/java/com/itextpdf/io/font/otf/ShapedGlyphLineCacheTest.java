@@ -0,0 +1,140 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.font.otf;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ShapedGlyphLineCacheTest extends ExtendedITextTest {
+
+    private static final Glyph F = new Glyph(1, 500, 'f');
+    private static final Glyph I = new Glyph(2, 250, 'i');
+    private static final Glyph X = new Glyph(3, 500, 'x');
+    private static final Glyph FI = new Glyph(4, 700, 0xFB01);
+
+    @Test
+    public void cachedSubstitutionIsAppliedToRangeTest() {
+        ShapedGlyphLineCache cache = new ShapedGlyphLineCache();
+
+        GlyphLine line = createLine(X, F, I, X);
+        line.start = 1;
+        line.end = 3;
+        Object key = cache.createKey(line, "liga");
+        Assert.assertFalse(cache.apply(key, line));
+        ligate(line);
+        cache.put(key, line);
+
+        GlyphLine other = createLine(F, I, X, X, X);
+        other.start = 0;
+        other.end = 2;
+        Assert.assertTrue(cache.apply(cache.createKey(other, "liga"), other));
+
+        Assert.assertEquals(1, other.end);
+        Assert.assertEquals(4, other.size());
+        Assert.assertEquals(FI, other.get(0));
+        Assert.assertEquals("fi", other.toUnicodeString(0, 1));
+        Assert.assertEquals(X, other.get(1));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void shapingParametersAreComparedTest() {
+        ShapedGlyphLineCache cache = new ShapedGlyphLineCache();
+        GlyphLine line = createLine(F, I);
+        Object key = cache.createKey(line, "liga");
+        ligate(line);
+        cache.put(key, line);
+
+        Assert.assertFalse(cache.apply(cache.createKey(createLine(F, I), "kern"), createLine(F, I)));
+        Assert.assertFalse(cache.apply(cache.createKey(createLine(F, X), "liga"), createLine(F, X)));
+    }
+
+    @Test
+    public void positioningIsComparedTest() {
+        ShapedGlyphLineCache cache = new ShapedGlyphLineCache();
+        GlyphLine line = createLine(F, I);
+        Object key = cache.createKey(line, null);
+        line.get(0).setXAdvance((short) -20);
+        cache.put(key, line);
+
+        GlyphLine kerned = createLine(F, I);
+        kerned.get(0).setXAdvance((short) -20);
+        Assert.assertFalse(cache.apply(cache.createKey(kerned, null), kerned));
+
+        GlyphLine plain = createLine(F, I);
+        Assert.assertTrue(cache.apply(cache.createKey(plain, null), plain));
+        Assert.assertEquals(-20, plain.get(0).getXAdvance());
+
+        // glyphs are not shared with the cache
+        plain.get(0).setXAdvance((short) 0);
+        GlyphLine another = createLine(F, I);
+        Assert.assertTrue(cache.apply(cache.createKey(another, null), another));
+        Assert.assertEquals(-20, another.get(0).getXAdvance());
+    }
+
+    @Test
+    public void capacityTest() {
+        ShapedGlyphLineCache cache = new ShapedGlyphLineCache(1);
+        GlyphLine first = createLine(F);
+        cache.put(cache.createKey(first, null), first);
+        GlyphLine second = createLine(I);
+        cache.put(cache.createKey(second, null), second);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertFalse(cache.apply(cache.createKey(createLine(F), null), createLine(F)));
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityTest() {
+        new ShapedGlyphLineCache(0);
+    }
+
+    private static GlyphLine createLine(Glyph... glyphs) {
+        GlyphLine line = new GlyphLine(new ArrayList<Glyph>());
+        for (Glyph glyph : glyphs) {
+            line.add(new Glyph(glyph));
+        }
+        line.end = line.size();
+        return line;
+    }
+
+    private static void ligate(GlyphLine line) {
+        line.glyphs.subList(line.start, line.end).clear();
+        line.glyphs.add(line.start, new Glyph(FI));
+        line.actualText = new ArrayList<>(Arrays.asList(new GlyphLine.ActualText[line.glyphs.size()]));
+        line.setActualText(line.start, line.start + 1, "fi");
+        line.end = line.start + 1;
+    }
+}
@@ -87,4 +87,15 @@ public class BmpTest extends ExtendedITextTest {
             Assert.assertEquals(1, img.getBpc());
         }
     }
+
+    @Test
+    public void openBmp16BitBitfields() throws IOException {
+        ImageData img = ImageDataFactory.create(sourceFolder + "rgb565.bmp");
+        Assert.assertEquals(3, img.getWidth(), 0);
+        Assert.assertEquals(2, img.getHeight(), 0);
+        Assert.assertEquals(8, img.getBpc());
+        // 5 and 6-bit channels are scaled to 8 bits, the rows are stored top-down
+        Assert.assertArrayEquals(new byte[] {(byte) 0xF8, 0, 0, 0, (byte) 0xFC, 0, 0, 0, (byte) 0xF8,
+                (byte) 0xF8, (byte) 0xFC, (byte) 0xF8, 0, 0, 0, (byte) 0x80, (byte) 0x80, (byte) 0x80}, img.getData());
+    }
 }
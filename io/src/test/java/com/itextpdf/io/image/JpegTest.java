@@ -42,9 +42,12 @@
  */
 package com.itextpdf.io.image;
 
+import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.UnitTest;
 
 import java.io.FileInputStream;
@@ -112,4 +115,16 @@ public class JpegTest extends ExtendedITextTest {
         Assert.assertEquals(1456, img.getHeight(), 0);
         Assert.assertEquals(8, img.getBpc());
     }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.IMAGE_IS_STREAMED))
+    public void openStreamedJpeg() throws IOException {
+        ImageData img = ImageDataFactory.createJpeg(UrlUtil.toURL(sourceFolder + "WP_20140410_001.jpg"), true);
+        Assert.assertTrue(img.isDataStreamed());
+        Assert.assertNull(img.getData());
+        Assert.assertEquals(2592, img.getWidth(), 0);
+        Assert.assertEquals(1456, img.getHeight(), 0);
+        Assert.assertEquals(8, img.getBpc());
+        Assert.assertFalse(img.canImageBeInline());
+    }
 }
@@ -22,6 +22,7 @@
  */
 package com.itextpdf.io.image;
 
+import com.itextpdf.io.util.FilterUtil;
 import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.test.ExtendedITextTest;
@@ -74,6 +75,17 @@ public class PngTest extends ExtendedITextTest {
         Assert.assertEquals(8, img.getImageMask().getBpc());
     }
 
+    @Test
+    public void graya8BpcDecodedDataAreDeflatedTest() throws IOException {
+        ImageData img = ImageDataFactory.create(sourceFolder + "graya8Bpc.png");
+        // the color and alpha samples are split row by row straight into the compressed streams
+        Assert.assertTrue(img.isDeflated());
+        Assert.assertNull(img.getDecodeParms());
+        Assert.assertEquals(100 * 100, FilterUtil.flateDecode(img.getData()).length);
+        Assert.assertTrue(img.getImageMask().isDeflated());
+        Assert.assertEquals(100 * 100, FilterUtil.flateDecode(img.getImageMask().getData()).length);
+    }
+
     @Test
     public void graya8BpcDepthWithoutEmbeddedProfileImageTest() throws IOException {
         ImageData img = ImageDataFactory.create(sourceFolder + "graya8BpcWithoutProfile.png");
@@ -121,6 +133,17 @@ public class PngTest extends ExtendedITextTest {
         Assert.assertEquals(2, ((PngImageData)img).getColorType());
     }
 
+    @Test
+    public void rgb16BpcRowsAreReducedTo8BpcTest() throws IOException {
+        ImageData img = ImageDataFactory.create(sourceFolder + "rgb16BpcRows.png");
+        Assert.assertEquals(2, img.getWidth(), 0);
+        Assert.assertEquals(2, img.getHeight(), 0);
+        Assert.assertEquals(8, img.getBpc());
+        // only the high bytes of the samples are kept
+        Assert.assertArrayEquals(new byte[] {0x12, 0x56, (byte) 0x9A, (byte) 0xFF, 0x00, (byte) 0x80,
+                0x01, 0x03, 0x05, (byte) 0xFE, (byte) 0xBA, 0x76}, img.getData());
+    }
+
     @Test
     public void rgbWithoutSaveColorProfileImageTest() throws IOException {
         ImageData img = ImageDataFactory.create(sourceFolder + "rgbWithoutSaveColorProfile.png");
@@ -244,6 +267,24 @@ public class PngTest extends ExtendedITextTest {
                 .get(PngImageHelperConstants.MASK))[1]);
     }
 
+    @Test
+    public void indexedAdjacentTransparentEntriesImageTest() throws IOException {
+        // the image data are split into several IDAT chunks, palette entries 0 and 1 are fully transparent
+        ImageData img = ImageDataFactory.create(sourceFolder + "indexedAdjacentTransparentEntries.png");
+        Assert.assertEquals(ImageType.PNG, img.getOriginalType());
+        Assert.assertEquals(256, img.getWidth(), 0);
+        Assert.assertEquals(256, img.getHeight(), 0);
+        Assert.assertEquals(8, img.getBpc());
+        Assert.assertEquals(1, img.getColorSpace());
+        Assert.assertEquals(3, ((PngImageData)img).getColorType());
+        // the image data are embedded as is and the transparency is kept by a color key mask
+        Assert.assertTrue(img.isDeflated());
+        Assert.assertEquals(15, img.getDecodeParms().get("Predictor"));
+        Assert.assertNull(img.getImageMask());
+        Assert.assertArrayEquals(new int[] {0, 1}, (int[])img.getImageAttributes()
+                .get(PngImageHelperConstants.MASK));
+    }
+
     @Test
     public void size50Px30DpiImageTest() throws IOException {
         ImageData img = ImageDataFactory.create(sourceFolder + "size50Px30Dpi.png");
@@ -54,6 +54,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -122,4 +125,37 @@ public class TiffTest extends ExtendedITextTest {
         String[] stringArray = new String[] {"iText? 7.1.7-SNAPSHOT ?2000-2019 iText Group NV (AGPL-version)\u0000"};
         Assert.assertArrayEquals(stringArray, dir.getField(305).getAsStrings());
     }
+
+    @Test
+    public void createTiffPagesTest() throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(sourceFolder, "multipage.tif"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<ImageData> pages = ImageDataFactory.createTiffPages(bytes, false, false, executor);
+            Assert.assertEquals(TiffImageData.getNumberOfPages(bytes), pages.size());
+            for (int i = 0; i < pages.size(); ++i) {
+                ImageData expected = ImageDataFactory.createTiff(bytes, false, i + 1, false);
+                ImageData page = pages.get(i);
+                Assert.assertEquals(i + 1, ((TiffImageData) page).getPage());
+                Assert.assertEquals(expected.getWidth(), page.getWidth(), 0);
+                Assert.assertEquals(expected.getHeight(), page.getHeight(), 0);
+                Assert.assertEquals(expected.getBpc(), page.getBpc());
+                Assert.assertEquals(expected.getColorSpace(), page.getColorSpace());
+                Assert.assertArrayEquals(expected.getData(), page.getData());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void createTiffPagesInCallingThreadTest() throws IOException {
+        List<ImageData> pages = ImageDataFactory.createTiffPages(UrlUtil.toURL(sourceFolder + "multipage.tif"),
+                false, false, null);
+        Assert.assertEquals(4, pages.size());
+        // the first two pages are CCITT G4 encoded, the others are RGB and grayscale ones
+        Assert.assertEquals(210, pages.get(1).getWidth(), 0);
+        Assert.assertEquals(3, pages.get(2).getColorSpace());
+        Assert.assertEquals(1, pages.get(3).getColorSpace());
+    }
 }
@@ -0,0 +1,106 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.io.util;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class IntHashtableTest extends ExtendedITextTest {
+
+    @Test
+    public void putGetRemoveTest() {
+        IntHashtable table = new IntHashtable(1);
+        Assert.assertEquals(0, table.put(5, 50));
+        Assert.assertEquals(50, table.put(5, 55));
+        Assert.assertEquals(0, table.put(-7, 70));
+        Assert.assertEquals(0, table.put(0, 0));
+
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(55, table.get(5));
+        Assert.assertEquals(70, table.get(-7));
+        Assert.assertTrue(table.containsKey(0));
+        Assert.assertFalse(table.containsKey(1));
+        Assert.assertTrue(table.contains(70));
+        Assert.assertArrayEquals(new int[] {-7, 0, 5}, table.toOrderedKeys());
+
+        Assert.assertEquals(55, table.remove(5));
+        Assert.assertEquals(0, table.remove(5));
+        Assert.assertFalse(table.containsKey(5));
+        Assert.assertEquals(2, table.size());
+
+        table.clear();
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertEquals(0, table.get(-7));
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        IntHashtable table = new IntHashtable();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            // a narrow key range makes the collisions and removals of probed entries frequent
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                Assert.assertEquals(old == null ? 0 : (int) old, table.remove(key));
+            } else {
+                int value = random.nextInt();
+                Integer old = expected.put(key, value);
+                Assert.assertEquals(old == null ? 0 : (int) old, table.put(key, value));
+            }
+        }
+        Assert.assertEquals(expected.size(), table.size());
+        for (int key = -1000; key < 1000; key++) {
+            Assert.assertEquals(expected.containsKey(key), table.containsKey(key));
+            Assert.assertEquals(expected.containsKey(key) ? (int) expected.get(key) : 0, table.get(key));
+        }
+        int[] keys = table.getKeys();
+        Arrays.sort(keys);
+        Assert.assertArrayEquals(keys, table.toOrderedKeys());
+        Assert.assertEquals(expected.size(), keys.length);
+    }
+
+    @Test
+    public void cloneTest() throws CloneNotSupportedException {
+        IntHashtable table = new IntHashtable();
+        table.put(1, 10);
+        IntHashtable clone = (IntHashtable) table.clone();
+        clone.put(2, 20);
+        table.put(1, 11);
+
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals(10, clone.get(1));
+        Assert.assertEquals(20, clone.get(2));
+        Assert.assertTrue(clone.getOneKey() == 1 || clone.getOneKey() == 2);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.font;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.ByteUtils;
+
+/**
+ * Builds the width array and the ToUnicode CMap of a composite font straight into a byte buffer.
+ * <p>
+ * Both structures are built from the glyph codes in ascending order, the way {@link PdfType0Font}
+ * keeps the used glyphs.
+ */
+final class CidFontDataBuilder {
+
+    private static final byte[] TO_UNICODE_HEADER = ByteUtils.getIsoBytes("/CIDInit /ProcSet findresource begin\n" +
+            "12 dict begin\n" +
+            "begincmap\n" +
+            "/CIDSystemInfo\n" +
+            "<< /Registry (Adobe)\n" +
+            "/Ordering (UCS)\n" +
+            "/Supplement 0\n" +
+            ">> def\n" +
+            "/CMapName /Adobe-Identity-UCS def\n" +
+            "/CMapType 2 def\n" +
+            "1 begincodespacerange\n" +
+            "<0000><FFFF>\n" +
+            "endcodespacerange\n");
+    private static final byte[] TO_UNICODE_FOOTER = ByteUtils.getIsoBytes("endcmap\n" +
+            "CMapName currentdict /CMap defineresource pop\n" +
+            "end end\n");
+    private static final byte[] BEGIN_BFRANGE = ByteUtils.getIsoBytes(" beginbfrange\n");
+    private static final byte[] END_BFRANGE = ByteUtils.getIsoBytes("endbfrange\n");
+
+    private static final byte[] HEX_DIGITS = ByteUtils.getIsoBytes("0123456789abcdef");
+
+    private static final int MAX_BFRANGE_SIZE = 100;
+
+    private CidFontDataBuilder() {
+    }
+
+    /**
+     * Builds the content of the W array of a CIDFont. The glyphs of the default width are skipped.
+     *
+     * @param fontProgram the font program
+     * @param glyphCodes  the codes of the used glyphs, in ascending order
+     * @return the W array, or null if all the glyphs have the default width
+     */
+    static byte[] buildWidthsArray(FontProgram fontProgram, int[] glyphCodes) {
+        ByteBuffer buffer = new ByteBuffer(glyphCodes.length * 4 + 16);
+        buffer.append('[');
+        int lastCode = -10;
+        for (int code : glyphCodes) {
+            Glyph glyph = fontProgram.getGlyphByCode(code);
+            if (glyph.getWidth() == FontProgram.DEFAULT_WIDTH) {
+                continue;
+            }
+            if (glyph.getCode() == lastCode + 1) {
+                buffer.append(' ');
+            } else {
+                if (buffer.size() > 1) {
+                    buffer.append(']');
+                }
+                appendInteger(buffer, glyph.getCode());
+                buffer.append('[');
+            }
+            appendInteger(buffer, glyph.getWidth());
+            lastCode = glyph.getCode();
+        }
+        if (buffer.size() == 1) {
+            return null;
+        }
+        buffer.append(']').append(']');
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Builds the ToUnicode CMap of a composite font with the Identity-H encoding.
+     *
+     * @param fontProgram the font program
+     * @param glyphCodes  the codes of the used glyphs, in ascending order
+     * @return the CMap, or null if none of the glyphs has a Unicode value
+     */
+    static byte[] buildToUnicode(FontProgram fontProgram, int[] glyphCodes) {
+        Glyph[] glyphs = new Glyph[glyphCodes.length];
+        int count = 0;
+        for (int code : glyphCodes) {
+            Glyph glyph = fontProgram.getGlyphByCode(code);
+            if (glyph.getChars() != null) {
+                glyphs[count++] = glyph;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        ByteBuffer buffer = new ByteBuffer(TO_UNICODE_HEADER.length + TO_UNICODE_FOOTER.length + count * 20);
+        buffer.append(TO_UNICODE_HEADER);
+        for (int start = 0; start < count; start += MAX_BFRANGE_SIZE) {
+            int end = Math.min(start + MAX_BFRANGE_SIZE, count);
+            appendInteger(buffer, end - start);
+            buffer.append(BEGIN_BFRANGE);
+            for (int i = start; i < end; i++) {
+                Glyph glyph = glyphs[i];
+                appendCode(buffer, glyph.getCode());
+                appendCode(buffer, glyph.getCode());
+                buffer.append('<');
+                for (char ch : glyph.getChars()) {
+                    appendHex4(buffer, ch);
+                }
+                buffer.append('>').append('\n');
+            }
+            buffer.append(END_BFRANGE);
+        }
+        buffer.append(TO_UNICODE_FOOTER);
+        return buffer.toByteArray();
+    }
+
+    private static void appendCode(ByteBuffer buffer, int code) {
+        if (code < 0x10000) {
+            buffer.append('<');
+            appendHex4(buffer, code);
+            buffer.append('>');
+        } else {
+            code -= 0x10000;
+            buffer.append('[').append('<');
+            appendHex4(buffer, code / 0x400 + 0xd800);
+            appendHex4(buffer, code % 0x400 + 0xdc00);
+            buffer.append('>').append(']');
+        }
+    }
+
+    private static void appendHex4(ByteBuffer buffer, int value) {
+        buffer.append(HEX_DIGITS[(value >> 12) & 0xf]);
+        buffer.append(HEX_DIGITS[(value >> 8) & 0xf]);
+        buffer.append(HEX_DIGITS[(value >> 4) & 0xf]);
+        buffer.append(HEX_DIGITS[value & 0xf]);
+    }
+
+    private static void appendInteger(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            buffer.append('-');
+            // the widths and the codes are far from Integer.MIN_VALUE
+            value = -value;
+        }
+        if (value >= 10) {
+            appendInteger(buffer, value / 10);
+        }
+        buffer.append('0' + value % 10);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.font;
+
+import com.itextpdf.io.font.FontProgram;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide cache of the width arrays and the ToUnicode CMaps of the composite fonts.
+ * <p>
+ * The documents which use the same glyphs of the same font program share the data. The font programs
+ * are referenced weakly, the data of a font program are dropped together with it. Each font program
+ * keeps a limited number of the most recently used entries.
+ * <p>
+ * The cache is thread-safe.
+ */
+final class CidFontDataCache {
+
+    static final int WIDTHS_ARRAY = 0;
+    static final int TO_UNICODE_CMAP = 1;
+
+    static final int MAX_ENTRIES_PER_FONT_PROGRAM = 32;
+
+    private static final Map<FontProgram, Map<DataKey, byte[]>> cache = new WeakHashMap<>();
+
+    private CidFontDataCache() {
+    }
+
+    /**
+     * Gets the cached data.
+     *
+     * @param fontProgram the font program, which is compared by identity
+     * @param dataType    {@link #WIDTHS_ARRAY} or {@link #TO_UNICODE_CMAP}
+     * @param glyphCodes  the codes of the used glyphs in ascending order
+     * @return a copy of the cached data, or null if the data are not cached
+     */
+    static synchronized byte[] get(FontProgram fontProgram, int dataType, int[] glyphCodes) {
+        Map<DataKey, byte[]> fontData = cache.get(fontProgram);
+        byte[] data = fontData != null ? fontData.get(new DataKey(dataType, glyphCodes)) : null;
+        return data != null ? data.clone() : null;
+    }
+
+    /**
+     * Puts the data into the cache.
+     *
+     * @param fontProgram the font program, which is compared by identity
+     * @param dataType    {@link #WIDTHS_ARRAY} or {@link #TO_UNICODE_CMAP}
+     * @param glyphCodes  the codes of the used glyphs in ascending order
+     * @param data        the data to cache, they are copied
+     */
+    static synchronized void put(FontProgram fontProgram, int dataType, int[] glyphCodes, byte[] data) {
+        Map<DataKey, byte[]> fontData = cache.get(fontProgram);
+        if (fontData == null) {
+            fontData = new LinkedHashMap<>(16, 0.75f, true);
+            cache.put(fontProgram, fontData);
+        }
+        fontData.put(new DataKey(dataType, glyphCodes), data.clone());
+        if (fontData.size() > MAX_ENTRIES_PER_FONT_PROGRAM) {
+            fontData.remove(fontData.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Gets the number of the entries cached for the font program.
+     *
+     * @param fontProgram the font program
+     * @return the number of the cached width arrays and ToUnicode CMaps
+     */
+    static synchronized int size(FontProgram fontProgram) {
+        Map<DataKey, byte[]> fontData = cache.get(fontProgram);
+        return fontData != null ? fontData.size() : 0;
+    }
+
+    private static class DataKey {
+        private final int dataType;
+        private final int[] glyphCodes;
+        private final int hash;
+
+        DataKey(int dataType, int[] glyphCodes) {
+            this.dataType = dataType;
+            this.glyphCodes = glyphCodes;
+            this.hash = 31 * dataType + Arrays.hashCode(glyphCodes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DataKey other = (DataKey) o;
+            return dataType == other.dataType && Arrays.equals(glyphCodes, other.glyphCodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
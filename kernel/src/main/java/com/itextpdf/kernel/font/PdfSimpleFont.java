@@ -87,6 +87,11 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
      */
     protected CMapToUnicode toUnicode;
 
+    /**
+     * The widths of the first 256 unicode values, built on the first width calculation.
+     */
+    private int[] latinWidths;
+
     protected PdfSimpleFont(PdfDictionary fontDictionary) {
         super(fontDictionary);
         toUnicode = FontUtil.processToUnicode(fontDictionary.get(PdfName.ToUnicode));
@@ -180,6 +185,39 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
         return glyph.getCode() > 0 || TextUtil.isWhitespaceOrNonPrintable(glyph.getUnicode());
     }
 
+    @Override
+    public int getWidth(int unicode) {
+        if (unicode >= 0 && unicode < 256) {
+            return getLatinWidths()[unicode];
+        }
+        return super.getWidth(unicode);
+    }
+
+    @Override
+    public int getWidth(String text) {
+        int[] widths = getLatinWidths();
+        int total = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < widths.length) {
+                total += widths[ch];
+            } else {
+                int unicode;
+                if (TextUtil.isSurrogatePair(text, i)) {
+                    unicode = TextUtil.convertToUtf32(text, i);
+                    i++;
+                } else {
+                    unicode = ch;
+                }
+                Glyph glyph = getGlyph(unicode);
+                if (glyph != null) {
+                    total += glyph.getWidth();
+                }
+            }
+        }
+        return total;
+    }
+
     /**
      * Get the font encoding.
      *
@@ -488,4 +526,24 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
     protected double getGlyphWidth(Glyph glyph) {
         return glyph != null ? glyph.getWidth() : 0;
     }
+
+    /**
+     * Drops the cached widths, shall be called when the glyphs of the font change.
+     */
+    void resetLatinWidths() {
+        latinWidths = null;
+    }
+
+    private int[] getLatinWidths() {
+        int[] widths = latinWidths;
+        if (widths == null) {
+            widths = new int[256];
+            for (int i = 0; i < widths.length; i++) {
+                Glyph glyph = getGlyph(i);
+                widths[i] = glyph != null ? glyph.getWidth() : 0;
+            }
+            latinWidths = widths;
+        }
+        return widths;
+    }
 }
@@ -44,7 +44,6 @@
 package com.itextpdf.kernel.font;
 
 import com.itextpdf.io.LogMessageConstant;
-import com.itextpdf.io.font.CFFFontSubset;
 import com.itextpdf.io.font.CMapEncoding;
 import com.itextpdf.io.font.CidFont;
 import com.itextpdf.io.font.CidFontProperties;
@@ -52,13 +51,10 @@ import com.itextpdf.io.font.FontProgram;
 import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.TrueTypeFont;
-import com.itextpdf.io.font.cmap.CMapContentParser;
 import com.itextpdf.io.font.cmap.CMapToUnicode;
 import com.itextpdf.io.font.otf.Glyph;
 import com.itextpdf.io.font.otf.GlyphLine;
-import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteBuffer;
-import com.itextpdf.io.source.OutputStream;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.io.util.TextUtil;
@@ -694,7 +690,8 @@ public class PdfType0Font extends PdfFont {
             getPdfObject().put(PdfName.BaseFont, new PdfName(MessageFormatUtil.format("{0}-{1}", name, cmapEncoding.getCmapName())));
             getPdfObject().put(PdfName.Encoding, new PdfName(cmapEncoding.getCmapName()));
             PdfDictionary fontDescriptor = getFontDescriptor(name);
-            PdfDictionary cidFont = getCidFont(fontDescriptor, fontProgram.getFontNames().getFontName(), false);
+            PdfDictionary cidFont = getCidFont(fontDescriptor, fontProgram.getFontNames().getFontName(), false,
+                    getUsedGlyphCodes());
             getPdfObject().put(PdfName.DescendantFonts, new PdfArray(cidFont));
 
             fontDescriptor.flush();
@@ -709,7 +706,7 @@ public class PdfType0Font extends PdfFont {
             if (ttf.isCff()) {
                 byte[] cffBytes;
                 if (subset) {
-                    cffBytes = new CFFFontSubset(ttf.getFontStreamBytes(), longTag).Process();
+                    cffBytes = ttf.getCffSubset(longTag);
                 } else {
                     cffBytes = ttf.getFontStreamBytes();
                 }
@@ -750,14 +747,16 @@ public class PdfType0Font extends PdfFont {
                 cidSetBytes[cidSetBytes.length - 1] |= rotbits[i];
             }
             fontDescriptor.put(PdfName.CIDSet, new PdfStream(cidSetBytes));
-            PdfDictionary cidFont = getCidFont(fontDescriptor, fontName, !ttf.isCff());
+            // the same codes are looked up for both the widths and the ToUnicode CMap
+            int[] glyphCodes = getUsedGlyphCodes();
+            PdfDictionary cidFont = getCidFont(fontDescriptor, fontName, !ttf.isCff(), glyphCodes);
 
             getPdfObject().put(PdfName.Type, PdfName.Font);
             getPdfObject().put(PdfName.Subtype, PdfName.Type0);
             getPdfObject().put(PdfName.Encoding, new PdfName(cmapEncoding.getCmapName()));
             getPdfObject().put(PdfName.DescendantFonts, new PdfArray(cidFont));
 
-            PdfStream toUnicode = getToUnicode();
+            PdfStream toUnicode = getToUnicode(glyphCodes);
             if (toUnicode != null) {
                 getPdfObject().put(PdfName.ToUnicode, toUnicode);
                 if (toUnicode.getIndirectReference() != null) {
@@ -805,6 +804,10 @@ public class PdfType0Font extends PdfFont {
      * @return fully initialized CIDFont
      */
     protected PdfDictionary getCidFont(PdfDictionary fontDescriptor, String fontName, boolean isType2) {
+        return getCidFont(fontDescriptor, fontName, isType2, getUsedGlyphCodes());
+    }
+
+    private PdfDictionary getCidFont(PdfDictionary fontDescriptor, String fontName, boolean isType2, int[] glyphCodes) {
         PdfDictionary cidFont = new PdfDictionary();
         markObjectAsIndirect(cidFont);
         cidFont.put(PdfName.Type, PdfName.Font);
@@ -824,7 +827,7 @@ public class PdfType0Font extends PdfFont {
         cidFont.put(PdfName.CIDSystemInfo, cidInfo);
         if (!vertical) {
             cidFont.put(PdfName.DW, new PdfNumber(FontProgram.DEFAULT_WIDTH));
-            PdfObject widthsArray = generateWidthsArray();
+            PdfObject widthsArray = generateWidthsArray(glyphCodes);
             if (widthsArray != null) {
                 cidFont.put(PdfName.W, widthsArray);
             }
@@ -836,35 +839,9 @@ public class PdfType0Font extends PdfFont {
         return cidFont;
     }
 
-    private PdfObject generateWidthsArray() {
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        OutputStream<ByteArrayOutputStream> stream = new OutputStream<>(bytes);
-        stream.writeByte('[');
-        int lastNumber = -10;
-        boolean firstTime = true;
-        for (int code : longTag) {
-            Glyph glyph = fontProgram.getGlyphByCode(code);
-            if (glyph.getWidth() == FontProgram.DEFAULT_WIDTH) {
-                continue;
-            }
-            if (glyph.getCode() == lastNumber + 1) {
-                stream.writeByte(' ');
-            } else {
-                if (!firstTime) {
-                    stream.writeByte(']');
-                }
-                firstTime = false;
-                stream.writeInteger(glyph.getCode());
-                stream.writeByte('[');
-            }
-            stream.writeInteger(glyph.getWidth());
-            lastNumber = glyph.getCode();
-        }
-        if (stream.getCurrentPos() > 1) {
-            stream.writeString("]]");
-            return new PdfLiteral(bytes.toByteArray());
-        }
-        return null;
+    private PdfObject generateWidthsArray(int[] glyphCodes) {
+        byte[] widths = getCachedFontData(CidFontDataCache.WIDTHS_ARRAY, glyphCodes);
+        return widths != null ? new PdfLiteral(widths) : null;
     }
 
     /**
@@ -873,69 +850,39 @@ public class PdfType0Font extends PdfFont {
      * @return the stream representing this CMap or <CODE>null</CODE>
      */
     public PdfStream getToUnicode() {
-        OutputStream<ByteArrayOutputStream> stream = new OutputStream<>(new ByteArrayOutputStream());
-        stream.writeString("/CIDInit /ProcSet findresource begin\n" +
-                        "12 dict begin\n" +
-                        "begincmap\n" +
-                        "/CIDSystemInfo\n" +
-                        "<< /Registry (Adobe)\n" +
-                        "/Ordering (UCS)\n" +
-                        "/Supplement 0\n" +
-                        ">> def\n" +
-                        "/CMapName /Adobe-Identity-UCS def\n" +
-                        "/CMapType 2 def\n" +
-                        "1 begincodespacerange\n" +
-                        "<0000><FFFF>\n" +
-                        "endcodespacerange\n");
-
-        //accumulate long tag into a subset and write it.
-        ArrayList<Glyph> glyphGroup = new ArrayList<>(100);
-
-        int bfranges = 0;
-        for (Integer glyphId : longTag) {
-            Glyph glyph = fontProgram.getGlyphByCode((int) glyphId);
-            if (glyph.getChars() != null) {
-                glyphGroup.add(glyph);
-                if (glyphGroup.size() == 100) {
-                    bfranges += writeBfrange(stream, glyphGroup);
-                }
-            }
-        }
-        //flush leftovers
-        bfranges += writeBfrange(stream, glyphGroup);
+        return getToUnicode(getUsedGlyphCodes());
+    }
 
-        if (bfranges == 0)
-            return null;
+    private PdfStream getToUnicode(int[] glyphCodes) {
+        byte[] toUnicode = getCachedFontData(CidFontDataCache.TO_UNICODE_CMAP, glyphCodes);
+        return toUnicode != null ? new PdfStream(toUnicode) : null;
+    }
 
-        stream.writeString("endcmap\n" +
-                "CMapName currentdict /CMap defineresource pop\n" +
-                "end end\n");
-        return new PdfStream(((ByteArrayOutputStream)stream.getOutputStream()).toByteArray());
-    }
-
-    private int writeBfrange(OutputStream<ByteArrayOutputStream> stream, List<Glyph> range) {
-        if (range.isEmpty()) return 0;
-        stream.writeInteger(range.size());
-        stream.writeString(" beginbfrange\n");
-        for (Glyph glyph: range) {
-            String fromTo = CMapContentParser.toHex(glyph.getCode());
-            stream.writeString(fromTo);
-            stream.writeString(fromTo);
-            stream.writeByte('<');
-            for (char ch : glyph.getChars()) {
-                stream.writeString(toHex4(ch));
-            }
-            stream.writeByte('>');
-            stream.writeByte('\n');
+    private int[] getUsedGlyphCodes() {
+        int[] glyphCodes = new int[longTag.size()];
+        int i = 0;
+        for (Integer code : longTag) {
+            glyphCodes[i++] = (int) code;
         }
-        stream.writeString("endbfrange\n");
-        range.clear();
-        return 1;
+        return glyphCodes;
     }
 
-    private static String toHex4(char ch) {
-        String s = "0000" + Integer.toHexString(ch);
-        return s.substring(s.length() - 4);
+    // The width array and the ToUnicode CMap are shared with the other documents,
+    // which use the same glyphs of the same font program.
+    private byte[] getCachedFontData(int dataType, int[] glyphCodes) {
+        byte[] data = CidFontDataCache.get(fontProgram, dataType, glyphCodes);
+        if (data == null) {
+            if (dataType == CidFontDataCache.WIDTHS_ARRAY) {
+                data = CidFontDataBuilder.buildWidthsArray(fontProgram, glyphCodes);
+            } else {
+                data = CidFontDataBuilder.buildToUnicode(fontProgram, glyphCodes);
+            }
+            // the absence of the data is cheap to find out again, so it isn't cached
+            if (data != null) {
+                CidFontDataCache.put(fontProgram, dataType, glyphCodes, data);
+            }
+        }
+        return data;
     }
 
     /**
@@ -0,0 +1,227 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.image.BmpImageData;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.Jbig2ImageData;
+import com.itextpdf.io.image.Jpeg2000ImageData;
+import com.itextpdf.io.image.JpegImageData;
+import com.itextpdf.io.image.PngChromaticities;
+import com.itextpdf.io.image.PngImageData;
+import com.itextpdf.io.image.RawImageData;
+import com.itextpdf.io.image.TiffImageData;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The image XObjects of a document, keyed by the digest of the image data they are created from.
+ * <p>
+ * The digest covers the image bytes and every property of the image data which is written to the
+ * image XObject, so the same image added over and over again finds the image XObject already added
+ * to the document. The image XObject of a duplicate is never created, compressed or written.
+ */
+class ImageXObjectRegistry implements Serializable {
+
+    private static final long serialVersionUID = -3538475286227376226L;
+
+    private static final int MAX_NESTING_LEVEL = 16;
+
+    private final Map<ImageDigest, PdfImageXObject> images = new HashMap<>();
+
+    /**
+     * Gets the image XObject of the document created from the image data with the same content as the given one.
+     * If there is no such image XObject yet, it's created, made indirect and registered.
+     * <p>
+     * The image data which can't be compared, e.g. the streamed ones or the custom {@link ImageData} subclasses,
+     * get a new image XObject which is not registered.
+     *
+     * @param image    the image data to get the image XObject for
+     * @param document the document the image is added to
+     * @return the image XObject of the document for the image data
+     */
+    PdfImageXObject getImageXObject(ImageData image, PdfDocument document) {
+        byte[] digestBytes = calculateDigest(image);
+        if (digestBytes == null) {
+            return new PdfImageXObject(image);
+        }
+        ImageDigest digest = new ImageDigest(digestBytes);
+        PdfImageXObject registered = images.get(digest);
+        if (registered == null) {
+            registered = new PdfImageXObject(image);
+            registered.makeIndirect(document);
+            images.put(digest, registered);
+        }
+        return registered;
+    }
+
+    private static byte[] calculateDigest(ImageData image) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new PdfException(e);
+        }
+        return updateDigest(md, image, MAX_NESTING_LEVEL) ? md.digest() : null;
+    }
+
+    /**
+     * Updates the digest with the image bytes and the properties of the image data.
+     *
+     * @return false if the image data can't be compared, e.g. if they are read from the URL
+     */
+    private static boolean updateDigest(MessageDigest md, ImageData image, int level) {
+        if (level <= 0 || image.getData() == null || !isSupportedImageData(image)) {
+            return false;
+        }
+        update(md, "$T" + image.getClass().getName() + " " + image.getOriginalType());
+        update(md, "$G" + Float.floatToIntBits(image.getWidth()) + " " + Float.floatToIntBits(image.getHeight())
+                + " " + image.getBpc() + " " + image.getColorSpace() + " " + image.getColorTransform()
+                + " " + image.isInverted() + " " + image.isDeflated() + " " + image.isMask()
+                + " " + image.isInterpolation() + " " + image.getFilter());
+        if (!updateValue(md, image.getDecode(), level - 1) || !updateValue(md, image.getTransparency(), level - 1)
+                || !updateValue(md, image.getDecodeParms(), level - 1)
+                || !updateValue(md, image.getImageAttributes(), level - 1)) {
+            return false;
+        }
+        if (image.getProfile() != null) {
+            update(md, "$P" + image.getProfile().getNumComponents());
+            updateValue(md, image.getProfile().getData(), level - 1);
+        }
+        if (image instanceof PngImageData) {
+            PngImageData pngImage = (PngImageData) image;
+            update(md, "$C" + pngImage.getColorType() + " " + Float.floatToIntBits(pngImage.getGamma()));
+            updateValue(md, pngImage.getColorPalette(), level - 1);
+            PngChromaticities chromaticities = pngImage.getPngChromaticities();
+            if (chromaticities != null) {
+                updateValue(md, new float[] {chromaticities.getXW(), chromaticities.getYW(), chromaticities.getXR(),
+                        chromaticities.getYR(), chromaticities.getXG(), chromaticities.getYG(),
+                        chromaticities.getXB(), chromaticities.getYB()}, level - 1);
+            }
+        } else if (image instanceof RawImageData) {
+            update(md, "$C" + ((RawImageData) image).getTypeCcitt());
+        } else if (image instanceof Jbig2ImageData) {
+            update(md, "$C" + ((Jbig2ImageData) image).getPage());
+        }
+        if (image.getImageMask() != null) {
+            update(md, "$M");
+            if (!updateDigest(md, image.getImageMask(), level - 1)) {
+                return false;
+            }
+        }
+        update(md, "$B" + image.getData().length);
+        md.update(image.getData());
+        return true;
+    }
+
+    private static boolean updateValue(MessageDigest md, Object value, int level) {
+        if (level <= 0) {
+            return false;
+        }
+        if (value == null) {
+            update(md, "$L");
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            update(md, "$B" + bytes.length);
+            md.update(bytes);
+        } else if (value instanceof float[]) {
+            float[] floats = (float[]) value;
+            update(md, "$F" + floats.length);
+            for (float f : floats) {
+                update(md, " " + Float.floatToIntBits(f));
+            }
+        } else if (value instanceof int[]) {
+            update(md, "$I" + Arrays.toString((int[]) value));
+        } else if (value instanceof Object[]) {
+            Object[] objects = (Object[]) value;
+            update(md, "$A" + objects.length);
+            for (Object obj : objects) {
+                if (!updateValue(md, obj, level - 1)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Map) {
+            // sorted, so the same entries always come in the same order
+            Map<String, Object> map = new TreeMap<>((Map<String, Object>) value);
+            update(md, "$D" + map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                update(md, "$N" + entry.getKey());
+                if (!updateValue(md, entry.getValue(), level - 1)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Integer) {
+            update(md, "$I" + value);
+        } else if (value instanceof Float) {
+            update(md, "$F" + Float.floatToIntBits((float) value));
+        } else if (value instanceof Boolean || value instanceof String) {
+            update(md, "$S" + value.getClass().getName() + " " + value.toString().length() + " " + value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isSupportedImageData(ImageData image) {
+        // the properties of custom image data may be written in a way the digest doesn't know about
+        Class<?> imageClass = image.getClass();
+        return imageClass == RawImageData.class || imageClass == JpegImageData.class
+                || imageClass == Jpeg2000ImageData.class || imageClass == PngImageData.class
+                || imageClass == BmpImageData.class || imageClass == TiffImageData.class
+                || imageClass == Jbig2ImageData.class;
+    }
+
+    private static void update(MessageDigest md, String str) {
+        md.update(ByteUtils.getIsoBytes(str));
+    }
+
+    private static class ImageDigest implements Serializable {
+        private static final long serialVersionUID = 4707632208765386545L;
+
+        private final byte[] digest;
+        private final int hash;
+
+        ImageDigest(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ImageDigest && Arrays.equals(digest, ((ImageDigest) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
@@ -77,6 +78,7 @@ import com.itextpdf.kernel.pdf.filespec.PdfFileSpec;
 import com.itextpdf.kernel.pdf.navigation.PdfDestination;
 import com.itextpdf.kernel.pdf.tagging.PdfStructTreeRoot;
 import com.itextpdf.kernel.pdf.tagutils.TagStructureContext;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.kernel.xmp.PdfConst;
 import com.itextpdf.kernel.xmp.XMPConst;
 import com.itextpdf.kernel.xmp.XMPException;
@@ -202,6 +204,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
     protected boolean flushUnusedObjects = false;
 
     private Map<PdfIndirectReference, PdfFont> documentFonts = new HashMap<>();
+    private ImageXObjectRegistry documentImages = new ImageXObjectRegistry();
     private PdfFont defaultFont = null;
 
     protected transient TagStructureContext tagStructureContext;
@@ -1782,6 +1785,25 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         return font;
     }
 
+    /**
+     * Gets the {@link PdfImageXObject} of this document for the given {@link ImageData}.
+     * If an image with the same content has already been added, its image XObject is returned,
+     * so that the same image added over and over again is created and written only once.
+     * Otherwise a new image XObject is created, made indirect and returned.
+     * <p>
+     * The image data which are streamed from the URL or are instances of custom {@link ImageData}
+     * subclasses get a new image XObject every time.
+     *
+     * @param image the image data to get the image XObject for
+     * @return the image XObject of this document for the image data
+     */
+    public PdfImageXObject getImageXObject(ImageData image) {
+        if (writer == null) {
+            return new PdfImageXObject(image);
+        }
+        return documentImages.getImageXObject(image, this);
+    }
+
     /**
      * Registers a product for debugging purposes.
      *
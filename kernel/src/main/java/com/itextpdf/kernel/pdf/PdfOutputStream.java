@@ -305,6 +305,12 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                     updateCompressionFilter(pdfStream);
                     fout = def = new DeflaterOutputStream(fout, pdfStream.getCompressionLevel(), 0x8000);
                 }
+                PdfNumber length = pdfStream.getAsNumber(PdfName.Length);
+                if (length == null || length.getIndirectReference() == null) {
+                    // the stream was created without the document, the length is known only after the data are written
+                    length = (PdfNumber) new PdfNumber(-1).makeIndirect(document);
+                    pdfStream.put(PdfName.Length, length);
+                }
                 this.write((PdfDictionary) pdfStream);
                 writeBytes(PdfOutputStream.stream);
                 long beginStreamContent = getCurrentPos();
@@ -321,7 +327,6 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 if (ose != null) {
                     ose.finish();
                 }
-                PdfNumber length = pdfStream.getAsNumber(PdfName.Length);
                 length.setValue((int) (getCurrentPos() - beginStreamContent));
                 pdfStream.updateLength(length.intValue());
                 writeBytes(PdfOutputStream.endstream);
@@ -144,13 +144,32 @@ public class PdfStream extends PdfDictionary {
         this(doc, inputStream, CompressionConstants.UNDEFINED_COMPRESSION);
     }
 
+    /**
+     * Creates an efficient stream which doesn't belong to a document yet. No temporary array is ever created.
+     * The {@code InputStream} is read only when the stream is written, it is totally consumed but is not closed.
+     * Since the length of the data is not known before that, the indirect /Length object is created
+     * in the document the stream is written to.
+     *
+     * @param inputStream      the data to write to this stream
+     * @param compressionLevel the compression level (0 = best speed, 9 = best compression, -1 is default)
+     */
+    public PdfStream(InputStream inputStream, int compressionLevel) {
+        super();
+        if (inputStream == null) {
+            throw new IllegalArgumentException("The input stream in PdfStream constructor can not be null.");
+        }
+        this.inputStream = inputStream;
+        this.compressionLevel = compressionLevel;
+        setState(MUST_BE_INDIRECT);
+    }
+
     /**
      * Constructs a {@code PdfStream}-object.
      *
      * @param compressionLevel the compression level (0 = best speed, 9 = best compression, -1 is default)
      */
     public PdfStream(int compressionLevel) {
-        this(null, compressionLevel);
+        this((byte[]) null, compressionLevel);
     }
 
     /**
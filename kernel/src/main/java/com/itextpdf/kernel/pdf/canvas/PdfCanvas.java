@@ -1951,11 +1951,11 @@ public class PdfCanvas implements Serializable {
             addXObject(xObject, a, b, c, d, e, f);
             return xObject;
         } else {
-            PdfImageXObject imageXObject = new PdfImageXObject(image);
             if (asInline && image.canImageBeInline()) {
-                addInlineImage(imageXObject, a, b, c, d, e, f);
+                addInlineImage(new PdfImageXObject(image), a, b, c, d, e, f);
                 return null;
             } else {
+                PdfImageXObject imageXObject = document.getImageXObject(image);
                 addImageWithTransformationMatrix(imageXObject, a, b, c, d, e, f);
                 return imageXObject;
             }
@@ -2037,11 +2037,11 @@ public class PdfCanvas implements Serializable {
             addXObject(xObject, image.getWidth(), 0, 0, image.getHeight(), x, y);
             return xObject;
         } else {
-            PdfImageXObject imageXObject = new PdfImageXObject(image);
             if (asInline && image.canImageBeInline()) {
-                addInlineImage(imageXObject, image.getWidth(), 0, 0, image.getHeight(), x, y);
+                addInlineImage(new PdfImageXObject(image), image.getWidth(), 0, 0, image.getHeight(), x, y);
                 return null;
             } else {
+                PdfImageXObject imageXObject = document.getImageXObject(image);
                 addImageWithTransformationMatrix(imageXObject, image.getWidth(), 0, 0, image.getHeight(), x, y);
                 return imageXObject;
             }
@@ -2074,11 +2074,11 @@ public class PdfCanvas implements Serializable {
             addImageWithTransformationMatrix(xObject, width, 0, 0, width, x, y);
             return xObject;
         } else {
-            PdfImageXObject imageXObject = new PdfImageXObject(image);
             if (asInline && image.canImageBeInline()) {
-                addInlineImage(imageXObject, width, 0, 0, (width / image.getWidth()) * image.getHeight(), x, y);
+                addInlineImage(new PdfImageXObject(image), width, 0, 0, (width / image.getWidth()) * image.getHeight(), x, y);
                 return null;
             } else {
+                PdfImageXObject imageXObject = document.getImageXObject(image);
                 addImageWithTransformationMatrix(imageXObject, width, 0, 0, (width / image.getWidth()) * image.getHeight(), x, y);
                 return imageXObject;
             }
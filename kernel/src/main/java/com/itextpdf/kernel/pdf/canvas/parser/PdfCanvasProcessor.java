@@ -95,6 +95,7 @@ import com.itextpdf.kernel.pdf.colorspace.PdfSpecialCs;
 
 import java.util.Objects;
 import com.itextpdf.kernel.pdf.extgstate.PdfExtGState;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -165,6 +166,11 @@ public class PdfCanvasProcessor {
      */
     private Map<Integer, WeakReference<PdfFont>> cachedFonts = new HashMap<>();
 
+    /**
+     * The image cache, null if the images aren't cached
+     */
+    private Map<PdfIndirectReference, PdfImageXObject> cachedImages;
+
     /**
      * A stack containing marked content info.
      */
@@ -239,6 +245,18 @@ public class PdfCanvasProcessor {
         return new ArrayList<String>(operators.keySet());
     }
 
+    /**
+     * Enables or disables the cache of the images. If the cache is enabled, the {@link ImageRenderInfo}s of all
+     * the placements of an image XObject share the same {@link PdfImageXObject}, which reads and decodes the image data
+     * only once. The cached data are kept until the cache is disabled, so it is worth enabling only if the listener
+     * requests the data of the images which are placed several times.
+     *
+     * @param imageCacheEnabled {@code true} to share the images between their placements
+     */
+    public void setImageCacheEnabled(boolean imageCacheEnabled) {
+        cachedImages = imageCacheEnabled ? new HashMap<PdfIndirectReference, PdfImageXObject>() : null;
+    }
+
     /**
      * Resets the graphics state stack, matrices and resources.
      */
@@ -572,7 +590,7 @@ public class PdfCanvasProcessor {
     private void displayImage(Stack<CanvasTag> canvasTagHierarchy, PdfStream imageStream, PdfName resourceName, boolean isInline) {
         PdfDictionary colorSpaceDic = getResources().getResource(PdfName.ColorSpace);
         ImageRenderInfo renderInfo = new ImageRenderInfo(canvasTagHierarchy, getGraphicsState(), getGraphicsState().getCtm(),
-                imageStream, resourceName, colorSpaceDic, isInline);
+                imageStream, resourceName, colorSpaceDic, isInline, cachedImages);
         eventOccurred(renderInfo, EventType.RENDER_IMAGE);
     }
 
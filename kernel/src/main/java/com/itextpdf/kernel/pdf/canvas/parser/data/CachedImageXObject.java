@@ -0,0 +1,58 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.data;
+
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * The image which is shared between the render infos of its placements, so it keeps its bytes
+ * once they are requested instead of reading and decoding them again for every placement.
+ */
+class CachedImageXObject extends PdfImageXObject {
+
+    private static final long serialVersionUID = 4627836465138447432L;
+
+    private byte[] decodedBytes;
+    private byte[] encodedBytes;
+
+    CachedImageXObject(PdfStream pdfStream) {
+        super(pdfStream);
+    }
+
+    @Override
+    public byte[] getImageBytes(boolean decoded) {
+        // copies are returned, since the callers may change the arrays
+        if (decoded) {
+            if (decodedBytes == null) {
+                decodedBytes = super.getImageBytes(true);
+            }
+            return decodedBytes == null ? null : decodedBytes.clone();
+        } else {
+            if (encodedBytes == null) {
+                encodedBytes = super.getImageBytes(false);
+            }
+            return encodedBytes == null ? null : encodedBytes.clone();
+        }
+    }
+}
@@ -46,6 +46,7 @@ package com.itextpdf.kernel.pdf.canvas.parser.data;
 import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.Vector;
 import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.canvas.CanvasGraphicsState;
@@ -55,6 +56,7 @@ import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 /**
@@ -65,7 +67,16 @@ public class ImageRenderInfo extends AbstractRenderInfo {
      * The coordinate transformation matrix that was in effect when the image was rendered.
      */
     private Matrix ctm;
+    private PdfStream imageStream;
+    /**
+     * The image XObject, which is created on demand.
+     */
     private PdfImageXObject image;
+    /**
+     * The images shared between the render infos, by the references of the image streams, or null if the images
+     * aren't cached.
+     */
+    private Map<PdfIndirectReference, PdfImageXObject> cachedImages;
     /**
      * The color space dictionary from resources which are associated with the image.
      */
@@ -95,13 +106,35 @@ public class ImageRenderInfo extends AbstractRenderInfo {
      */
     public ImageRenderInfo(Stack<CanvasTag> canvasTagHierarchy, CanvasGraphicsState gs, Matrix ctm, PdfStream imageStream,
                            PdfName resourceName, PdfDictionary colorSpaceDictionary, boolean isInline) {
+        this(canvasTagHierarchy, gs, ctm, imageStream, resourceName, colorSpaceDictionary, isInline, null);
+    }
+
+    /**
+     * Creates an ImageRenderInfo.
+     *
+     * @param canvasTagHierarchy   the hierarchy of nested canvas tags for the text from the most
+     *                             inner (nearest to text) tag to the most outer
+     * @param gs                   the {@link CanvasGraphicsState canvas graphics state}
+     * @param ctm                  the coordinate transformation matrix at the time the image is rendered
+     * @param imageStream          the image stream object
+     * @param resourceName         the {@link PdfName name} of the image resource
+     * @param colorSpaceDictionary the color space dictionary from resources which are associated with the image
+     * @param isInline             defines if the encountered image was inline
+     * @param cachedImages         the images shared between the render infos, by the references of the image streams,
+     *                             or null to create a new image for every render info. The shared images keep
+     *                             their bytes once they are requested
+     */
+    public ImageRenderInfo(Stack<CanvasTag> canvasTagHierarchy, CanvasGraphicsState gs, Matrix ctm, PdfStream imageStream,
+                           PdfName resourceName, PdfDictionary colorSpaceDictionary, boolean isInline,
+                           Map<PdfIndirectReference, PdfImageXObject> cachedImages) {
         super(gs);
         this.canvasTagHierarchy = Collections.<CanvasTag>unmodifiableList(new ArrayList<>(canvasTagHierarchy));
         this.resourceName = resourceName;
         this.ctm = ctm;
-        this.image = new PdfImageXObject(imageStream);
+        this.imageStream = imageStream;
         this.colorSpaceDictionary = colorSpaceDictionary;
         this.isInline = isInline;
+        this.cachedImages = cachedImages;
     }
 
     /**
@@ -113,13 +146,37 @@ public class ImageRenderInfo extends AbstractRenderInfo {
      * <li>obtain PdfStream object which contains image dictionary with {@link PdfImageXObject#getPdfObject()} method;
      * <li>convert image to {@link java.awt.image.BufferedImage} with {@link PdfImageXObject#getBufferedImage()};
      * </ul>
+     * The image is created on the first call, the image data aren't read until they are requested.
      *
      * @return the {@link PdfImageXObject image}
      */
     public PdfImageXObject getImage() {
+        if (image == null) {
+            PdfIndirectReference reference = imageStream.getIndirectReference();
+            if (cachedImages == null || reference == null) {
+                image = new PdfImageXObject(imageStream);
+            } else {
+                image = cachedImages.get(reference);
+                // the references of the different documents may be equal
+                if (image == null || image.getPdfObject() != imageStream) {
+                    image = new CachedImageXObject(imageStream);
+                    cachedImages.put(reference, image);
+                }
+            }
+        }
         return image;
     }
 
+    /**
+     * Gets the dictionary of the image without creating the {@link PdfImageXObject}. Reading the entries of the
+     * dictionary, like the size, the color space or the filters of the image, doesn't read the image data.
+     *
+     * @return the image dictionary
+     */
+    public PdfDictionary getImageDictionary() {
+        return imageStream;
+    }
+
     /**
      * Gets the name of the image resource.
      *
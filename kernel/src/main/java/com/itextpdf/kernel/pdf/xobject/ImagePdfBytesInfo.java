@@ -47,11 +47,17 @@ import com.itextpdf.io.codec.TIFFConstants;
 import com.itextpdf.io.codec.TiffWriter;
 import com.itextpdf.kernel.Version;
 import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfString;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.InflaterInputStream;
 
 class ImagePdfBytesInfo {
     private int pngColorType;
@@ -161,6 +167,120 @@ class ImagePdfBytesInfo {
         }
     }
 
+    /**
+     * Writes the PNG image of the Flate encoded image stream. The PNG predictors of the stream are the same
+     * as the PNG filters, so if the parameters of the stream match the PNG ones, the stream data are written
+     * as they are. Otherwise the rows are decoded and written one by one, so the decoded image
+     * is never kept in memory. The image must be checked with {@link #canWriteFlatePng(PdfObject)} first.
+     *
+     * @param rawBytes     the Flate encoded bytes of the image stream
+     * @param decodeParams the decode parameters of the Flate filter
+     * @param outputStream the stream to write the PNG image to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeFlatePng(byte[] rawBytes, PdfObject decodeParams, OutputStream outputStream) throws IOException {
+        PngWriter png = new PngWriter(outputStream);
+        png.writeHeader(width, height, pngBitDepth, pngColorType);
+        if (icc != null) {
+            png.writeIccProfile(icc);
+        }
+        if (palette != null) {
+            png.writePalette(palette);
+        }
+        boolean invert = isInverted();
+        if (hasPngPredictor(decodeParams)) {
+            png.writeCompressedData(rawBytes);
+        } else {
+            OutputStream data = png.createDataStream();
+            InputStream rows = new InflaterInputStream(new ByteArrayInputStream(rawBytes));
+            byte[] row = new byte[stride];
+            for (int y = 0; y < height; ++y) {
+                int length = readRow(rows, row);
+                if (length == 0) {
+                    break;
+                }
+                if (invert) {
+                    for (int t = 0; t < length; ++t) {
+                        row[t] ^= 0xff;
+                    }
+                }
+                data.write(0);
+                data.write(row, 0, length);
+                if (length < stride) {
+                    break;
+                }
+            }
+            data.close();
+        }
+        png.writeEnd();
+    }
+
+    /**
+     * Checks if the Flate encoded image can be written with {@link #writeFlatePng(byte[], PdfObject, OutputStream)}.
+     *
+     * @param decodeParams the decode parameters of the Flate filter
+     * @return {@code true} if the image is written as PNG and its rows are either not predicted
+     * or predicted the same way as the PNG ones
+     */
+    public boolean canWriteFlatePng(PdfObject decodeParams) {
+        if (pngColorType < 0) {
+            return false;
+        }
+        if (hasPngPredictor(decodeParams)) {
+            return !isInverted();
+        }
+        int predictor = 1;
+        if (decodeParams instanceof PdfDictionary) {
+            predictor = getNumberOrDefault((PdfDictionary) decodeParams, PdfName.Predictor, 1);
+        }
+        // the other predictors less than 10 are ignored by the Flate filter
+        return predictor < 10 && predictor != 2;
+    }
+
+    private boolean isInverted() {
+        // if the decode array is 1,0, then the 1 bit image is inverted, see decodeTiffAndPngBytes
+        return decode != null && pngBitDepth == 1
+                && decode.getAsNumber(0).intValue() == 1 && decode.getAsNumber(1).intValue() == 0;
+    }
+
+    private boolean hasPngPredictor(PdfObject decodeParams) {
+        if (!(decodeParams instanceof PdfDictionary)) {
+            return false;
+        }
+        PdfDictionary params = (PdfDictionary) decodeParams;
+        PdfNumber predictor = params.getAsNumber(PdfName.Predictor);
+        int colors = pngColorType == 2 ? 3 : 1;
+        return predictor != null && predictor.intValue() >= 10
+                && getNumberOrDefault(params, PdfName.Colors, 1) == colors
+                && getNumberOrDefault(params, PdfName.BitsPerComponent, 8) == bpc
+                && getNumberOrDefault(params, PdfName.Columns, 1) == width;
+    }
+
+    private static int getNumberOrDefault(PdfDictionary dictionary, PdfName key, int defaultValue) {
+        PdfNumber number = dictionary.getAsNumber(key);
+        return number != null ? number.intValue() : defaultValue;
+    }
+
+    /**
+     * Reads the next row of the image. The broken compressed data are treated as the end of the image,
+     * like the lenient Flate decoding does.
+     */
+    private static int readRow(InputStream rows, byte[] row) {
+        int length = 0;
+        try {
+            while (length < row.length) {
+                int read = rows.read(row, length, row.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException e) {
+            // the rows which have been read completely are kept
+        }
+        return length;
+    }
+
     /**
      * Sets state of this object according to the color space
      *
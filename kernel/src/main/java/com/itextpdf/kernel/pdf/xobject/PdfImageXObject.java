@@ -53,6 +53,7 @@ import com.itextpdf.io.image.PngImageHelperConstants;
 import com.itextpdf.io.image.PngImageData;
 import com.itextpdf.io.image.RawImageData;
 import com.itextpdf.io.image.RawImageHelper;
+import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.CompressionConstants;
 import com.itextpdf.kernel.pdf.PdfArray;
@@ -76,6 +77,9 @@ import com.itextpdf.kernel.pdf.filters.IFilterHandler;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -226,6 +230,39 @@ public class PdfImageXObject extends PdfXObject {
         return bytes;
     }
 
+    /**
+     * Writes the image to the stream, the written bytes make up the image of the type
+     * identified by {@link #identifyImageType()}, just like the bytes returned by {@link #getImageBytes()}.
+     * <p>
+     * Unlike {@link #getImageBytes()}, the decoded image isn't kept in memory: the JPEG, JPEG2000 and JBIG2 data
+     * are written as they are, and the Flate encoded images are written as PNG row by row, or as they are
+     * if their rows are encoded with the PNG predictors already. The other images are decoded
+     * with {@link #getImageBytes()}.
+     *
+     * @param outputStream the stream to write the image to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeImage(OutputStream outputStream) throws IOException {
+        PdfObject filter = getPdfObject().get(PdfName.Filter);
+        PdfObject decodeParms = getPdfObject().get(PdfName.DecodeParms);
+        if (filter instanceof PdfArray && ((PdfArray) filter).size() == 1) {
+            filter = ((PdfArray) filter).get(0);
+            decodeParms = decodeParms instanceof PdfArray ? ((PdfArray) decodeParms).get(0) : decodeParms;
+        }
+        if (PdfName.DCTDecode.equals(filter) || PdfName.JPXDecode.equals(filter) || PdfName.JBIG2Decode.equals(filter)) {
+            outputStream.write(getPdfObject().getBytes(false));
+            return;
+        }
+        if (PdfName.FlateDecode.equals(filter)) {
+            ImagePdfBytesInfo imageInfo = new ImagePdfBytesInfo(this);
+            if (imageInfo.canWriteFlatePng(decodeParms)) {
+                imageInfo.writeFlatePng(getPdfObject().getBytes(false), decodeParms, outputStream);
+                return;
+            }
+        }
+        outputStream.write(getImageBytes(true));
+    }
+
     /**
      * Identifies the type of the image that is stored in the bytes of this {@link PdfImageXObject}.
      * Note that this has nothing to do with the original type of the image. For instance, the return value
@@ -326,7 +363,11 @@ public class PdfImageXObject extends PdfXObject {
         if (image.getOriginalType() == ImageType.RAW) {
             RawImageHelper.updateImageAttributes((RawImageData) image, null);
         }
-        stream = new PdfStream(image.getData());
+        if (image.isDataStreamed()) {
+            stream = new PdfStream(new UrlDataInputStream(image.getUrl()), CompressionConstants.UNDEFINED_COMPRESSION);
+        } else {
+            stream = new PdfStream(image.getData());
+        }
         String filter = image.getFilter();
         if (filter != null && "JPXDecode".equals(filter) && image.getColorSpace() <= 0) {
             stream.setCompressionLevel(CompressionConstants.NO_COMPRESSION);
@@ -653,4 +694,49 @@ public class PdfImageXObject extends PdfXObject {
             this.matrix = Arrays.copyOf(matrix, 9);
         }
     }
+
+    /**
+     * Reads the image data from the URL only when the stream is written, and closes the connection
+     * as soon as all the data are read.
+     */
+    private static class UrlDataInputStream extends InputStream {
+        private final URL url;
+        private InputStream source;
+        private boolean finished;
+
+        UrlDataInputStream(URL url) {
+            this.url = url;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                return -1;
+            }
+            if (source == null) {
+                source = UrlUtil.openStream(url);
+            }
+            int n = source.read(b, off, len);
+            if (n < 0) {
+                close();
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finished = true;
+            if (source != null) {
+                InputStream s = source;
+                source = null;
+                s.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,532 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.io.codec.CCITTG4Encoder;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.DeflaterOutputStream;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
+import com.itextpdf.kernel.pdf.colorspace.PdfSpecialCs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reduces the size of the images of an existing document.
+ * <p>
+ * The resolution of every image is calculated from the largest size the image is painted with on the pages.
+ * The images with the resolution at least twice as high as the target one are downsampled by an integer factor
+ * and recompressed: the bilevel images with CCITT Group 4, the other ones with Flate and PNG predictors.
+ * The images are replaced only if they get smaller.
+ * <p>
+ * Only the images which can be decoded by the kernel filters are processed, so the DCT, JPX and JBIG2 images,
+ * as well as the images which are not 1 or 8 bits per component, are left as is. The images with color key masking
+ * aren't downsampled either, since the averaged colors wouldn't match the key.
+ */
+public class PdfImageOptimizer {
+
+    /**
+     * The default target resolution of the color and grayscale images, in dots per inch.
+     */
+    public static final float DEFAULT_TARGET_RESOLUTION = 150;
+
+    /**
+     * The default target resolution of the bilevel images, in dots per inch.
+     */
+    public static final float DEFAULT_BILEVEL_TARGET_RESOLUTION = 300;
+
+    private static final int BATCH_SIZE_PER_THREAD = 4;
+
+    private static final Set<PdfName> DECODABLE_FILTERS = new HashSet<>();
+
+    static {
+        DECODABLE_FILTERS.add(PdfName.FlateDecode);
+        DECODABLE_FILTERS.add(PdfName.LZWDecode);
+        DECODABLE_FILTERS.add(PdfName.RunLengthDecode);
+        DECODABLE_FILTERS.add(PdfName.ASCIIHexDecode);
+        DECODABLE_FILTERS.add(PdfName.ASCII85Decode);
+        DECODABLE_FILTERS.add(PdfName.CCITTFaxDecode);
+    }
+
+    private final PdfDocument pdfDocument;
+    private float targetResolution = DEFAULT_TARGET_RESOLUTION;
+    private float bilevelTargetResolution = DEFAULT_BILEVEL_TARGET_RESOLUTION;
+    private ExecutorService executor;
+    private int batchSize = BATCH_SIZE_PER_THREAD;
+
+    /**
+     * Creates the optimizer of the images of the document.
+     *
+     * @param pdfDocument the document opened in stamping mode
+     */
+    public PdfImageOptimizer(PdfDocument pdfDocument) {
+        if (pdfDocument.getReader() == null || pdfDocument.getWriter() == null) {
+            throw new PdfException(PdfException.PdfDocumentMustBeOpenedInStampingMode);
+        }
+        this.pdfDocument = pdfDocument;
+    }
+
+    /**
+     * Sets the resolution the color and grayscale images are downsampled to.
+     * Default value - {@link #DEFAULT_TARGET_RESOLUTION}.
+     *
+     * @param targetResolution the target resolution, in dots per inch
+     * @return this {@code PdfImageOptimizer} instance
+     */
+    public PdfImageOptimizer setTargetResolution(float targetResolution) {
+        this.targetResolution = targetResolution;
+        return this;
+    }
+
+    /**
+     * Sets the resolution the bilevel images are downsampled to.
+     * Default value - {@link #DEFAULT_BILEVEL_TARGET_RESOLUTION}.
+     *
+     * @param bilevelTargetResolution the target resolution, in dots per inch
+     * @return this {@code PdfImageOptimizer} instance
+     */
+    public PdfImageOptimizer setBilevelTargetResolution(float bilevelTargetResolution) {
+        this.bilevelTargetResolution = bilevelTargetResolution;
+        return this;
+    }
+
+    /**
+     * Sets the executor to downsample and compress the images with concurrently. The images are read
+     * and replaced in the calling thread anyway, since the document is not thread-safe.
+     * Default value - null, that is the images are processed in the calling thread.
+     *
+     * @param executor    the executor, or null to process the images in the calling thread
+     * @param threadCount the number of the threads of the executor, the images are processed in batches
+     *                    proportional to it to keep the memory usage limited
+     * @return this {@code PdfImageOptimizer} instance
+     */
+    public PdfImageOptimizer setExecutor(ExecutorService executor, int threadCount) {
+        this.executor = executor;
+        this.batchSize = BATCH_SIZE_PER_THREAD * Math.max(1, threadCount);
+        return this;
+    }
+
+    /**
+     * Downsamples and recompresses the images of the document.
+     *
+     * @return the number of the replaced images
+     */
+    public int optimize() {
+        Map<PdfIndirectReference, float[]> placements = collectImagePlacements();
+        List<ImageTask> batch = new ArrayList<>();
+        int optimized = 0;
+        for (Map.Entry<PdfIndirectReference, float[]> placement : placements.entrySet()) {
+            ImageTask task = createTask(placement.getKey(), placement.getValue());
+            if (task != null) {
+                batch.add(task);
+                if (batch.size() >= batchSize) {
+                    optimized += processBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        optimized += processBatch(batch);
+        return optimized;
+    }
+
+    /**
+     * Finds the largest size every image XObject is painted with on the pages.
+     *
+     * @return the width and height in inches, by the references of the images
+     */
+    private Map<PdfIndirectReference, float[]> collectImagePlacements() {
+        ImagePlacementListener listener = new ImagePlacementListener();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(listener);
+        for (int i = 1; i <= pdfDocument.getNumberOfPages(); ++i) {
+            processor.processPageContent(pdfDocument.getPage(i));
+            processor.reset();
+        }
+        return listener.placements;
+    }
+
+    private ImageTask createTask(PdfIndirectReference reference, float[] placement) {
+        PdfObject object = reference.getRefersTo();
+        if (!(object instanceof PdfStream) || object.isFlushed()) {
+            return null;
+        }
+        PdfStream stream = (PdfStream) object;
+        if (!isDecodable(stream) || stream.get(PdfName.Mask) instanceof PdfArray) {
+            return null;
+        }
+        PdfNumber widthNumber = stream.getAsNumber(PdfName.Width);
+        PdfNumber heightNumber = stream.getAsNumber(PdfName.Height);
+        if (widthNumber == null || heightNumber == null) {
+            return null;
+        }
+        int width = widthNumber.intValue();
+        int height = heightNumber.intValue();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        int bitsPerComponent;
+        int components;
+        boolean indexed = false;
+        if (PdfBoolean.TRUE.equals(stream.getAsBoolean(PdfName.ImageMask))) {
+            bitsPerComponent = 1;
+            components = 1;
+        } else {
+            PdfNumber bpcNumber = stream.getAsNumber(PdfName.BitsPerComponent);
+            PdfObject colorSpaceObject = stream.get(PdfName.ColorSpace);
+            PdfColorSpace colorSpace = colorSpaceObject != null ? PdfColorSpace.makeColorSpace(colorSpaceObject) : null;
+            if (bpcNumber == null || colorSpace == null) {
+                return null;
+            }
+            bitsPerComponent = bpcNumber.intValue();
+            components = colorSpace.getNumberOfComponents();
+            indexed = colorSpace instanceof PdfSpecialCs.Indexed;
+        }
+        boolean bilevel = bitsPerComponent == 1 && components == 1 && !indexed;
+        if (bitsPerComponent != 8 && !bilevel) {
+            return null;
+        }
+
+        // the resolution is kept high enough for the largest placement in both directions
+        float resolution = Math.min(width / placement[0], height / placement[1]);
+        // a tiny placement must not shrink the image below a single pixel
+        int factor = (int) Math.min(resolution / (bilevel ? bilevelTargetResolution : targetResolution),
+                Math.min(width, height));
+        if (factor < 2) {
+            return null;
+        }
+        byte[] samples = stream.getBytes(true);
+        int stride = bilevel ? (width + 7) / 8 : width * components;
+        if (samples == null || samples.length < stride * height) {
+            return null;
+        }
+        return new ImageTask(stream, samples, width, height, components, bilevel, indexed, factor);
+    }
+
+    private int processBatch(List<ImageTask> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (executor == null) {
+            for (ImageTask task : batch) {
+                task.call();
+            }
+        } else {
+            waitForTasks(batch);
+        }
+        int replaced = 0;
+        for (ImageTask task : batch) {
+            if (task.result.length < task.stream.getLength()) {
+                replaceImage(task);
+                ++replaced;
+            }
+        }
+        return replaced;
+    }
+
+    private void waitForTasks(List<ImageTask> batch) {
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(batch);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(e.getCause());
+        }
+    }
+
+    private static void replaceImage(ImageTask task) {
+        PdfStream stream = task.stream;
+        // the filters and their parameters are removed along with the old data
+        stream.setData(task.result);
+        stream.put(PdfName.Width, new PdfNumber(task.resultWidth));
+        stream.put(PdfName.Height, new PdfNumber(task.resultHeight));
+        PdfDictionary decodeParms = new PdfDictionary();
+        if (task.bilevel) {
+            stream.put(PdfName.Filter, PdfName.CCITTFaxDecode);
+            decodeParms.put(PdfName.K, new PdfNumber(-1));
+            decodeParms.put(PdfName.Columns, new PdfNumber(task.resultWidth));
+            decodeParms.put(PdfName.Rows, new PdfNumber(task.resultHeight));
+            decodeParms.put(PdfName.BlackIs1, PdfBoolean.TRUE);
+        } else {
+            stream.put(PdfName.Filter, PdfName.FlateDecode);
+            decodeParms.put(PdfName.Predictor, new PdfNumber(15));
+            decodeParms.put(PdfName.Colors, new PdfNumber(task.components));
+            decodeParms.put(PdfName.BitsPerComponent, new PdfNumber(8));
+            decodeParms.put(PdfName.Columns, new PdfNumber(task.resultWidth));
+        }
+        stream.put(PdfName.DecodeParms, decodeParms);
+        stream.setModified();
+    }
+
+    private static boolean isDecodable(PdfStream stream) {
+        PdfObject filter = stream.get(PdfName.Filter);
+        if (filter == null) {
+            return true;
+        }
+        if (filter.isName()) {
+            return DECODABLE_FILTERS.contains((PdfName) filter);
+        }
+        if (filter.isArray()) {
+            PdfArray filters = (PdfArray) filter;
+            for (int i = 0; i < filters.size(); ++i) {
+                PdfName name = filters.getAsName(i);
+                if (name == null || !DECODABLE_FILTERS.contains(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Downsamples the 8 bits per component samples: the colors of the blocks are averaged,
+     * the indexed images take the top left pixel of each block.
+     */
+    static byte[] downsample(byte[] samples, int width, int height, int components, boolean indexed, int factor,
+            int resultWidth, int resultHeight) {
+        byte[] result = new byte[resultWidth * resultHeight * components];
+        int[] sums = new int[resultWidth * components];
+        int[] counts = new int[resultWidth];
+        for (int y = 0; y < resultHeight; ++y) {
+            int rowStart = y * factor;
+            int rowEnd = Math.min(rowStart + (indexed ? 1 : factor), height);
+            for (int k = 0; k < sums.length; ++k) {
+                sums[k] = 0;
+            }
+            for (int k = 0; k < counts.length; ++k) {
+                counts[k] = 0;
+            }
+            for (int row = rowStart; row < rowEnd; ++row) {
+                int offset = row * width * components;
+                for (int x = 0; x < width; ++x) {
+                    int blockX = x / factor;
+                    if (indexed && x % factor != 0) {
+                        continue;
+                    }
+                    ++counts[blockX];
+                    for (int c = 0; c < components; ++c) {
+                        sums[blockX * components + c] += samples[offset + x * components + c] & 0xff;
+                    }
+                }
+            }
+            int resultOffset = y * resultWidth * components;
+            for (int x = 0; x < resultWidth; ++x) {
+                int count = counts[x];
+                for (int c = 0; c < components; ++c) {
+                    result[resultOffset + x * components + c] =
+                            (byte) ((sums[x * components + c] + count / 2) / count);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Downsamples the bilevel samples: a pixel of the result is 1 if more than a half of the block pixels are 1,
+     * so that the thin lines painted with 0, like the black text of the scanned pages, are kept.
+     */
+    static byte[] downsampleBilevel(byte[] samples, int width, int height, int factor,
+            int resultWidth, int resultHeight) {
+        int stride = (width + 7) / 8;
+        int resultStride = (resultWidth + 7) / 8;
+        byte[] result = new byte[resultStride * resultHeight];
+        int[] ones = new int[resultWidth];
+        int[] counts = new int[resultWidth];
+        for (int y = 0; y < resultHeight; ++y) {
+            int rowStart = y * factor;
+            int rowEnd = Math.min(rowStart + factor, height);
+            for (int k = 0; k < resultWidth; ++k) {
+                ones[k] = 0;
+                counts[k] = 0;
+            }
+            for (int row = rowStart; row < rowEnd; ++row) {
+                int offset = row * stride;
+                for (int x = 0; x < width; ++x) {
+                    int blockX = x / factor;
+                    ++counts[blockX];
+                    ones[blockX] += (samples[offset + (x >> 3)] >> (7 - (x & 7))) & 1;
+                }
+            }
+            int resultOffset = y * resultStride;
+            for (int x = 0; x < resultWidth; ++x) {
+                if (ones[x] * 2 > counts[x]) {
+                    result[resultOffset + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compresses the 8 bits per component samples with Flate, every row is preceded by the PNG filter which gives
+     * the smallest sum of the absolute differences: None, Sub or Up.
+     */
+    static byte[] compressWithPredictor(byte[] samples, int width, int height, int components) {
+        int stride = width * components;
+        byte[][] filtered = new byte[3][stride];
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(stream, CompressionConstants.BEST_COMPRESSION);
+        try {
+            for (int y = 0; y < height; ++y) {
+                int offset = y * stride;
+                long[] costs = new long[3];
+                for (int x = 0; x < stride; ++x) {
+                    int current = samples[offset + x] & 0xff;
+                    int left = x >= components ? samples[offset + x - components] & 0xff : 0;
+                    int up = y > 0 ? samples[offset - stride + x] & 0xff : 0;
+                    filtered[0][x] = (byte) current;
+                    filtered[1][x] = (byte) (current - left);
+                    filtered[2][x] = (byte) (current - up);
+                    for (int f = 0; f < 3; ++f) {
+                        costs[f] += Math.abs((int) filtered[f][x]);
+                    }
+                }
+                int best = 0;
+                for (int f = 1; f < 3; ++f) {
+                    if (costs[f] < costs[best]) {
+                        best = f;
+                    }
+                }
+                zip.write(best);
+                zip.write(filtered[best]);
+            }
+            zip.close();
+        } catch (java.io.IOException e) {
+            throw new PdfException(PdfException.IoException, e);
+        }
+        return stream.toByteArray();
+    }
+
+    private static class ImageTask implements Callable<Object> {
+        final PdfStream stream;
+        final int components;
+        final boolean bilevel;
+        private final byte[] samples;
+        private final int width;
+        private final int height;
+        private final boolean indexed;
+        private final int factor;
+        final int resultWidth;
+        final int resultHeight;
+        byte[] result;
+
+        ImageTask(PdfStream stream, byte[] samples, int width, int height, int components, boolean bilevel,
+                boolean indexed, int factor) {
+            this.stream = stream;
+            this.samples = samples;
+            this.width = width;
+            this.height = height;
+            this.components = components;
+            this.bilevel = bilevel;
+            this.indexed = indexed;
+            this.factor = factor;
+            this.resultWidth = (width + factor - 1) / factor;
+            this.resultHeight = (height + factor - 1) / factor;
+        }
+
+        @Override
+        public Object call() {
+            if (bilevel) {
+                byte[] downsampled = downsampleBilevel(samples, width, height, factor, resultWidth, resultHeight);
+                result = CCITTG4Encoder.compress(downsampled, resultWidth, resultHeight);
+            } else {
+                byte[] downsampled = downsample(samples, width, height, components, indexed, factor,
+                        resultWidth, resultHeight);
+                result = compressWithPredictor(downsampled, resultWidth, resultHeight, components);
+            }
+            return null;
+        }
+    }
+
+    private static class ImagePlacementListener implements IEventListener {
+        final Map<PdfIndirectReference, float[]> placements = new LinkedHashMap<>();
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            ImageRenderInfo renderInfo = (ImageRenderInfo) data;
+            if (renderInfo.isInline()) {
+                return;
+            }
+            PdfIndirectReference reference = renderInfo.getImage().getPdfObject().getIndirectReference();
+            if (reference == null) {
+                return;
+            }
+            // the unit square of the image space is mapped to the page, the size is converted to inches
+            Matrix ctm = renderInfo.getImageCtm();
+            float width = (float) Math.sqrt(ctm.get(Matrix.I11) * ctm.get(Matrix.I11)
+                    + ctm.get(Matrix.I12) * ctm.get(Matrix.I12)) / 72;
+            float height = (float) Math.sqrt(ctm.get(Matrix.I21) * ctm.get(Matrix.I21)
+                    + ctm.get(Matrix.I22) * ctm.get(Matrix.I22)) / 72;
+            // a degenerate placement paints nothing and says nothing about the needed resolution
+            if (!(width > 0 && height > 0) || Float.isInfinite(width) || Float.isInfinite(height)) {
+                return;
+            }
+            float[] placement = placements.get(reference);
+            if (placement == null) {
+                placements.put(reference, new float[] {width, height});
+            } else {
+                placement[0] = Math.max(placement[0], width);
+                placement[1] = Math.max(placement[1], height);
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(Collections.singletonList(EventType.RENDER_IMAGE)));
+        }
+    }
+}
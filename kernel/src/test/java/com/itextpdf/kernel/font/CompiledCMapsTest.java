@@ -0,0 +1,88 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.kernel.font;
+
+import com.itextpdf.io.font.FontCache;
+import com.itextpdf.io.font.cmap.CMapCompiler;
+import com.itextpdf.io.font.cmap.CMapLocationResource;
+import com.itextpdf.io.font.cmap.CMapParser;
+import com.itextpdf.io.font.cmap.CMapUniCid;
+import com.itextpdf.io.font.constants.FontResources;
+import com.itextpdf.io.util.ResourceUtil;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Checks the compiled CMaps of the font-asian module, which are loaded instead of parsing the CMaps.
+ */
+@Category(UnitTest.class)
+public class CompiledCMapsTest extends ExtendedITextTest {
+
+    @Test
+    public void compiledCmapsAreUpToDateTest() throws IOException {
+        int count = 0;
+        for (Map.Entry<String, Set<String>> registry : FontCache.getRegistryNames().entrySet()) {
+            if ("fonts".equals(registry.getKey())) {
+                continue;
+            }
+            for (String cmapName : registry.getValue()) {
+                ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+                CMapCompiler.compile(cmapName, new CMapLocationResource(), compiled);
+                Assert.assertArrayEquals(cmapName,
+                        readResource(cmapName + CMapCompiler.COMPILED_CMAP_EXTENSION), compiled.toByteArray());
+                count++;
+            }
+        }
+        Assert.assertTrue(count > 0);
+    }
+
+    @Test
+    public void compiledCmapIsLoadedTest() throws IOException {
+        CMapUniCid parsed = new CMapUniCid();
+        CMapParser.parseCid("UniJIS-UTF16-H", parsed, new CMapLocationResource());
+        CMapUniCid loaded = FontCache.getUni2CidCmap("UniJIS-UTF16-H");
+        for (int ch = 0; ch < 0x10000; ++ch) {
+            Assert.assertEquals(parsed.lookup(ch), loaded.lookup(ch));
+        }
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        InputStream stream = ResourceUtil.getResourceStream(FontResources.CMAPS + name);
+        Assert.assertNotNull(name, stream);
+        try {
+            return StreamUtil.inputStreamToArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+}
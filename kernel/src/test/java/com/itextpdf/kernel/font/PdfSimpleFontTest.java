@@ -265,6 +265,37 @@ public class PdfSimpleFontTest extends ExtendedITextTest {
         Assert.assertArrayEquals(new byte[]{OPEN_BRACKET_CODE, CLOSE_BRACKET_CODE}, bos.toByteArray());
     }
 
+    @Test
+    public void widthOfLatinTextTest() throws IOException {
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        String text = "H\u00e9llo, \u20acW\u00f6rld \u0416\ud835\udc00";
+
+        int expected = 0;
+        for (int i = 0; i < text.length(); i++) {
+            Glyph glyph = font.getGlyph(text.charAt(i));
+            if (glyph != null) {
+                expected += glyph.getWidth();
+            }
+        }
+        Assert.assertEquals(expected, font.getWidth(text));
+        Assert.assertEquals(font.getGlyph('H').getWidth(), font.getWidth('H'));
+        Assert.assertEquals(0, font.getWidth('\u0416'));
+    }
+
+    @Test
+    public void widthOfCustomGlyphTest() throws IOException {
+        PdfSimpleFont<FontProgram> fontToTest = new TestSimpleFont(FontEncoding.createEmptyFontEncoding());
+        Assert.assertEquals(88, fontToTest.getWidth("tee"));
+        Assert.assertEquals(44, fontToTest.getWidth(E_CODE));
+    }
+
+    @Test
+    public void convertLatinTextToBytesTest() throws IOException {
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        byte[] bytes = font.convertToBytes("H\u00e9\u20ac\u0416\u2022");
+        Assert.assertArrayEquals(new byte[]{'H', (byte) 0xe9, (byte) 0x80, (byte) 0x95}, bytes);
+    }
+
     private static class TestSimpleFont extends PdfSimpleFont<FontProgram> {
 
         public TestSimpleFont(FontEncoding fontEncoding) throws IOException {
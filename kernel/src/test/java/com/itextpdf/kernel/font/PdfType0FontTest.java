@@ -22,6 +22,7 @@
  */
 package com.itextpdf.kernel.font;
 
+import com.itextpdf.io.font.CFFFontSubset;
 import com.itextpdf.io.font.CMapEncoding;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.TrueTypeFont;
@@ -30,10 +31,13 @@ import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.UnitTest;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -97,4 +101,46 @@ public class PdfType0FontTest extends ExtendedITextTest {
         Assert.assertEquals(0, cmap.getSupplement());
         Assert.assertEquals(PdfEncodings.IDENTITY_H, cmap.getCmapName());
     }
+
+    @Test
+    public void cffSubsetFromFontSourceTest() throws IOException {
+        TrueTypeFont otf = new TrueTypeFont("./src/test/resources/com/itextpdf/kernel/pdf/fonts/Puritan2.otf");
+        Assert.assertTrue(otf.isCff());
+        Set<Integer> glyphs = new TreeSet<>();
+        for (char ch : "Puritan".toCharArray()) {
+            glyphs.add(otf.getGlyph(ch).getCode());
+        }
+
+        byte[] expected = new CFFFontSubset(otf.getFontStreamBytes(), new TreeSet<>(glyphs)).Process();
+        Assert.assertArrayEquals(expected, otf.getCffSubset(glyphs));
+        // the font data aren't retained by the font program
+        Assert.assertNotSame(otf.getFontStreamBytes(), otf.getFontStreamBytes());
+    }
+
+    @Test
+    public void toUnicodeIsSharedForSameGlyphsTest() throws IOException {
+        TrueTypeFont ttf = new TrueTypeFont(sourceFolder + "NotoSerif-Regular_v1.7.ttf");
+
+        PdfType0Font first = new PdfType0Font(ttf, PdfEncodings.IDENTITY_H);
+        first.convertToBytes("Hello World");
+        PdfStream firstToUnicode = first.getToUnicode();
+        Assert.assertEquals(1, CidFontDataCache.size(ttf));
+
+        PdfType0Font second = new PdfType0Font(ttf, PdfEncodings.IDENTITY_H);
+        second.convertToBytes("World Hello");
+        PdfStream secondToUnicode = second.getToUnicode();
+        // the same glyphs are used, so the cached CMap is taken
+        Assert.assertEquals(1, CidFontDataCache.size(ttf));
+        Assert.assertArrayEquals(firstToUnicode.getBytes(), secondToUnicode.getBytes());
+
+        String toUnicode = new String(secondToUnicode.getBytes(), "ISO-8859-1");
+        Assert.assertTrue(toUnicode.contains("8 beginbfrange\n"));
+        Assert.assertTrue(toUnicode.contains("<0048>\n"));
+    }
+
+    @Test
+    public void noToUnicodeWithoutUsedGlyphsTest() throws IOException {
+        TrueTypeFont ttf = new TrueTypeFont(sourceFolder + "NotoSerif-Regular_v1.7.ttf");
+        Assert.assertNull(new PdfType0Font(ttf, PdfEncodings.IDENTITY_H).getToUnicode());
+    }
 }
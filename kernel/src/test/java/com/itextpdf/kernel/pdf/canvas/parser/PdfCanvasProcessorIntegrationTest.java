@@ -43,14 +43,18 @@
 package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.kernel.KernelLogMessageConstant;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
@@ -60,15 +64,18 @@ import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
 import com.itextpdf.kernel.pdf.colorspace.PdfSpecialCs;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -220,6 +227,54 @@ public class PdfCanvasProcessorIntegrationTest extends ExtendedITextTest {
         }
     }
 
+    @Test
+    public void imagesAreSharedBetweenPlacementsTest() throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocumentWithRepeatedImage())));
+        RecordEveryImageRenderEvent listener = new RecordEveryImageRenderEvent();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(listener);
+        processor.setImageCacheEnabled(true);
+        for (int i = 1; i <= document.getNumberOfPages(); ++i) {
+            processor.processPageContent(document.getPage(i));
+        }
+
+        Assert.assertEquals(3, listener.renderInfos.size());
+        PdfImageXObject image = listener.renderInfos.get(0).getImage();
+        Assert.assertSame(image, listener.renderInfos.get(1).getImage());
+        Assert.assertSame(image, listener.renderInfos.get(2).getImage());
+        byte[] imageBytes = image.getImageBytes(true);
+        Assert.assertArrayEquals(imageBytes, listener.renderInfos.get(2).getImage().getImageBytes(true));
+        document.close();
+    }
+
+    @Test
+    public void imagesAreNotSharedByDefaultTest() throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocumentWithRepeatedImage())));
+        RecordEveryImageRenderEvent listener = new RecordEveryImageRenderEvent();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(listener);
+        processor.processPageContent(document.getPage(1));
+
+        Assert.assertEquals(2, listener.renderInfos.size());
+        ImageRenderInfo renderInfo = listener.renderInfos.get(0);
+        Assert.assertEquals(4, renderInfo.getImageDictionary().getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(PdfName.DeviceGray, renderInfo.getImageDictionary().getAsName(PdfName.ColorSpace));
+        Assert.assertNotSame(renderInfo.getImage(), listener.renderInfos.get(1).getImage());
+        Assert.assertSame(renderInfo.getImage(), renderInfo.getImage());
+        document.close();
+    }
+
+    private static byte[] createDocumentWithRepeatedImage() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfImageXObject image = new PdfImageXObject(ImageDataFactory.create(4, 2, 1, 8,
+                new byte[] {0, 64, (byte) 128, (byte) 255, (byte) 255, (byte) 128, 64, 0}, null));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.addXObject(image, new Rectangle(36, 36, 40, 20));
+        canvas.addXObject(image, new Rectangle(136, 36, 80, 40));
+        new PdfCanvas(document.addNewPage()).addXObject(image, new Rectangle(36, 36, 40, 20));
+        document.close();
+        return baos.toByteArray();
+    }
+
     private static class ColorParsingEventListener implements IEventListener {
         private List<IEventData> content = new ArrayList<>();
         private static final String pathDataExpected = "Path data expected.";
@@ -352,4 +407,18 @@ public class PdfCanvasProcessorIntegrationTest extends ExtendedITextTest {
             return null;
         }
     }
+
+    private static class RecordEveryImageRenderEvent implements IEventListener {
+        final List<ImageRenderInfo> renderInfos = new ArrayList<>();
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            renderInfos.add((ImageRenderInfo) data);
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return Collections.singleton(EventType.RENDER_IMAGE);
+        }
+    }
 }
@@ -65,6 +65,9 @@ import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -75,6 +78,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import java.util.Set;
+import javax.imageio.ImageIO;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -165,6 +169,33 @@ public class GetImageBytesTest extends ExtendedITextTest {
         testFile("JPXDecode.pdf", "Im1", "jp2");
     }
 
+    @Test
+    public void writeFlateRgbImageTest() throws Exception {
+        // the rows are decoded and written to the PNG one by one
+        testWriteImage("img_rgb.pdf", "Im1", "png");
+    }
+
+    @Test
+    public void writeFlateIndexedImageTest() throws Exception {
+        // the rows encoded with the PNG predictors are written as they are
+        testWriteImage("img_indexed.pdf", "Im1", "png");
+    }
+
+    @Test
+    public void writeFlateRgbIccImageTest() throws Exception {
+        testWriteImage("img_rgb_icc.pdf", "Im1", "png");
+    }
+
+    @Test
+    public void writeDctImageTest() throws Exception {
+        testWriteImage("dctdecode.pdf", "im1", "jpg");
+    }
+
+    @Test
+    public void writeJpxImageTest() throws Exception {
+        testWriteImage("JPXDecode.pdf", "Im1", "jp2");
+    }
+
     @Test
     public void extractByteAlignedG4TiffImageTest() throws IOException {
         String inFileName = sourceFolder + "extractByteAlignedG4TiffImage.pdf";
@@ -236,16 +267,47 @@ public class GetImageBytesTest extends ExtendedITextTest {
         }
     }
 
-    private void testFile(String filename, String objectid, String expectedImageFormat) throws Exception {
+    private void testWriteImage(String filename, String objectid, String expectedImageFormat) throws Exception {
         PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + filename));
         try {
-            PdfResources resources = pdfDocument.getPage(1).getResources();
-            PdfDictionary xobjects = resources.getResource(PdfName.XObject);
-            PdfObject obj = xobjects.get(new PdfName(objectid));
-            if (obj == null) {
-                throw new IllegalArgumentException("Reference " + objectid + " not found - Available keys are " + xobjects.keySet());
+            PdfImageXObject img = getImage(pdfDocument, objectid);
+            Assert.assertEquals(expectedImageFormat, img.identifyImageFileExtension());
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            img.writeImage(result);
+            byte[] cmpBytes = Files.readAllBytes(Paths.get(sourceFolder, filename.substring(0, filename.length() - 4) + "." + expectedImageFormat));
+
+            if ("png".equals(expectedImageFormat)) {
+                // the PNG data may be compressed differently, so the pixels are compared
+                BufferedImage cmpImage = ImageIO.read(new ByteArrayInputStream(cmpBytes));
+                BufferedImage resultImage = ImageIO.read(new ByteArrayInputStream(result.toByteArray()));
+                Assert.assertEquals(cmpImage.getWidth(), resultImage.getWidth());
+                Assert.assertEquals(cmpImage.getHeight(), resultImage.getHeight());
+                Assert.assertArrayEquals(
+                        cmpImage.getRGB(0, 0, cmpImage.getWidth(), cmpImage.getHeight(), null, 0, cmpImage.getWidth()),
+                        resultImage.getRGB(0, 0, resultImage.getWidth(), resultImage.getHeight(), null, 0, resultImage.getWidth()));
+            } else {
+                Assert.assertArrayEquals(cmpBytes, result.toByteArray());
             }
-            PdfImageXObject img = new PdfImageXObject((PdfStream) (obj.isIndirectReference() ? ((PdfIndirectReference) obj).getRefersTo() : obj));
+        } finally {
+            pdfDocument.close();
+        }
+    }
+
+    private PdfImageXObject getImage(PdfDocument pdfDocument, String objectid) {
+        PdfResources resources = pdfDocument.getPage(1).getResources();
+        PdfDictionary xobjects = resources.getResource(PdfName.XObject);
+        PdfObject obj = xobjects.get(new PdfName(objectid));
+        if (obj == null) {
+            throw new IllegalArgumentException("Reference " + objectid + " not found - Available keys are " + xobjects.keySet());
+        }
+        return new PdfImageXObject((PdfStream) (obj.isIndirectReference() ? ((PdfIndirectReference) obj).getRefersTo() : obj));
+    }
+
+    private void testFile(String filename, String objectid, String expectedImageFormat) throws Exception {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + filename));
+        try {
+            PdfImageXObject img = getImage(pdfDocument, objectid);
             Assert.assertEquals(expectedImageFormat, img.identifyImageFileExtension());
 
 
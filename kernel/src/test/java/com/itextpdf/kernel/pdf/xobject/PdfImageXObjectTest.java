@@ -42,18 +42,28 @@
  */
 package com.itextpdf.kernel.pdf.xobject;
 
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.util.UrlUtil;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -160,6 +170,122 @@ public class PdfImageXObjectTest extends ExtendedITextTest {
                 sourceFolder + "sRGBImage.png");
     }
 
+    @Test
+    public void sameImageDataIsWrittenOnceTest() throws IOException {
+        String filename = destinationFolder + "sameImageDataIsWrittenOnce.pdf";
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filename));
+        PdfXObject firstImage = null;
+        for (int i = 0; i < 3; i++) {
+            // the image data are created anew for every page, as if the image were read over and over again
+            PdfXObject image = new PdfCanvas(pdfDoc.addNewPage())
+                    .addImageAt(ImageDataFactory.create(sourceFolder + "graya8Bpc.png"), 50, 500, false);
+            if (firstImage == null) {
+                firstImage = image;
+            }
+            Assert.assertSame(firstImage, image);
+        }
+        pdfDoc.close();
+
+        PdfDocument outDoc = new PdfDocument(new PdfReader(filename));
+        PdfStream firstStream = getFirstImageStream(outDoc.getPage(1));
+        for (int i = 2; i <= 3; i++) {
+            Assert.assertEquals(firstStream.getIndirectReference(), getFirstImageStream(outDoc.getPage(i)).getIndirectReference());
+        }
+        outDoc.close();
+    }
+
+    @Test
+    public void sameImageDataAddedAfterFlushTest() throws IOException {
+        String filename = destinationFolder + "sameImageDataAddedAfterFlush.pdf";
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filename));
+        new PdfCanvas(pdfDoc.addNewPage()).addImageWithTransformationMatrix(
+                ImageDataFactory.create(sourceFolder + "indexed.png"), 346, 0, 0, 346, 50, 500, false);
+        pdfDoc.getFirstPage().flush();
+        new PdfCanvas(pdfDoc.addNewPage()).addImageWithTransformationMatrix(
+                ImageDataFactory.create(sourceFolder + "indexed.png"), 346, 0, 0, 346, 50, 500, false);
+        pdfDoc.close();
+
+        PdfDocument outDoc = new PdfDocument(new PdfReader(filename));
+        PdfStream firstStream = getFirstImageStream(outDoc.getPage(1));
+        PdfStream secondStream = getFirstImageStream(outDoc.getPage(2));
+        Assert.assertEquals(firstStream.getIndirectReference(), secondStream.getIndirectReference());
+        Assert.assertNotNull(secondStream.getBytes());
+        outDoc.close();
+    }
+
+    @Test
+    public void imageXObjectsOfCallerAreNotSharedTest() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage());
+        PdfImageXObject firstImage = new PdfImageXObject(ImageDataFactory.create(sourceFolder + "graya8Bpc.png"));
+        PdfImageXObject secondImage = new PdfImageXObject(ImageDataFactory.create(sourceFolder + "graya8Bpc.png"));
+        canvas.addXObjectAt(firstImage, 0, 0);
+        canvas.addXObjectAt(secondImage, 0, 0);
+        // the caller may still modify both image XObjects, so each of them is written as it is
+        PdfDictionary xObjects = pdfDoc.getFirstPage().getResources().getResource(PdfName.XObject);
+        Assert.assertEquals(2, xObjects.size());
+        Assert.assertTrue(xObjects.containsValue(firstImage.getPdfObject()));
+        Assert.assertTrue(xObjects.containsValue(secondImage.getPdfObject()));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void differentImagesAreNotSharedTest() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage());
+        PdfXObject grayImage = canvas.addImageAt(ImageDataFactory.create(sourceFolder + "grayscale16Bpc.png"), 0, 0, false);
+        PdfXObject rgbImage = canvas.addImageAt(ImageDataFactory.create(sourceFolder + "rgb16Bpc.png"), 0, 0, false);
+        Assert.assertNotSame(grayImage, rgbImage);
+        Assert.assertNotEquals(grayImage.getPdfObject().getIndirectReference(), rgbImage.getPdfObject().getIndirectReference());
+        pdfDoc.close();
+    }
+
+    @Test
+    public void differentImagePropertiesAreNotSharedTest() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage());
+        ImageData interpolatedImage = ImageDataFactory.create(sourceFolder + "graya8Bpc.png");
+        interpolatedImage.setInterpolation(true);
+        PdfXObject image = canvas.addImageAt(ImageDataFactory.create(sourceFolder + "graya8Bpc.png"), 0, 0, false);
+        PdfXObject interpolated = canvas.addImageAt(interpolatedImage, 0, 0, false);
+        // the same bytes are written into different image XObjects
+        Assert.assertNotSame(image, interpolated);
+        Assert.assertNotEquals(image.getPdfObject().getIndirectReference(), interpolated.getPdfObject().getIndirectReference());
+        pdfDoc.close();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.IMAGE_IS_STREAMED))
+    public void streamedJpegImageTest() throws IOException {
+        String filename = destinationFolder + "streamedJpegImage.pdf";
+        String image = sourceFolder + "image.jpg";
+        ImageData imageData = ImageDataFactory.createJpeg(UrlUtil.toURL(image), true);
+        Assert.assertTrue(imageData.isDataStreamed());
+        Assert.assertNull(imageData.getData());
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filename));
+        new PdfCanvas(pdfDoc.addNewPage()).addImageAt(imageData, 50, 500, false);
+        pdfDoc.getFirstPage().flush();
+        // the streamed image is neither shared nor inlined
+        new PdfCanvas(pdfDoc.addNewPage()).addImageAt(imageData, 50, 500, true);
+        pdfDoc.close();
+
+        byte[] imageBytes = Files.readAllBytes(Paths.get(image));
+        PdfDocument outDoc = new PdfDocument(new PdfReader(filename));
+        for (int i = 1; i <= 2; i++) {
+            PdfStream stream = getFirstImageStream(outDoc.getPage(i));
+            Assert.assertEquals(PdfName.DCTDecode, stream.getAsName(PdfName.Filter));
+            Assert.assertEquals(imageBytes.length, stream.getAsNumber(PdfName.Length).intValue());
+            Assert.assertArrayEquals(imageBytes, stream.getBytes(false));
+        }
+        outDoc.close();
+    }
+
+    private static PdfStream getFirstImageStream(PdfPage page) {
+        PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+        return xObjects.getAsStream(xObjects.keySet().iterator().next());
+    }
+
     private void convertAndCompare(String outFilename, String cmpFilename, String imageFilename)
             throws IOException {
         PdfDocument pdfDoc = new PdfDocument(new PdfWriter(outFilename));
@@ -0,0 +1,214 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Category(IntegrationTest.class)
+public class PdfImageOptimizerTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/utils/PdfImageOptimizerTest/";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void downsampleGrayAndBilevelImagesTest() throws IOException {
+        String srcFileName = destinationFolder + "highResolutionImages.pdf";
+        String outFileName = destinationFolder + "downsampleGrayAndBilevelImages.pdf";
+        createDocumentWithImages(srcFileName, 144);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(srcFileName), new PdfWriter(outFileName));
+        Assert.assertEquals(2, new PdfImageOptimizer(pdfDocument).optimize());
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(outFileName));
+        PdfStream gray = getImage(pdfDocument, "Im1");
+        // 1200 pixels on 2 inches are 600 dpi, downsampled 4 times to 150 dpi
+        Assert.assertEquals(300, gray.getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(300, gray.getAsNumber(PdfName.Height).intValue());
+        Assert.assertEquals(PdfName.FlateDecode, gray.getAsName(PdfName.Filter));
+        byte[] graySamples = gray.getBytes(true);
+        Assert.assertEquals(300 * 300, graySamples.length);
+        // the block of the 4x4 pixels starting at (8, 4) is averaged
+        Assert.assertEquals((8 + 4 + 3) & 0xff, graySamples[300 + 2] & 0xff);
+
+        PdfStream bilevel = getImage(pdfDocument, "Im2");
+        // 2400 pixels on 2 inches are 1200 dpi, downsampled 4 times to 300 dpi
+        Assert.assertEquals(600, bilevel.getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(600, bilevel.getAsNumber(PdfName.Height).intValue());
+        Assert.assertEquals(PdfName.CCITTFaxDecode, bilevel.getAsName(PdfName.Filter));
+        byte[] bilevelSamples = bilevel.getBytes(true);
+        Assert.assertEquals(75 * 600, bilevelSamples.length);
+        Assert.assertEquals(0x00, bilevelSamples[300 * 75 + 37] & 0xff);
+        Assert.assertEquals(0xff, bilevelSamples[10 * 75 + 37] & 0xff);
+        pdfDocument.close();
+    }
+
+    @Test
+    public void imagesWithTargetResolutionAreKeptTest() throws IOException {
+        String srcFileName = destinationFolder + "lowResolutionImages.pdf";
+        String outFileName = destinationFolder + "imagesWithTargetResolutionAreKept.pdf";
+        // 1200 pixels on 6 inches are 200 dpi, 2400 pixels are 400 dpi
+        createDocumentWithImages(srcFileName, 432);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(srcFileName), new PdfWriter(outFileName));
+        Assert.assertEquals(0, new PdfImageOptimizer(pdfDocument).optimize());
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertEquals(1200, getImage(pdfDocument, "Im1").getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(2400, getImage(pdfDocument, "Im2").getAsNumber(PdfName.Width).intValue());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void downsampleImagesConcurrentlyTest() throws IOException {
+        String srcFileName = destinationFolder + "highResolutionImagesConcurrently.pdf";
+        String outFileName = destinationFolder + "downsampleImagesConcurrently.pdf";
+        createDocumentWithImages(srcFileName, 144);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PdfDocument pdfDocument = new PdfDocument(new PdfReader(srcFileName), new PdfWriter(outFileName));
+            int optimized = new PdfImageOptimizer(pdfDocument)
+                    .setTargetResolution(300)
+                    .setExecutor(executor, 2)
+                    .optimize();
+            Assert.assertEquals(2, optimized);
+            pdfDocument.close();
+        } finally {
+            executor.shutdown();
+        }
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertEquals(600, getImage(pdfDocument, "Im1").getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(600, getImage(pdfDocument, "Im2").getAsNumber(PdfName.Width).intValue());
+        pdfDocument.close();
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.FAILED_TO_PROCESS_A_TRANSFORMATION_MATRIX, count = 1))
+    public void degeneratePlacementsAreIgnoredTest() throws IOException {
+        String srcFileName = destinationFolder + "degeneratePlacements.pdf";
+        String outFileName = destinationFolder + "degeneratePlacementsAreIgnored.pdf";
+        ImageData collapsed = ImageDataFactory.create(64, 64, 1, 8, new byte[64 * 64], null);
+        byte[] samples = new byte[64 * 64];
+        Arrays.fill(samples, (byte) 0x80);
+        ImageData tiny = ImageDataFactory.create(64, 64, 1, 8, samples, null);
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(srcFileName));
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        // the first image is only painted collapsed to a point, the second one on a tiny square
+        canvas.addXObjectWithTransformationMatrix(new PdfImageXObject(collapsed), 0, 0, 0, 0, 36, 36);
+        canvas.addXObjectWithTransformationMatrix(new PdfImageXObject(tiny), 0.01f, 0, 0, 0.01f, 72, 36);
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(srcFileName), new PdfWriter(outFileName));
+        Assert.assertEquals(1, new PdfImageOptimizer(pdfDocument).optimize());
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertEquals(64, getImage(pdfDocument, "Im1").getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(64, getImage(pdfDocument, "Im1").getAsNumber(PdfName.Height).intValue());
+        Assert.assertEquals(1, getImage(pdfDocument, "Im2").getAsNumber(PdfName.Width).intValue());
+        Assert.assertEquals(1, getImage(pdfDocument, "Im2").getAsNumber(PdfName.Height).intValue());
+        byte[] tinySamples = getImage(pdfDocument, "Im2").getBytes(true);
+        Assert.assertEquals(1, tinySamples.length);
+        Assert.assertEquals(0x80, tinySamples[0] & 0xff);
+        pdfDocument.close();
+    }
+
+    private static void createDocumentWithImages(String fileName, float imageSize) throws IOException {
+        byte[] graySamples = new byte[1200 * 1200];
+        for (int y = 0; y < 1200; ++y) {
+            for (int x = 0; x < 1200; ++x) {
+                graySamples[y * 1200 + x] = (byte) (x + y);
+            }
+        }
+        // a white page with a black square in the middle
+        byte[] bilevelSamples = new byte[300 * 2400];
+        for (int y = 0; y < 2400; ++y) {
+            for (int x = 0; x < 300; ++x) {
+                boolean black = y >= 800 && y < 1600 && x >= 100 && x < 200;
+                bilevelSamples[y * 300 + x] = black ? (byte) 0x00 : (byte) 0xff;
+            }
+        }
+        ImageData gray = ImageDataFactory.create(1200, 1200, 1, 8, graySamples, null);
+        ImageData bilevel = ImageDataFactory.create(2400, 2400, 1, 1, bilevelSamples, null);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(fileName));
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        canvas.addXObject(new PdfImageXObject(gray), new Rectangle(36, 36, imageSize, imageSize));
+        canvas.addXObject(new PdfImageXObject(bilevel), new Rectangle(36 + imageSize, 36, imageSize, imageSize));
+        pdfDocument.close();
+    }
+
+    private static PdfStream getImage(PdfDocument pdfDocument, String name) {
+        return pdfDocument.getPage(1).getResources().getResource(PdfName.XObject).getAsStream(new PdfName(name));
+    }
+}
@@ -46,6 +46,7 @@ package com.itextpdf.layout.element;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.canvas.wmf.WmfImageData;
 import com.itextpdf.kernel.pdf.tagging.StandardRoles;
 import com.itextpdf.kernel.pdf.tagutils.DefaultAccessibilityProperties;
@@ -70,6 +71,7 @@ import org.slf4j.LoggerFactory;
 public class Image extends AbstractElement<Image> implements ILeafElement, IAccessibleElement {
 
     protected PdfXObject xObject;
+    private ImageData imageData;
     protected DefaultAccessibilityProperties tagProperties;
 
     /**
@@ -158,7 +160,7 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @param img an internal representation of the {@link com.itextpdf.io.image.ImageData image resource}
      */
     public Image(ImageData img) {
-        this(new PdfImageXObject(checkImageType(img)));
+        this.imageData = checkImageType(img);
         setProperty(Property.FLUSH_ON_DRAW, true);
     }
 
@@ -171,8 +173,10 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @param bottom a float value representing the vertical offset of the lower left corner of the image
      */
     public Image(ImageData img, float left, float bottom) {
-        this(new PdfImageXObject(checkImageType(img)), left, bottom);
-        setProperty(Property.FLUSH_ON_DRAW, true);
+        this(img);
+        setProperty(Property.LEFT, left);
+        setProperty(Property.BOTTOM, bottom);
+        setProperty(Property.POSITION, LayoutPosition.FIXED);
     }
 
     /**
@@ -185,19 +189,48 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @param width  a float value
      */
     public Image(ImageData img, float left, float bottom, float width) {
-        this(new PdfImageXObject(checkImageType(img)), left, bottom, width);
-        setProperty(Property.FLUSH_ON_DRAW, true);
+        this(img, left, bottom);
+        setWidth(width);
     }
 
     /**
-     * Gets the XObject contained in this image object
+     * Gets the XObject contained in this image object. If the image is created from {@link ImageData},
+     * the image XObject is created on the first call, and it isn't shared with other images.
      *
      * @return a {@link PdfXObject}
      */
     public PdfXObject getXObject() {
+        if (xObject == null) {
+            xObject = new PdfImageXObject(imageData);
+        }
+        return xObject;
+    }
+
+    /**
+     * Gets the XObject of this image to be drawn in the given document. If the image is created from
+     * {@link ImageData} and its XObject hasn't been created yet, the image XObject of the document for these
+     * image data is used, see {@link PdfDocument#getImageXObject(ImageData)}. So the same image added
+     * over and over again is created and written only once.
+     *
+     * @param document the document the image is drawn in
+     * @return a {@link PdfXObject}
+     */
+    public PdfXObject getXObject(PdfDocument document) {
+        if (xObject == null) {
+            xObject = document.getImageXObject(imageData);
+        }
         return xObject;
     }
 
+    /**
+     * Gets the image data this image is created from.
+     *
+     * @return the {@link ImageData}, or null if the image is created from an XObject
+     */
+    public ImageData getImageData() {
+        return imageData;
+    }
+
     /**
      * Sets the rotation radAngle.
      *
@@ -440,8 +473,8 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @return this element
      */
     public Image scaleToFit(float fitWidth, float fitHeight) {
-        float horizontalScaling = fitWidth / xObject.getWidth();
-        float verticalScaling = fitHeight / xObject.getHeight();
+        float horizontalScaling = fitWidth / getImageWidth();
+        float verticalScaling = fitHeight / getImageHeight();
         return scale(Math.min(horizontalScaling, verticalScaling), Math.min(horizontalScaling, verticalScaling));
     }
 
@@ -454,8 +487,8 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @return this element
      */
     public Image scaleAbsolute(float fitWidth, float fitHeight) {
-        float horizontalScaling = fitWidth / xObject.getWidth();
-        float verticalScaling = fitHeight / xObject.getHeight();
+        float horizontalScaling = fitWidth / getImageWidth();
+        float verticalScaling = fitHeight / getImageHeight();
         return scale(horizontalScaling, verticalScaling);
     }
 
@@ -547,7 +580,7 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @return the original width of the image
      */
     public float getImageWidth() {
-        return xObject.getWidth();
+        return xObject == null ? imageData.getWidth() : xObject.getWidth();
     }
 
     /**
@@ -557,7 +590,7 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      * @return the original height of the image
      */
     public float getImageHeight() {
-        return xObject.getHeight();
+        return xObject == null ? imageData.getHeight() : xObject.getHeight();
     }
 
     /**
@@ -715,8 +748,8 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      */
     public float getImageScaledWidth() {
         return null == this.<Float>getProperty(Property.HORIZONTAL_SCALING) ?
-                xObject.getWidth() :
-                xObject.getWidth() * (float) this.<Float>getProperty(Property.HORIZONTAL_SCALING);
+                getImageWidth() :
+                getImageWidth() * (float) this.<Float>getProperty(Property.HORIZONTAL_SCALING);
     }
 
     /**
@@ -726,8 +759,8 @@ public class Image extends AbstractElement<Image> implements ILeafElement, IAcce
      */
     public float getImageScaledHeight() {
         return null == this.<Float>getProperty(Property.VERTICAL_SCALING) ?
-                xObject.getHeight() :
-                xObject.getHeight() * (float) this.<Float>getProperty(Property.VERTICAL_SCALING);
+                getImageHeight() :
+                getImageHeight() * (float) this.<Float>getProperty(Property.VERTICAL_SCALING);
     }
 
     /**
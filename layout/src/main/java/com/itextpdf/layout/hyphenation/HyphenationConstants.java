@@ -45,4 +45,11 @@ package com.itextpdf.layout.hyphenation;
 public class HyphenationConstants {
 
     public static final String HYPHENATION_DEFAULT_RESOURCE = "com/itextpdf/hyph/";
+
+    /**
+     * The extension of the files containing hyphenation patterns in the compact binary form,
+     * see {@link HyphenationTree#writeBinaryPatterns(java.io.OutputStream)}. Such files are preferred
+     * over the XML pattern files with the same name, since they don't need to be parsed.
+     */
+    public static final String BINARY_PATTERNS_EXTENSION = ".hyb";
 }
@@ -17,16 +17,26 @@
 
 package com.itextpdf.layout.hyphenation;
 
+import com.itextpdf.io.source.DeflaterOutputStream;
+import com.itextpdf.io.util.FilterUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
 
 /**
  * This tree structure stores the hyphenation patterns in an efficient
@@ -39,6 +49,12 @@ public class HyphenationTree extends TernaryTree implements IPatternConsumer {
 
     private static final long serialVersionUID = -7842107987915665573L;
 
+    private static final int BINARY_PATTERNS_MAGIC = 0x48595054;
+    private static final int BINARY_PATTERNS_VERSION = 2;
+
+    private static final int STOPLIST_STRING = 0;
+    private static final int STOPLIST_HYPHEN = 1;
+
     /**
      * value space: stores the interletter values
      */
@@ -158,6 +174,92 @@ public class HyphenationTree extends TernaryTree implements IPatternConsumer {
         ivalues = null;
     }
 
+    /**
+     * Read hyphenation patterns in the compact binary form written by {@link #writeBinaryPatterns(OutputStream)}.
+     * Unlike {@link #loadPatterns(InputStream, String)}, no XML parsing and no tree optimization is
+     * performed, so this is the fastest way to get a hyphenation tree.
+     * @param stream the stream to read the patterns from
+     * @param name unique key representing country-language combination
+     * @throws HyphenationException In case the stream doesn't contain the patterns of the supported format
+     */
+    public void loadBinaryPatterns(InputStream stream, String name) throws HyphenationException {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+            if (in.readInt() != BINARY_PATTERNS_MAGIC) {
+                throw new HyphenationException(name + " doesn't contain hyphenation patterns");
+            }
+            int version = in.readInt();
+            if (version != BINARY_PATTERNS_VERSION) {
+                throw new HyphenationException("Unsupported version " + version + " of the hyphenation patterns " + name);
+            }
+            in = new DataInputStream(new BufferedInputStream(FilterUtil.getInflaterInputStream(in)));
+            readTree(in);
+            classmap.readTree(in);
+            byte[] values = new byte[in.readInt()];
+            in.readFully(values);
+            vspace = new ByteVector(values, values.length);
+            // the byte vector constructor leaves the vector empty, so the values are allocated explicitly
+            vspace.alloc(values.length);
+            vspace.trimToSize();
+            int stoplistSize = in.readInt();
+            stoplist = new HashMap<>(stoplistSize);
+            for (int i = 0; i < stoplistSize; i++) {
+                String word = in.readUTF();
+                int partsCount = in.readInt();
+                List<Object> parts = new ArrayList<>(partsCount);
+                for (int j = 0; j < partsCount; j++) {
+                    if (in.readByte() == STOPLIST_STRING) {
+                        parts.add(in.readUTF());
+                    } else {
+                        parts.add(new Hyphen(readNullableString(in), readNullableString(in), readNullableString(in)));
+                    }
+                }
+                stoplist.put(word, parts);
+            }
+        } catch (IOException e) {
+            throw new HyphenationException("Can't read hyphenation patterns " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write hyphenation patterns in the compact binary form, which can be read with
+     * {@link #loadBinaryPatterns(InputStream, String)}. Everything after the header is deflated.
+     * @param stream the stream to write the patterns to, it's not closed by this method
+     * @throws IOException In case of an I/O error
+     */
+    public void writeBinaryPatterns(OutputStream stream) throws IOException {
+        DataOutputStream header = new DataOutputStream(stream);
+        header.writeInt(BINARY_PATTERNS_MAGIC);
+        header.writeInt(BINARY_PATTERNS_VERSION);
+        header.flush();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(stream, Deflater.BEST_COMPRESSION);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(deflater));
+        writeTree(out);
+        classmap.writeTree(out);
+        out.writeInt(vspace.length());
+        out.write(vspace.getArray(), 0, vspace.length());
+        out.writeInt(stoplist.size());
+        // sorted, so that the same patterns always produce the same bytes
+        for (Map.Entry<String, List> entry : new TreeMap<>(stoplist).entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Object part : entry.getValue()) {
+                if (part instanceof Hyphen) {
+                    Hyphen hyphen = (Hyphen) part;
+                    out.writeByte(STOPLIST_HYPHEN);
+                    writeNullableString(out, hyphen.preBreak);
+                    writeNullableString(out, hyphen.noBreak);
+                    writeNullableString(out, hyphen.postBreak);
+                } else {
+                    out.writeByte(STOPLIST_STRING);
+                    out.writeUTF((String) part);
+                }
+            }
+        }
+        out.flush();
+        deflater.finish();
+    }
+
     /**
      * Find pattern.
      * @param pat a pattern
@@ -620,4 +722,15 @@ public class HyphenationTree extends TernaryTree implements IPatternConsumer {
         insert(pattern, (char)k);
     }
 
+
+    private static void writeNullableString(DataOutputStream out, String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            out.writeUTF(str);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
 }
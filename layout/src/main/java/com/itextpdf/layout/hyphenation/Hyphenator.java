@@ -192,36 +192,52 @@ public final class Hyphenator {
 
         HyphenationTree hTree;
         // first try to find it in the cache
-        hTree = getHyphenationTreeCache().getHyphenationTree(lang, country);
+        hTree = cache.getHyphenationTree(lang, country);
         if (hTree != null) {
             return hTree;
         }
 
-        String key = HyphenationTreeCache.constructUserKey(lang, country, hyphPathNames);
-        if (key == null) {
-            key = llccKey;
-        }
+        // the patterns are loaded once even if several threads request them simultaneously
+        synchronized (cache) {
+            hTree = cache.getHyphenationTree(lang, country);
+            if (hTree != null) {
+                return hTree;
+            }
 
-        if (additionalHyphenationFileDirectories != null) {
-            for (String dir : additionalHyphenationFileDirectories) {
-                hTree = getHyphenationTree(dir, key);
-                if (hTree != null) {
-                    break;
+            String key = HyphenationTreeCache.constructUserKey(lang, country, hyphPathNames);
+            if (key == null) {
+                key = llccKey;
+            }
+
+            if (additionalHyphenationFileDirectories != null) {
+                for (String dir : additionalHyphenationFileDirectories) {
+                    hTree = getHyphenationTree(dir, key);
+                    if (hTree != null) {
+                        break;
+                    }
                 }
             }
-        }
 
-        if (hTree == null) {
-            // get from the default directory
-            InputStream defaultHyphenationResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + key + ".xml");
-            if (defaultHyphenationResourceStream != null) {
-                hTree = getHyphenationTree(defaultHyphenationResourceStream, key);
+            if (hTree == null) {
+                // get from the default directory, the precompiled patterns are preferred
+                String binaryName = key + HyphenationConstants.BINARY_PATTERNS_EXTENSION;
+                InputStream binaryResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + binaryName);
+                if (binaryResourceStream != null) {
+                    hTree = getBinaryHyphenationTree(binaryResourceStream, binaryName);
+                }
             }
-        }
 
-        // put it into the pattern cache
-        if (hTree != null) {
-            cache.cache(llccKey, hTree);
+            if (hTree == null) {
+                InputStream defaultHyphenationResourceStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + key + ".xml");
+                if (defaultHyphenationResourceStream != null) {
+                    hTree = getHyphenationTree(defaultHyphenationResourceStream, key);
+                }
+            }
+
+            // put it into the pattern cache
+            if (hTree != null) {
+                cache.cache(llccKey, hTree);
+            }
         }
 
         return hTree;
@@ -235,6 +251,21 @@ public final class Hyphenator {
      * @return the requested HyphenationTree or null if it is not available
      */
     public static HyphenationTree getHyphenationTree(String searchDirectory, String key) {
+        // try the precompiled patterns first
+        File binaryFile = new File(searchDirectory, key + HyphenationConstants.BINARY_PATTERNS_EXTENSION);
+        if (binaryFile.isFile()) {
+            try {
+                HyphenationTree hTree = getBinaryHyphenationTree(new FileInputStream(binaryFile), binaryFile.getName());
+                if (hTree != null) {
+                    return hTree;
+                }
+            } catch (IOException ioe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("I/O problem while trying to load " + binaryFile.getName() + ": " + ioe.getMessage());
+                }
+            }
+        }
+
         // try the raw XML file
         String name = key + ".xml";
         try {
@@ -276,6 +307,35 @@ public final class Hyphenator {
         return hTree;
     }
 
+    /**
+     * Load tree from the stream containing the patterns in the compact binary form,
+     * see {@link HyphenationTree#writeBinaryPatterns(java.io.OutputStream)}.
+     *
+     * @param in the input stream to load the tree from
+     * @param name the name of the patterns source, used in the error messages
+     * @return the requested HyphenationTree or null if it is not available
+     */
+    public static HyphenationTree getBinaryHyphenationTree(InputStream in, String name) {
+        if (in == null) {
+            return null;
+        }
+        HyphenationTree hTree;
+        try {
+            hTree = new HyphenationTree();
+            hTree.loadBinaryPatterns(in, name);
+        }
+        catch (HyphenationException ex) {
+            log.error("Can't load precompiled patterns from " + name + ": " + ex.getMessage());
+            return null;
+        }
+        finally {
+            try {
+                in.close();
+            } catch (Exception ignored) {}
+        }
+        return hTree;
+    }
+
     /**
      * Hyphenates a word.
      *
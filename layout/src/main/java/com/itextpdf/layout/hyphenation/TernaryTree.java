@@ -21,6 +21,9 @@
 
 package com.itextpdf.layout.hyphenation;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Enumeration;
 
@@ -581,6 +584,84 @@ public class TernaryTree implements Serializable {
         }
     }
 
+    /**
+     * Writes the tree in the compact binary form. Only the used part of the node arrays is written,
+     * so the tree shall be {@link #trimToSize() trimmed} beforehand to get the most compact form.
+     * Child node pointers are written relative to their parent node, as they are mostly close to it,
+     * which makes the output compress much better.
+     *
+     * @param out the stream to write the tree to
+     * @throws IOException if an I/O error occurs
+     */
+    protected void writeTree(DataOutputStream out) throws IOException {
+        out.writeChar(root);
+        out.writeChar(freenode);
+        out.writeInt(length);
+        writeChars(out, sc, freenode);
+        // lo and eq of the string terminator and compressed branch nodes aren't node pointers
+        for (int i = 0; i < freenode; i++) {
+            out.writeChar(isInnerNode(i) ? toRelative(lo[i], i) : lo[i]);
+        }
+        for (int i = 0; i < freenode; i++) {
+            out.writeChar(toRelative(hi[i], i));
+        }
+        for (int i = 0; i < freenode; i++) {
+            out.writeChar(isInnerNode(i) ? toRelative(eq[i], i) : eq[i]);
+        }
+        out.writeInt(kv.length());
+        writeChars(out, kv.getArray(), kv.length());
+    }
+
+    /**
+     * Replaces the content of the tree with the one written by {@link #writeTree(DataOutputStream)}.
+     *
+     * @param in the stream to read the tree from
+     * @throws IOException if an I/O error occurs
+     */
+    protected void readTree(DataInputStream in) throws IOException {
+        root = in.readChar();
+        freenode = in.readChar();
+        length = in.readInt();
+        sc = readChars(in, freenode);
+        lo = readChars(in, freenode);
+        hi = readChars(in, freenode);
+        eq = readChars(in, freenode);
+        for (int i = 0; i < freenode; i++) {
+            if (isInnerNode(i)) {
+                lo[i] = fromRelative(lo[i], i);
+                eq[i] = fromRelative(eq[i], i);
+            }
+            hi[i] = fromRelative(hi[i], i);
+        }
+        kv = new CharVector(readChars(in, in.readInt()));
+    }
+
+    private boolean isInnerNode(int node) {
+        return sc[node] != 0 && sc[node] != 0xFFFF;
+    }
+
+    private static char toRelative(char node, int parent) {
+        return node == 0 ? 0 : (char) (node - parent);
+    }
+
+    private static char fromRelative(char offset, int parent) {
+        return offset == 0 ? 0 : (char) (offset + parent);
+    }
+
+    private static void writeChars(DataOutputStream out, char[] chars, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeChar(chars[i]);
+        }
+    }
+
+    private static char[] readChars(DataInputStream in, int count) throws IOException {
+        char[] chars = new char[count];
+        for (int i = 0; i < count; i++) {
+            chars[i] = in.readChar();
+        }
+        return chars;
+    }
+
     /** @return the keys */
     public Enumeration keys() {
         return new TernaryTreeIterator(this);
@@ -51,7 +51,6 @@ import com.itextpdf.kernel.pdf.canvas.CanvasArtifact;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.tagutils.TagTreePointer;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
-import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.kernel.pdf.xobject.PdfXObject;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.element.Image;
@@ -110,11 +109,11 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
 
         AffineTransform t = new AffineTransform();
         Image modelElement = (Image) (getModelElement());
-        PdfXObject xObject = modelElement.getXObject();
+        boolean isFormXObject = isFormXObject();
         imageWidth = modelElement.getImageWidth();
         imageHeight = modelElement.getImageHeight();
 
-        calculateImageDimensions(layoutBox, t, xObject);
+        calculateImageDimensions(layoutBox, t, isFormXObject);
 
         OverflowPropertyValue overflowX = null != parent
                 ? parent.<OverflowPropertyValue>getProperty(Property.OVERFLOW_X)
@@ -177,7 +176,7 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
         initialOccupiedAreaBBox.moveDown(imageContainerHeight);
         initialOccupiedAreaBBox.setHeight(imageContainerHeight);
         initialOccupiedAreaBBox.setWidth(imageContainerWidth);
-        if (xObject instanceof PdfFormXObject) {
+        if (isFormXObject) {
             t.scale(scaleCoef, scaleCoef);
         }
 
@@ -335,7 +334,7 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
 
         beginObjectFitImageClipping(canvas);
 
-        PdfXObject xObject = ((Image) (getModelElement())).getXObject();
+        PdfXObject xObject = ((Image) (getModelElement())).getXObject(drawContext.getDocument());
         beginElementOpacityApplying(drawContext);
 
         final float renderedImageShiftX = ((float) width - renderedImageWidth) / 2;
@@ -452,7 +451,7 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
         }
     }
 
-    private void calculateImageDimensions(Rectangle layoutBox, AffineTransform t, PdfXObject xObject) {
+    private void calculateImageDimensions(Rectangle layoutBox, AffineTransform t, boolean isFormXObject) {
         width = this.<UnitValue>getProperty(Property.WIDTH) != null ? retrieveWidth(layoutBox.getWidth()) : null;
         Float declaredHeight = retrieveHeight();
         height = declaredHeight;
@@ -469,13 +468,13 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
         Float verticalScaling = this.getPropertyAsFloat(Property.VERTICAL_SCALING, 1f);
 
 
-        if (xObject instanceof PdfFormXObject && width != imageWidth) {
+        if (isFormXObject && width != imageWidth) {
             horizontalScaling *= width / imageWidth;
             verticalScaling *= height / imageHeight;
         }
 
         if (horizontalScaling != 1) {
-            if (xObject instanceof PdfFormXObject) {
+            if (isFormXObject) {
                 t.scale((float) horizontalScaling, 1);
                 width = imageWidth * (float) horizontalScaling;
             } else {
@@ -483,7 +482,7 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
             }
         }
         if (verticalScaling != 1) {
-            if (xObject instanceof PdfFormXObject) {
+            if (isFormXObject) {
                 t.scale(1, (float) verticalScaling);
                 height = imageHeight * (float) verticalScaling;
             } else {
@@ -519,8 +518,7 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
 
     private void getMatrix(AffineTransform t, float imageItselfScaledWidth, float imageItselfScaledHeight) {
         t.getMatrix(matrix);
-        PdfXObject xObject = ((Image) (getModelElement())).getXObject();
-        if (xObject instanceof PdfImageXObject) {
+        if (!isFormXObject()) {
             matrix[0] *= imageItselfScaledWidth;
             matrix[1] *= imageItselfScaledWidth;
             matrix[2] *= imageItselfScaledHeight;
@@ -528,6 +526,12 @@ public class ImageRenderer extends AbstractRenderer implements ILeafElementRende
         }
     }
 
+    private boolean isFormXObject() {
+        Image image = (Image) getModelElement();
+        // the XObject of an image created from the image data is only created when the image is drawn
+        return image.getImageData() == null && image.getXObject() instanceof PdfFormXObject;
+    }
+
     private float adjustPositionAfterRotation(float angle, float maxWidth, float maxHeight) {
         if (angle != 0) {
             AffineTransform t = AffineTransform.getRotateInstance(angle);
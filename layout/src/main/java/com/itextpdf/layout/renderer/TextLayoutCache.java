@@ -0,0 +1,375 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.layout.RootElement;
+import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.property.FontKerning;
+import com.itextpdf.layout.property.Property;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An opt-in cache of the text processing results of {@link TextRenderer} instances.
+ * <p>
+ * Documents often contain a lot of {@link com.itextpdf.layout.element.Text} elements with exactly the same content
+ * and text properties (table headers, repeated labels, etc.). Each of them is converted to a {@link GlyphLine}
+ * and shaped (see {@link TextRenderer#applyOtf()}) independently. When an instance of this class is set as
+ * {@link Property#TEXT_LAYOUT_CACHE} property, text renderers reuse previously computed glyph lines for the same
+ * (text, font) and (glyphs, font, script, kerning, typography config) combinations instead.
+ * <p>
+ * Cached glyph lines are copied both on storing and on retrieval, so renderers never share mutable {@link Glyph}
+ * instances. The cache is bounded: when the capacity is exceeded, the oldest entries are evicted.
+ * All the methods of this class are thread-safe.
+ */
+public class TextLayoutCache {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+
+    private final Map<ConvertedTextKey, GlyphLine> convertedTexts = new LinkedHashMap<>();
+    private final Map<ShapedTextKey, ShapedText> shapedTexts = new LinkedHashMap<>();
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new {@link TextLayoutCache} instance with the default capacity.
+     */
+    public TextLayoutCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link TextLayoutCache} instance.
+     *
+     * @param capacity the maximum number of entries of each of the cached kinds (converted and shaped texts)
+     */
+    public TextLayoutCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the number of successful lookups performed since the creation of the cache or since the last
+     * {@link #clear()} call.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups which haven't found a cached result since the creation of the cache or since
+     * the last {@link #clear()} call.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the ratio of cache hits to the total number of lookups.
+     *
+     * @return the hit rate in the [0, 1] range, or 0 if no lookups have been performed yet
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of currently cached entries.
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return convertedTexts.size() + shapedTexts.size();
+    }
+
+    /**
+     * Removes all the cached entries and resets the hit and miss counters.
+     */
+    public synchronized void clear() {
+        convertedTexts.clear();
+        shapedTexts.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Converts and shapes the text of the passed elements in advance, filling this cache, so that the
+     * following layout of these elements only has to break the lines and place the text.
+     * <p>
+     * Fonts are resolved in the calling thread. Conversion to glyphs and shaping are then performed with the
+     * passed executor: texts which use the same {@link FontProgram} are processed by the same task, since fonts
+     * are not thread-safe, while texts which use different font programs are processed in parallel.
+     * The method returns once all the tasks are finished.
+     * <p>
+     * To benefit from the pre-shaping, this cache instance shall be set as {@link Property#TEXT_LAYOUT_CACHE}
+     * property to the root element or to the passed elements, and the elements shall not be modified before
+     * they're added to the root element.
+     *
+     * @param root     the root element to which the elements are going to be added; it's used to resolve
+     *                 the inherited properties, such as font and font provider
+     * @param elements the elements which text is to be pre-shaped
+     * @param executor the executor to perform the shaping tasks with, or null to perform them in the calling thread
+     */
+    public void preShape(RootElement root, Collection<? extends IElement> elements, ExecutorService executor) {
+        List<IRenderer> textRenderers = new ArrayList<>();
+        for (IElement element : elements) {
+            IRenderer renderer = element.createRendererSubTree();
+            renderer.setParent(root.getRenderer());
+            renderer.setProperty(Property.TEXT_LAYOUT_CACHE, this);
+            collectResolvedTextRenderers(renderer, textRenderers);
+        }
+
+        Map<FontProgram, List<TextRenderer>> renderersByFontProgram = new HashMap<>();
+        List<List<TextRenderer>> groups = new ArrayList<>();
+        for (IRenderer renderer : textRenderers) {
+            TextRenderer textRenderer = (TextRenderer) renderer;
+            Object font = textRenderer.<Object>getProperty(Property.FONT);
+            if (!(font instanceof PdfFont)) {
+                // empty texts, nothing to shape
+                continue;
+            }
+            FontProgram fontProgram = ((PdfFont) font).getFontProgram();
+            List<TextRenderer> group = renderersByFontProgram.get(fontProgram);
+            if (group == null) {
+                group = new ArrayList<>();
+                renderersByFontProgram.put(fontProgram, group);
+                groups.add(group);
+            }
+            group.add(textRenderer);
+        }
+
+        if (executor == null) {
+            for (List<TextRenderer> group : groups) {
+                new ShapingTask(group).call();
+            }
+        } else {
+            List<Callable<Object>> tasks = new ArrayList<>(groups.size());
+            for (List<TextRenderer> group : groups) {
+                tasks.add(new ShapingTask(group));
+            }
+            waitForTasks(executor, tasks);
+        }
+    }
+
+    synchronized GlyphLine getConvertedText(String text, PdfFont font) {
+        GlyphLine cached = convertedTexts.get(new ConvertedTextKey(text, font));
+        registerLookup(cached != null);
+        return cached == null ? null : copyGlyphLine(cached);
+    }
+
+    synchronized void putConvertedText(String text, PdfFont font, GlyphLine glyphLine) {
+        put(convertedTexts, new ConvertedTextKey(text, font), copyGlyphLine(glyphLine));
+    }
+
+    synchronized ShapedText getShapedText(GlyphLine source, PdfFont font, Character.UnicodeScript script,
+            FontKerning kerning, Object typographyConfig) {
+        ShapedText cached = shapedTexts.get(new ShapedTextKey(source, font, script, kerning, typographyConfig));
+        registerLookup(cached != null);
+        return cached == null ? null : new ShapedText(copyGlyphLine(cached.glyphLine), cached.bidiScriptDetected);
+    }
+
+    synchronized void putShapedText(GlyphLine source, PdfFont font, Character.UnicodeScript script,
+            FontKerning kerning, Object typographyConfig, GlyphLine shaped, boolean bidiScriptDetected) {
+        ShapedTextKey key = new ShapedTextKey(copyGlyphLine(source), font, script, kerning, typographyConfig);
+        put(shapedTexts, key, new ShapedText(copyGlyphLine(shaped), bidiScriptDetected));
+    }
+
+    static GlyphLine copyGlyphLine(GlyphLine line) {
+        GlyphLine copy = line.copy(line.start, line.end);
+        for (int i = 0; i < copy.size(); i++) {
+            copy.set(i, new Glyph(copy.get(i)));
+        }
+        return copy;
+    }
+
+    private static void collectResolvedTextRenderers(IRenderer renderer, List<IRenderer> addTo) {
+        if (renderer instanceof TextRenderer) {
+            ((TextRenderer) renderer).resolveFonts(addTo);
+        } else {
+            for (IRenderer child : renderer.getChildRenderers()) {
+                // parents are normally set on layout, but they're needed to resolve the inherited properties
+                collectResolvedTextRenderers(child.setParent(renderer), addTo);
+            }
+        }
+    }
+
+    private static void waitForTasks(ExecutorService executor, List<Callable<Object>> tasks) {
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(e.getCause());
+        }
+    }
+
+    private void registerLookup(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    private <K, V> void put(Map<K, V> map, K key, V value) {
+        if (!map.containsKey(key) && map.size() >= capacity) {
+            Iterator<K> oldest = map.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        map.put(key, value);
+    }
+
+    private static boolean equalsNullable(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    private static int hashCodeNullable(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    static final class ShapedText {
+        final GlyphLine glyphLine;
+        // true if text contains scripts (Arabic, Hebrew) for which bidi processing is required
+        final boolean bidiScriptDetected;
+
+        ShapedText(GlyphLine glyphLine, boolean bidiScriptDetected) {
+            this.glyphLine = glyphLine;
+            this.bidiScriptDetected = bidiScriptDetected;
+        }
+    }
+
+    private static final class ShapingTask implements Callable<Object> {
+        private final List<TextRenderer> renderers;
+
+        ShapingTask(List<TextRenderer> renderers) {
+            this.renderers = renderers;
+        }
+
+        @Override
+        public Object call() {
+            for (TextRenderer renderer : renderers) {
+                renderer.applyOtf();
+            }
+            return null;
+        }
+    }
+
+    private static final class ConvertedTextKey {
+        private final String text;
+        private final PdfFont font;
+
+        ConvertedTextKey(String text, PdfFont font) {
+            this.text = text;
+            this.font = font;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            ConvertedTextKey other = (ConvertedTextKey) obj;
+            return font == other.font && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + System.identityHashCode(font);
+        }
+    }
+
+    private static final class ShapedTextKey {
+        private final GlyphLine source;
+        private final PdfFont font;
+        private final Character.UnicodeScript script;
+        private final FontKerning kerning;
+        private final Object typographyConfig;
+
+        ShapedTextKey(GlyphLine source, PdfFont font, Character.UnicodeScript script, FontKerning kerning,
+                Object typographyConfig) {
+            this.source = source;
+            this.font = font;
+            this.script = script;
+            this.kerning = kerning;
+            this.typographyConfig = typographyConfig;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            ShapedTextKey other = (ShapedTextKey) obj;
+            return font == other.font && script == other.script && kerning == other.kerning
+                    && equalsNullable(typographyConfig, other.typographyConfig) && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = source.hashCode();
+            result = 31 * result + System.identityHashCode(font);
+            result = 31 * result + hashCodeNullable(script);
+            result = 31 * result + hashCodeNullable(kerning);
+            result = 31 * result + hashCodeNullable(typographyConfig);
+            return result;
+        }
+    }
+}
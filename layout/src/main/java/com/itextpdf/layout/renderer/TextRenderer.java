@@ -607,8 +607,28 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         updateFontAndText();
         Character.UnicodeScript script = this.<Character.UnicodeScript>getProperty(Property.FONT_SCRIPT);
         if (!otfFeaturesApplied && TypographyUtils.isPdfCalligraphAvailable() && text.start < text.end) {
+            Object typographyConfig = this.<Object>getProperty(Property.TYPOGRAPHY_CONFIG);
+            FontKerning fontKerning = (FontKerning) this.<FontKerning>getProperty(Property.FONT_KERNING, FontKerning.NO);
+
+            // Only the whole glyph lines are cached, because shaping of a part of the line depends on its context
+            TextLayoutCache cache = text.start == 0 && text.end == text.size()
+                    ? this.<TextLayoutCache>getProperty(Property.TEXT_LAYOUT_CACHE) : null;
+            GlyphLine unshapedText = null;
+            if (cache != null) {
+                TextLayoutCache.ShapedText shapedText = cache.getShapedText(text, font, script, fontKerning, typographyConfig);
+                if (shapedText != null) {
+                    text = shapedText.glyphLine;
+                    if (shapedText.bidiScriptDetected && parent instanceof LineRenderer) {
+                        setProperty(Property.BASE_DIRECTION, BaseDirection.DEFAULT_BIDI);
+                    }
+                    otfFeaturesApplied = true;
+                    return;
+                }
+                unshapedText = TextLayoutCache.copyGlyphLine(text);
+            }
+
+            boolean bidiScriptDetected = false;
             if (hasOtfFont()) {
-                Object typographyConfig = this.<Object>getProperty(Property.TYPOGRAPHY_CONFIG);
                 Collection<Character.UnicodeScript> supportedScripts = null;
         	    if (typographyConfig != null) {
     	            supportedScripts = TypographyUtils.getSupportedScripts(typographyConfig);
@@ -656,7 +676,10 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                     text.start = shapingRangeStart;
                     text.end = scriptsRange.rangeEnd;
 
-                    if ((scriptsRange.script == Character.UnicodeScript.ARABIC || scriptsRange.script == Character.UnicodeScript.HEBREW) && parent instanceof LineRenderer) {
+                    boolean bidiScript = scriptsRange.script == Character.UnicodeScript.ARABIC
+                            || scriptsRange.script == Character.UnicodeScript.HEBREW;
+                    bidiScriptDetected = bidiScriptDetected || bidiScript;
+                    if (bidiScript && parent instanceof LineRenderer) {
                         // It's safe to set here BASE_DIRECTION to TextRenderer without additional checks, because
                         // by convention this property makes sense only if it's applied to LineRenderer or it's
                         // parents (Paragraph or above).
@@ -673,11 +696,14 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                 text.end = origTextEnd + delta;
             }
 
-            FontKerning fontKerning = (FontKerning) this.<FontKerning>getProperty(Property.FONT_KERNING, FontKerning.NO);
             if (fontKerning == FontKerning.YES) {
                 TypographyUtils.applyKerning(font.getFontProgram(), text);
             }
 
+            if (cache != null) {
+                cache.putShapedText(unshapedText, font, script, fontKerning, typographyConfig, text, bidiScriptDetected);
+            }
+
             otfFeaturesApplied = true;
         }
     }
@@ -1558,8 +1584,15 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                     logger.error(LogMessageConstant.FONT_PROPERTY_MUST_BE_PDF_FONT_OBJECT);
                 }
             }
-            GlyphLine newText = newFont.createGlyphLine(strToBeConverted);
-            newText = TextPreprocessingUtil.replaceSpecialWhitespaceGlyphs(newText, newFont);
+            TextLayoutCache cache = this.<TextLayoutCache>getProperty(Property.TEXT_LAYOUT_CACHE);
+            GlyphLine newText = cache == null ? null : cache.getConvertedText(strToBeConverted, newFont);
+            if (newText == null) {
+                newText = newFont.createGlyphLine(strToBeConverted);
+                newText = TextPreprocessingUtil.replaceSpecialWhitespaceGlyphs(newText, newFont);
+                if (cache != null) {
+                    cache.putConvertedText(strToBeConverted, newFont, newText);
+                }
+            }
             setProcessedGlyphLineAndFont(newText, newFont);
         }
     }
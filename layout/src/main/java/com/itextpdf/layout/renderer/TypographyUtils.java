@@ -47,6 +47,7 @@ import com.itextpdf.io.font.FontProgram;
 import com.itextpdf.io.font.TrueTypeFont;
 import com.itextpdf.io.font.otf.Glyph;
 import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.io.font.otf.ShapedGlyphLineCache;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.layout.property.BaseDirection;
@@ -139,8 +140,13 @@ public final class TypographyUtils {
         if (!TYPOGRAPHY_MODULE_INITIALIZED) {
             logger.warn(typographyNotFoundException);
         } else {
-            callMethod(TYPOGRAPHY_PACKAGE + SHAPER, APPLY_OTF_SCRIPT, new Class[]{TrueTypeFont.class, GlyphLine.class, Character.UnicodeScript.class, Object.class},
-                    fontProgram, text, script, typographyConfig);
+            ShapedGlyphLineCache cache = fontProgram.getShapedGlyphLineCache();
+            Object key = cache.createKey(text, new ShapingParameters(APPLY_OTF_SCRIPT, script, typographyConfig));
+            if (!cache.apply(key, text)) {
+                callMethod(TYPOGRAPHY_PACKAGE + SHAPER, APPLY_OTF_SCRIPT, new Class[]{TrueTypeFont.class, GlyphLine.class, Character.UnicodeScript.class, Object.class},
+                        fontProgram, text, script, typographyConfig);
+                cache.put(key, text);
+            }
         }
     }
 
@@ -148,9 +154,14 @@ public final class TypographyUtils {
         if (!TYPOGRAPHY_MODULE_INITIALIZED) {
             logger.warn(typographyNotFoundException);
         } else {
-            callMethod(TYPOGRAPHY_PACKAGE + SHAPER, APPLY_KERNING, new Class[]{FontProgram.class, GlyphLine.class},
-                    fontProgram, text);
-//            Shaper.applyKerning(fontProgram, text);
+            ShapedGlyphLineCache cache = fontProgram.getShapedGlyphLineCache();
+            Object key = cache.createKey(text, new ShapingParameters(APPLY_KERNING, null, null));
+            if (!cache.apply(key, text)) {
+                callMethod(TYPOGRAPHY_PACKAGE + SHAPER, APPLY_KERNING, new Class[]{FontProgram.class, GlyphLine.class},
+                        fontProgram, text);
+//                Shaper.applyKerning(fontProgram, text);
+                cache.put(key, text);
+            }
         }
     }
 
@@ -384,4 +395,40 @@ public final class TypographyUtils {
             return result;
         }
     }
+
+    /**
+     * The key of the shaping results in the {@link ShapedGlyphLineCache} of the font program.
+     * The language and the features to be applied are defined by the typography config.
+     */
+    private static class ShapingParameters {
+        private final String operation;
+        private final Character.UnicodeScript script;
+        private final Object typographyConfig;
+
+        ShapingParameters(String operation, Character.UnicodeScript script, Object typographyConfig) {
+            this.operation = operation;
+            this.script = script;
+            this.typographyConfig = typographyConfig;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            ShapingParameters that = (ShapingParameters) o;
+
+            if (!operation.equals(that.operation)) return false;
+            if (script != that.script) return false;
+            return typographyConfig != null ? typographyConfig.equals(that.typographyConfig) : that.typographyConfig == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = operation.hashCode();
+            result = 31 * result + (script != null ? script.hashCode() : 0);
+            result = 31 * result + (typographyConfig != null ? typographyConfig.hashCode() : 0);
+            return result;
+        }
+    }
 }
@@ -49,11 +49,15 @@ import com.itextpdf.io.util.UrlUtil;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfXObject;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.AreaBreak;
@@ -80,6 +84,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 @Category(IntegrationTest.class)
@@ -989,4 +994,48 @@ public class ImageTest extends ExtendedITextTest {
 
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, "diff02_"));
     }
+
+    @Test
+    public void sameImageDataIsWrittenOnceTest() throws IOException {
+        String outFileName = destinationFolder + "sameImageDataIsWrittenOnce.pdf";
+
+        Document document = new Document(new PdfDocument(new PdfWriter(outFileName)));
+        Image[] images = new Image[3];
+        for (int i = 0; i < images.length; i++) {
+            if (i > 0) {
+                document.add(new AreaBreak());
+            }
+            // the image data are created anew for every page, as if the image were read over and over again
+            images[i] = new Image(ImageDataFactory.create(sourceFolder + "Desert.jpg")).scaleToFit(200, 200);
+            document.add(images[i]);
+        }
+        document.close();
+
+        for (int i = 1; i < images.length; i++) {
+            Assert.assertSame(images[0].getXObject(), images[i].getXObject());
+        }
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(outFileName));
+        PdfName imageName = new PdfName("Im1");
+        PdfDictionary firstXObjects = pdfDocument.getFirstPage().getResources().getResource(PdfName.XObject);
+        for (int i = 2; i <= images.length; i++) {
+            PdfDictionary xObjects = pdfDocument.getPage(i).getResources().getResource(PdfName.XObject);
+            Assert.assertEquals(firstXObjects.getAsStream(imageName).getIndirectReference(),
+                    xObjects.getAsStream(imageName).getIndirectReference());
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void xObjectRequestedBeforeDrawingIsNotSharedTest() throws IOException {
+        Document document = new Document(new PdfDocument(new PdfWriter(new ByteArrayOutputStream())));
+        Image first = new Image(ImageDataFactory.create(sourceFolder + "Desert.jpg")).scaleToFit(200, 200);
+        Image second = new Image(ImageDataFactory.create(sourceFolder + "Desert.jpg")).scaleToFit(200, 200);
+        // the caller may modify the image XObject it has got, so it's drawn as it is
+        PdfXObject xObject = first.getXObject();
+        document.add(first);
+        document.add(second);
+        Assert.assertSame(xObject, first.getXObject());
+        Assert.assertNotSame(xObject, second.getXObject());
+        document.close();
+    }
 }
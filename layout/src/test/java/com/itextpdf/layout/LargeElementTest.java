@@ -74,6 +74,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 @Category(IntegrationTest.class)
@@ -1267,4 +1268,34 @@ public class LargeElementTest extends ExtendedITextTest {
         doc.close();
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
     }
+
+    @Test
+    public void largeTableFlushReleasesAddedRowsTest() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        Document doc = new Document(pdfDoc);
+
+        Table table = new Table(UnitValue.createPercentArray(3), true);
+        doc.add(table);
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 3; j++) {
+                table.addCell(new Cell().add(new Paragraph(MessageFormatUtil.format("Cell {0}, {1}", i + 1, j + 1))));
+            }
+            if (i % 50 == 49) {
+                table.flush();
+                // only the last flushed row is kept to process the borders of the next portion of the table
+                Assert.assertTrue(table.getChildren().isEmpty());
+                Assert.assertEquals(0, table.getNumberOfRows());
+                Assert.assertEquals(3, table.getLastRowBottomBorder().size());
+            }
+        }
+        for (int j = 0; j < 3; j++) {
+            table.addCell(new Cell().add(new Paragraph("Last row")));
+        }
+        Assert.assertEquals(3, table.getChildren().size());
+        Assert.assertEquals(1, table.getNumberOfRows());
+
+        table.complete();
+        Assert.assertTrue(table.getChildren().isEmpty());
+        doc.close();
+    }
 }
@@ -0,0 +1,179 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.layout.hyphenation;
+
+import com.itextpdf.io.util.ResourceUtil;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class HyphenationTreeTest extends ExtendedITextTest {
+
+    private static final String[] WORDS = {"Annuitätendarlehen", "Hyphenation", "Silbentrennung",
+            "Donaudampfschifffahrt", "backen", "Kaffee", "zusammenarbeiten"};
+
+    private static final String[] LANGUAGES = {"af", "as", "bg", "bn", "ca", "cop", "cs", "cy", "da", "de",
+            "de_1901", "de_CH", "de_DR", "el", "el_Polyton", "en", "en_GB", "en_US", "eo", "es", "et", "eu", "fi",
+            "fr", "ga", "gl", "grc", "gu", "hi", "hr", "hsb", "hu", "hy", "ia", "id", "is", "it", "kmr", "kn", "la",
+            "lo", "lt", "lv", "ml", "mn", "mr", "nb", "nl", "nn", "no", "or", "pa", "pl", "pt", "ro", "ru", "sa",
+            "sk", "sl", "sr_Cyrl", "sr_Latn", "sv", "ta", "te", "tk", "tr", "uk", "zh_Latn"};
+
+    @Test
+    public void binaryPatternsRoundTripTest() throws IOException, HyphenationException {
+        HyphenationTree xmlTree = Hyphenator.getHyphenationTree(
+                ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + "de.xml"), "de");
+        Assert.assertNotNull(xmlTree);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        xmlTree.writeBinaryPatterns(baos);
+        HyphenationTree binaryTree = new HyphenationTree();
+        binaryTree.loadBinaryPatterns(new ByteArrayInputStream(baos.toByteArray()), "de");
+
+        Assert.assertEquals(xmlTree.size(), binaryTree.size());
+        Assert.assertEquals(xmlTree.root, binaryTree.root);
+        Assert.assertEquals(xmlTree.freenode, binaryTree.freenode);
+        Assert.assertArrayEquals(Arrays.copyOf(xmlTree.lo, xmlTree.freenode), binaryTree.lo);
+        Assert.assertArrayEquals(Arrays.copyOf(xmlTree.hi, xmlTree.freenode), binaryTree.hi);
+        Assert.assertArrayEquals(Arrays.copyOf(xmlTree.eq, xmlTree.freenode), binaryTree.eq);
+        Assert.assertArrayEquals(Arrays.copyOf(xmlTree.sc, xmlTree.freenode), binaryTree.sc);
+        for (String word : WORDS) {
+            Hyphenation expected = xmlTree.hyphenate(word, 2, 2);
+            Hyphenation actual = binaryTree.hyphenate(word, 2, 2);
+            Assert.assertEquals(word, String.valueOf(expected), String.valueOf(actual));
+        }
+        Assert.assertEquals(xmlTree.findPattern("ab"), binaryTree.findPattern("ab"));
+    }
+
+    @Test
+    public void exceptionsArePreservedTest() throws IOException, HyphenationException {
+        HyphenationTree tree = new HyphenationTree();
+        tree.addException("backen", new ArrayList<Object>(Arrays.asList("ba", new Hyphen("k-", "ck", "k"), "en")));
+        tree.trimToSize();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        tree.writeBinaryPatterns(baos);
+        HyphenationTree binaryTree = new HyphenationTree();
+        binaryTree.loadBinaryPatterns(new ByteArrayInputStream(baos.toByteArray()), "test");
+
+        List exception = binaryTree.stoplist.get("backen");
+        Assert.assertEquals(3, exception.size());
+        Assert.assertEquals("ba", exception.get(0));
+        Hyphen hyphen = (Hyphen) exception.get(1);
+        Assert.assertEquals("k-", hyphen.preBreak);
+        Assert.assertEquals("ck", hyphen.noBreak);
+        Assert.assertEquals("k", hyphen.postBreak);
+        Assert.assertEquals(String.valueOf(tree.hyphenate("backen", 2, 2)), String.valueOf(binaryTree.hyphenate("backen", 2, 2)));
+    }
+
+    @Test
+    public void binaryPatternsAreUpToDateTest() throws IOException, HyphenationException {
+        for (String language : LANGUAGES) {
+            HyphenationTree xmlTree = new HyphenationTree();
+            xmlTree.loadPatterns(ResourceUtil.getResourceStream(
+                    HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE + language + ".xml"), language);
+
+            InputStream binaryStream = ResourceUtil.getResourceStream(HyphenationConstants.HYPHENATION_DEFAULT_RESOURCE
+                    + language + HyphenationConstants.BINARY_PATTERNS_EXTENSION);
+            Assert.assertNotNull(language, binaryStream);
+            HyphenationTree binaryTree = new HyphenationTree();
+            try {
+                binaryTree.loadBinaryPatterns(binaryStream, language);
+            } finally {
+                binaryStream.close();
+            }
+
+            // the decoded patterns are compared, since the compressed bytes depend on the zlib version
+            assertTreesEqual(language, xmlTree, binaryTree);
+            assertTreesEqual(language + " classmap", xmlTree.classmap, binaryTree.classmap);
+            Assert.assertArrayEquals(language, Arrays.copyOf(xmlTree.vspace.getArray(), xmlTree.vspace.length()),
+                    Arrays.copyOf(binaryTree.vspace.getArray(), binaryTree.vspace.length()));
+            Assert.assertEquals(language, xmlTree.stoplist.keySet(), binaryTree.stoplist.keySet());
+            for (Map.Entry<String, List> entry : xmlTree.stoplist.entrySet()) {
+                Assert.assertEquals(language + " " + entry.getKey(), String.valueOf(entry.getValue()),
+                        String.valueOf(binaryTree.stoplist.get(entry.getKey())));
+            }
+        }
+    }
+
+    @Test(expected = HyphenationException.class)
+    public void invalidBinaryPatternsTest() throws HyphenationException {
+        new HyphenationTree().loadBinaryPatterns(new ByteArrayInputStream(new byte[] {'<', '?', 'x', 'm', 'l'}), "invalid");
+    }
+
+    @Test
+    public void concurrentLoadingTest() throws Exception {
+        Hyphenator.clearHyphenationTreeCache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<HyphenationTree>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(new Callable<HyphenationTree>() {
+                    @Override
+                    public HyphenationTree call() {
+                        return Hyphenator.getHyphenationTree("fr", null, null);
+                    }
+                });
+            }
+            HyphenationTree first = null;
+            for (Future<HyphenationTree> result : executor.invokeAll(tasks)) {
+                HyphenationTree tree = result.get();
+                Assert.assertNotNull(tree);
+                if (first == null) {
+                    first = tree;
+                }
+                // the patterns are parsed once and shared
+                Assert.assertSame(first, tree);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertTreesEqual(String message, TernaryTree expected, TernaryTree actual) {
+        Assert.assertEquals(message, expected.root, actual.root);
+        Assert.assertEquals(message, expected.freenode, actual.freenode);
+        Assert.assertEquals(message, expected.length, actual.length);
+        Assert.assertArrayEquals(message, Arrays.copyOf(expected.lo, expected.freenode), Arrays.copyOf(actual.lo, actual.freenode));
+        Assert.assertArrayEquals(message, Arrays.copyOf(expected.hi, expected.freenode), Arrays.copyOf(actual.hi, actual.freenode));
+        Assert.assertArrayEquals(message, Arrays.copyOf(expected.eq, expected.freenode), Arrays.copyOf(actual.eq, actual.freenode));
+        Assert.assertArrayEquals(message, Arrays.copyOf(expected.sc, expected.freenode), Arrays.copyOf(actual.sc, actual.freenode));
+        Assert.assertArrayEquals(message, Arrays.copyOf(expected.kv.getArray(), expected.kv.length()),
+                Arrays.copyOf(actual.kv.getArray(), actual.kv.length()));
+    }
+}
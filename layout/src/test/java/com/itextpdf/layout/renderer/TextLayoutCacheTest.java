@@ -0,0 +1,160 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.layout.renderer;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.property.FontKerning;
+import com.itextpdf.layout.property.Property;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class TextLayoutCacheTest extends RendererUnitTest {
+
+    @Test
+    public void repeatedTextIsConvertedOnceTest() {
+        Document document = createDocument();
+        TextLayoutCache cache = new TextLayoutCache();
+        document.setProperty(Property.TEXT_LAYOUT_CACHE, cache);
+
+        TextRenderer first = createLayoutedTextRenderer("Total", document);
+        TextRenderer second = createLayoutedTextRenderer("Total", document);
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0.5, cache.getHitRate(), 1e-9);
+        Assert.assertEquals(first.getText(), second.getText());
+        Assert.assertEquals(first.getOccupiedArea(), second.getOccupiedArea());
+        // renderers must not share glyph instances
+        Assert.assertNotSame(first.getText().get(0), second.getText().get(0));
+    }
+
+    @Test
+    public void differentFontsAreCachedSeparatelyTest() throws IOException {
+        TextLayoutCache cache = new TextLayoutCache();
+        PdfFont font = PdfFontFactory.createFont();
+        PdfFont otherFont = PdfFontFactory.createFont();
+
+        cache.putConvertedText("Total", font, font.createGlyphLine("Total"));
+
+        Assert.assertNotNull(cache.getConvertedText("Total", font));
+        Assert.assertNull(cache.getConvertedText("Total", otherFont));
+        Assert.assertNull(cache.getConvertedText("Invoice", font));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void shapedTextLookupTest() throws IOException {
+        TextLayoutCache cache = new TextLayoutCache();
+        PdfFont font = PdfFontFactory.createFont();
+        GlyphLine source = font.createGlyphLine("AV");
+        GlyphLine shaped = new GlyphLine(source);
+        shaped.set(0, new Glyph(source.get(0), 0, 0, -80, 0, 0));
+
+        cache.putShapedText(source, font, null, FontKerning.YES, null, shaped, false);
+
+        Assert.assertNull(cache.getShapedText(source, font, null, FontKerning.NO, null));
+        TextLayoutCache.ShapedText cached = cache.getShapedText(source, font, null, FontKerning.YES, null);
+        Assert.assertNotNull(cached);
+        Assert.assertFalse(cached.bidiScriptDetected);
+        Assert.assertEquals(-80, cached.glyphLine.get(0).getXAdvance());
+
+        // modification of the retrieved line must not affect the cached one
+        cached.glyphLine.get(0).setXAdvance((short) 0);
+        Assert.assertEquals(-80, cache.getShapedText(source, font, null, FontKerning.YES, null).glyphLine.get(0).getXAdvance());
+    }
+
+    @Test
+    public void capacityTest() throws IOException {
+        TextLayoutCache cache = new TextLayoutCache(2);
+        PdfFont font = PdfFontFactory.createFont();
+        cache.putConvertedText("a", font, font.createGlyphLine("a"));
+        cache.putConvertedText("b", font, font.createGlyphLine("b"));
+        cache.putConvertedText("c", font, font.createGlyphLine("c"));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.getConvertedText("a", font));
+        Assert.assertNotNull(cache.getConvertedText("c", font));
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void preShapeTest() throws IOException, InterruptedException {
+        Document document = createDocument();
+        TextLayoutCache cache = new TextLayoutCache();
+        document.setProperty(Property.TEXT_LAYOUT_CACHE, cache);
+        PdfFont courier = PdfFontFactory.createFont(StandardFonts.COURIER);
+
+        List<IElement> elements = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            elements.add(new Paragraph("Invoice").add(new Text(String.valueOf(i % 5)).setFont(courier)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            cache.preShape(document, elements, executor);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        // "Invoice" is converted once, as well as each of the five digits
+        Assert.assertEquals(6, cache.getMissCount());
+        Assert.assertEquals(34, cache.getHitCount());
+
+        cache.clear();
+        cache.preShape(document, elements, null);
+        Assert.assertEquals(6, cache.getMissCount());
+        for (IElement element : elements) {
+            document.add((Paragraph) element);
+        }
+        // nothing is converted during the layout
+        Assert.assertEquals(6, cache.getMissCount());
+        document.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityTest() {
+        new TextLayoutCache(0);
+    }
+}